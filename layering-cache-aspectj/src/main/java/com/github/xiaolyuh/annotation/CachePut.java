@@ -1,5 +1,6 @@
 package com.github.xiaolyuh.annotation;
 
+import com.github.xiaolyuh.support.CacheMode;
 import com.github.xiaolyuh.support.KeyGenerator;
 import org.springframework.core.annotation.AliasFor;
 
@@ -91,4 +92,11 @@ public @interface CachePut {
      * @return SecondaryCache
      */
     SecondaryCache secondaryCache() default @SecondaryCache();
+
+    /**
+     * 缓存模式，默认同时使用一级缓存和二级缓存
+     *
+     * @return CacheMode
+     */
+    CacheMode cacheMode() default CacheMode.ALL;
 }
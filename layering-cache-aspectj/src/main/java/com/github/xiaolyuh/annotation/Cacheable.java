@@ -1,5 +1,6 @@
 package com.github.xiaolyuh.annotation;
 
+import com.github.xiaolyuh.support.CacheMode;
 import com.github.xiaolyuh.support.KeyGenerator;
 import org.springframework.core.annotation.AliasFor;
 
@@ -77,6 +78,24 @@ public @interface Cacheable {
      */
     boolean ignoreException() default true;
 
+    /**
+     * 是否开启批量模式，默认false。
+     * <p>开启后被缓存方法的集合参数会被拆分成单个元素，每个元素作为一个缓存key单独缓存；
+     * 先批量查询一级和二级缓存，只使用缺失的元素调用被缓存的方法，再和缓存命中的数据合并后返回。</p>
+     * <p>集合参数通过{@link #key()}指定（如：#userIds），没有指定时使用第一个集合类型的参数；
+     * 被缓存方法的返回值必须是以元素为key的Map或者List，返回值是List时需要配置{@link #batchResultKey()}</p>
+     *
+     * @return boolean
+     */
+    boolean batch() default false;
+
+    /**
+     * 批量模式下返回值是List时，从List的每个元素中获取缓存key的SpEL表达式，表达式的根对象是元素本身，如：userId
+     *
+     * @return String
+     */
+    String batchResultKey() default "";
+
     /**
      * 一级缓存配置
      *
@@ -90,4 +109,11 @@ public @interface Cacheable {
      * @return SecondaryCache
      */
     SecondaryCache secondaryCache() default @SecondaryCache();
+
+    /**
+     * 缓存模式，默认同时使用一级缓存和二级缓存
+     *
+     * @return CacheMode
+     */
+    CacheMode cacheMode() default CacheMode.ALL;
 }
@@ -50,4 +50,26 @@ public @interface FirstCache {
      * @see ExpireMode
      */
     ExpireMode expireMode() default ExpireMode.WRITE;
+
+    /**
+     * 写入后多久异步从二级缓存刷新一级缓存，刷新期间仍然返回旧值，小于等于0表示不刷新，需要小于缓存有效时间，只使用一级缓存时不支持
+     *
+     * @return int
+     */
+    int refreshAfterWrite() default 0;
+
+    /**
+     * 每秒访问次数达到该值判定为热点key，小于等于0表示不探测热点key
+     *
+     * @return int
+     */
+    int hotKeyThreshold() default 0;
+
+    /**
+     * 热点key固定在本地缓存中的有效时间，时间单位和 timeUnit 一致，小于等于0表示只探测不固定，
+     * 只使用二级缓存时热点key也会固定在本地缓存中
+     *
+     * @return int
+     */
+    int hotKeyExpireTime() default 0;
 }
@@ -1,5 +1,7 @@
 package com.github.xiaolyuh.annotation;
 
+import com.github.xiaolyuh.support.BloomFilterMode;
+
 import java.lang.annotation.*;
 import java.util.concurrent.TimeUnit;
 
@@ -59,4 +61,57 @@ public @interface SecondaryCache {
      * @return int
      */
     int magnification() default 1;
+
+    /**
+     * 概率提前刷新（XFetch）的beta系数，默认是0，表示不开启，使用固定的preloadTime判断是否刷新
+     * <p>
+     * 开启后根据缓存剩余有效时间和加载数据的平均耗时随机提前刷新缓存，beta越大越早刷新，一般设置成1
+     * </p>
+     *
+     * @return double
+     */
+    double earlyRefreshBeta() default 0;
+
+    /**
+     * 缓存有效时间的随机抖动百分比，默认是0，表示不开启，大于0时优先于 expireJitter
+     * <p>
+     * 如配置缓存的有效时间是200秒，抖动百分比设置成10，那么缓存的有效时间是200~220秒之间的随机值，
+     * 一级缓存的有效时间也按这个百分比随机抖动
+     * </p>
+     *
+     * @return int
+     */
+    int expireJitterPercent() default 0;
+
+    /**
+     * 缓存有效时间的随机抖动时间，时间单位是 timeUnit，默认是0，表示不开启，只对二级缓存生效
+     *
+     * @return long
+     */
+    long expireJitter() default 0;
+
+    /**
+     * 布隆过滤器模式，默认不使用，只对不允许缓存NULL值的缓存生效
+     * <p>
+     * 过滤器判断一定不存在的key直接返回NULL，不再查询redis和执行被缓存的方法，
+     * 需要通过缓存管理器设置key来源初始化过滤器，初始化之前不过滤
+     * </p>
+     *
+     * @return BloomFilterMode
+     */
+    BloomFilterMode bloomFilterMode() default BloomFilterMode.NONE;
+
+    /**
+     * 布隆过滤器预计的key数量
+     *
+     * @return long
+     */
+    long bloomFilterExpectedInsertions() default 1000000;
+
+    /**
+     * 布隆过滤器的误判率
+     *
+     * @return double
+     */
+    double bloomFilterFpp() default 0.01;
 }
@@ -0,0 +1,153 @@
+package com.github.xiaolyuh.aspect;
+
+import com.github.xiaolyuh.cache.AbstractValueAdaptingCache;
+import com.github.xiaolyuh.cache.Cache;
+import com.github.xiaolyuh.support.AsyncLoader;
+import com.github.xiaolyuh.support.CacheOperationInvoker;
+import com.github.xiaolyuh.support.SerializationException;
+import com.github.xiaolyuh.util.FutureUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * 异步返回值适配器，被缓存方法的返回值是 {@link CompletableFuture}、Mono 或 Flux 时，缓存的是异步结果中的值而不是返回值对象本身
+ * <p>通过 {@link Cache#getAsync(Object, AsyncLoader)} 获取缓存，缓存命中和加载数据时都不会阻塞调用线程</p>
+ *
+ * @author yuhao.wang3
+ */
+abstract class AsyncReturnValueAdapter {
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono",
+            AsyncReturnValueAdapter.class.getClassLoader());
+
+    /**
+     * 根据方法的返回值类型获取适配器
+     *
+     * @param returnType 方法的返回值类型
+     * @return 返回值不是异步类型时返回NULL
+     */
+    static AsyncReturnValueAdapter of(Class<?> returnType) {
+        if (CompletionStage.class.isAssignableFrom(returnType) && returnType.isAssignableFrom(CompletableFuture.class)) {
+            return new CompletableFutureReturnValueAdapter();
+        }
+        if (REACTOR_PRESENT) {
+            return ReactorReturnValueAdapter.of(returnType);
+        }
+        return null;
+    }
+
+    /**
+     * 执行 Cacheable 切面
+     *
+     * @param cache           {@link Cache}
+     * @param key             缓存key
+     * @param invoker         缓存注解的回调方法
+     * @param ignoreException 是否忽略操作缓存过程中遇到的异常
+     * @return 和被缓存方法返回值类型一致的异步对象
+     */
+    abstract Object cacheable(Cache cache, Object key, CacheOperationInvoker invoker, boolean ignoreException);
+
+    /**
+     * 执行 CachePut 切面
+     *
+     * @param caches          {@link Cache} 集合
+     * @param key             缓存key
+     * @param invoker         缓存注解的回调方法
+     * @param ignoreException 是否忽略操作缓存过程中遇到的异常
+     * @return 和被缓存方法返回值类型一致的异步对象
+     */
+    abstract Object put(List<Cache> caches, Object key, CacheOperationInvoker invoker, boolean ignoreException);
+
+    /**
+     * 异步获取缓存，没有命中时调用asyncLoader加载数据
+     * <p>缓存值序列化异常时先删除缓存；忽略异常时操作缓存的异常直接调用asyncLoader，被缓存方法本身的异常不会再次执行方法</p>
+     */
+    protected CompletableFuture<Object> getAsync(Cache cache, Object key, AsyncLoader<Object> asyncLoader, boolean ignoreException) {
+        CompletableFuture<Object> future;
+        try {
+            future = cache.getAsync(key, asyncLoader);
+        } catch (RuntimeException e) {
+            future = FutureUtils.failedFuture(e);
+        }
+        return future.handle((value, e) -> e == null ? CompletableFuture.completedFuture(value)
+                : onCacheableError(cache, key, asyncLoader, ignoreException, FutureUtils.unwrap(e)))
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<Object> onCacheableError(Cache cache, Object key, AsyncLoader<Object> asyncLoader,
+                                                       boolean ignoreException, Throwable cause) {
+        if (cause instanceof AbstractValueAdaptingCache.LoaderCacheValueException) {
+            return FutureUtils.failedFuture(cause);
+        }
+
+        // 如果是序列化异常需要先删除原有缓存
+        CompletableFuture<Void> evictFuture = cause instanceof SerializationException
+                ? cache.evictAsync(key) : CompletableFuture.completedFuture(null);
+        return evictFuture.handle((v, e) -> {
+            if (!ignoreException) {
+                return FutureUtils.failedFuture(cause);
+            }
+            logger.warn(cause.getMessage(), cause);
+            try {
+                CompletionStage<Object> stage = asyncLoader.load();
+                return stage == null ? CompletableFuture.completedFuture(null) : stage.toCompletableFuture();
+            } catch (Exception ex) {
+                return FutureUtils.<Object>failedFuture(ex);
+            }
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * 将被缓存方法的异步结果放到所有缓存，写入完成后返回结果
+     */
+    protected CompletableFuture<Object> putAsync(List<Cache> caches, Object key, Object value, boolean ignoreException) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[caches.size()];
+        for (int i = 0; i < futures.length; i++) {
+            try {
+                futures[i] = caches.get(i).putAsync(key, value);
+            } catch (RuntimeException e) {
+                futures[i] = FutureUtils.failedFuture(e);
+            }
+        }
+        return CompletableFuture.allOf(futures).handle((v, e) -> {
+            if (e == null) {
+                return CompletableFuture.completedFuture(value);
+            }
+            Throwable cause = FutureUtils.unwrap(e);
+            if (!ignoreException) {
+                return FutureUtils.failedFuture(cause);
+            }
+            logger.warn(cause.getMessage(), cause);
+            return CompletableFuture.completedFuture(value);
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * 返回值是 {@link CompletableFuture} 或 {@link CompletionStage} 的适配器
+     */
+    static class CompletableFutureReturnValueAdapter extends AsyncReturnValueAdapter {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object cacheable(Cache cache, Object key, CacheOperationInvoker invoker, boolean ignoreException) {
+            return getAsync(cache, key, () -> (CompletionStage<Object>) invoker.invoke(), ignoreException);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object put(List<Cache> caches, Object key, CacheOperationInvoker invoker, boolean ignoreException) {
+            CompletionStage<Object> stage = (CompletionStage<Object>) invoker.invoke();
+            if (stage == null) {
+                return null;
+            }
+            return stage.toCompletableFuture().thenCompose(value -> putAsync(caches, key, value, ignoreException));
+        }
+    }
+}
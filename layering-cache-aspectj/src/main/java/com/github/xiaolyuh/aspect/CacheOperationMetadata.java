@@ -0,0 +1,105 @@
+package com.github.xiaolyuh.aspect;
+
+import com.github.xiaolyuh.cache.Cache;
+import com.github.xiaolyuh.setting.LayeringCacheSetting;
+import org.springframework.context.expression.AnnotatedElementKey;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * 缓存方法的元数据，同一个方法只解析一次注解、缓存配置和 {@link Cache}
+ *
+ * @param <A> 缓存注解类型
+ * @author yuhao.wang3
+ */
+class CacheOperationMetadata<A extends Annotation> {
+
+    /**
+     * 缓存注解
+     */
+    private final A annotation;
+
+    /**
+     * 目标类上的具体方法
+     */
+    private final Method method;
+
+    /**
+     * 目标类
+     */
+    private final Class<?> targetClass;
+
+    /**
+     * SpEL表达式缓存使用的方法key
+     */
+    private final AnnotatedElementKey methodKey;
+
+    /**
+     * 注解上的缓存配置，CacheEvict 没有缓存配置
+     */
+    private final LayeringCacheSetting layeringCacheSetting;
+
+    /**
+     * 异步返回值适配器，返回值不是异步类型时为NULL
+     */
+    private final AsyncReturnValueAdapter asyncReturnValueAdapter;
+
+    /**
+     * 批量模式下集合参数的下标，不是批量模式时为-1
+     */
+    private final int batchArgIndex;
+
+    /**
+     * 第一次执行时解析出来的 {@link Cache}，CacheManager 不会删除已创建的 Cache，所以可以直接持有引用
+     */
+    private volatile List<Cache> caches;
+
+    CacheOperationMetadata(A annotation, Method method, Class<?> targetClass, LayeringCacheSetting layeringCacheSetting,
+                           int batchArgIndex) {
+        this.annotation = annotation;
+        this.method = method;
+        this.targetClass = targetClass;
+        this.methodKey = new AnnotatedElementKey(method, targetClass);
+        this.layeringCacheSetting = layeringCacheSetting;
+        this.asyncReturnValueAdapter = AsyncReturnValueAdapter.of(method.getReturnType());
+        this.batchArgIndex = batchArgIndex;
+    }
+
+    A getAnnotation() {
+        return annotation;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    AnnotatedElementKey getMethodKey() {
+        return methodKey;
+    }
+
+    LayeringCacheSetting getLayeringCacheSetting() {
+        return layeringCacheSetting;
+    }
+
+    AsyncReturnValueAdapter getAsyncReturnValueAdapter() {
+        return asyncReturnValueAdapter;
+    }
+
+    int getBatchArgIndex() {
+        return batchArgIndex;
+    }
+
+    List<Cache> getCaches() {
+        return caches;
+    }
+
+    void setCaches(List<Cache> caches) {
+        this.caches = caches;
+    }
+}
@@ -7,6 +7,7 @@ import com.github.xiaolyuh.manager.CacheManager;
 import com.github.xiaolyuh.setting.FirstCacheSetting;
 import com.github.xiaolyuh.setting.LayeringCacheSetting;
 import com.github.xiaolyuh.setting.SecondaryCacheSetting;
+import com.github.xiaolyuh.support.CacheMode;
 import com.github.xiaolyuh.support.CacheOperationInvoker;
 import com.github.xiaolyuh.support.KeyGenerator;
 import com.github.xiaolyuh.support.SerializationException;
@@ -23,15 +24,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.core.BridgeMethodResolver;
 import org.springframework.core.annotation.AnnotationUtils;
-import org.springframework.expression.EvaluationContext;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 缓存拦截，用于注册方法信息
@@ -44,12 +52,24 @@ public class LayeringAspect {
 
     private static final String CACHE_KEY_ERROR_MESSAGE = "缓存Key %s 不能为NULL";
     private static final String CACHE_NAME_ERROR_MESSAGE = "缓存名称不能为NULL";
+    private static final String BATCH_ARG_ERROR_MESSAGE = "批量缓存方法 %s 的key %s 必须直接引用集合类型的参数，如：#userIds、#p0，"
+            + "没有配置key时使用第一个集合类型的参数";
+    private static final String BATCH_RETURN_TYPE_ERROR_MESSAGE = "批量缓存方法 %s 的返回值必须是Map或List，返回值是List时必须配置batchResultKey";
 
     /**
      * SpEL表达式计算器
      */
     private final CacheOperationExpressionEvaluator evaluator = new CacheOperationExpressionEvaluator();
 
+    /**
+     * 缓存方法元数据，key是方法和目标类
+     */
+    private final Map<AnnotatedElementKey, CacheOperationMetadata<Cacheable>> cacheableMetadataCache = new ConcurrentHashMap<>(256);
+
+    private final Map<AnnotatedElementKey, CacheOperationMetadata<CacheEvict>> cacheEvictMetadataCache = new ConcurrentHashMap<>(256);
+
+    private final Map<AnnotatedElementKey, CacheOperationMetadata<CachePut>> cachePutMetadataCache = new ConcurrentHashMap<>(256);
+
     @Autowired
     private CacheManager cacheManager;
 
@@ -72,19 +92,26 @@ public class LayeringAspect {
     public Object cacheablePointcut(ProceedingJoinPoint joinPoint) throws Throwable {
         CacheOperationInvoker aopAllianceInvoker = getCacheOperationInvoker(joinPoint);
 
-        // 获取method
-        Method method = this.getSpecificmethod(joinPoint);
-        // 获取注解
-        Cacheable cacheable = AnnotationUtils.findAnnotation(method, Cacheable.class);
+        // 获取方法元数据
+        CacheOperationMetadata<Cacheable> metadata = getMetadata(joinPoint, Cacheable.class, cacheableMetadataCache);
+        Cacheable cacheable = metadata.getAnnotation();
 
         try {
+            // 批量模式
+            if (cacheable.batch()) {
+                return executeBatchCacheable(joinPoint, metadata, joinPoint.getArgs());
+            }
             // 执行查询缓存方法
-            return executeCacheable(aopAllianceInvoker, cacheable, method, joinPoint.getArgs(), joinPoint.getTarget());
+            return executeCacheable(aopAllianceInvoker, metadata, joinPoint.getArgs(), joinPoint.getTarget());
         } catch (SerializationException e) {
             // 如果是序列化异常需要先删除原有缓存
             String[] cacheNames = cacheable.cacheNames();
             // 删除缓存
-            delete(cacheNames, cacheable.key(), method, joinPoint.getArgs(), joinPoint.getTarget());
+            if (cacheable.batch()) {
+                deleteBatch(cacheNames, metadata, joinPoint.getArgs());
+            } else {
+                delete(cacheNames, cacheable.key(), metadata, joinPoint.getArgs(), joinPoint.getTarget());
+            }
 
             // 忽略操作缓存过程中遇到的异常
             if (cacheable.ignoreException()) {
@@ -106,14 +133,13 @@ public class LayeringAspect {
     public Object cacheEvictPointcut(ProceedingJoinPoint joinPoint) throws Throwable {
         CacheOperationInvoker aopAllianceInvoker = getCacheOperationInvoker(joinPoint);
 
-        // 获取method
-        Method method = this.getSpecificmethod(joinPoint);
-        // 获取注解
-        CacheEvict cacheEvict = AnnotationUtils.findAnnotation(method, CacheEvict.class);
+        // 获取方法元数据
+        CacheOperationMetadata<CacheEvict> metadata = getMetadata(joinPoint, CacheEvict.class, cacheEvictMetadataCache);
+        CacheEvict cacheEvict = metadata.getAnnotation();
 
         try {
             // 执行查询缓存方法
-            return executeEvict(aopAllianceInvoker, cacheEvict, method, joinPoint.getArgs(), joinPoint.getTarget());
+            return executeEvict(aopAllianceInvoker, metadata, joinPoint.getArgs(), joinPoint.getTarget());
         } catch (Exception e) {
             // 忽略操作缓存过程中遇到的异常
             if (cacheEvict.ignoreException()) {
@@ -128,14 +154,13 @@ public class LayeringAspect {
     public Object cachePutPointcut(ProceedingJoinPoint joinPoint) throws Throwable {
         CacheOperationInvoker aopAllianceInvoker = getCacheOperationInvoker(joinPoint);
 
-        // 获取method
-        Method method = this.getSpecificmethod(joinPoint);
-        // 获取注解
-        CachePut cacheEvict = AnnotationUtils.findAnnotation(method, CachePut.class);
+        // 获取方法元数据
+        CacheOperationMetadata<CachePut> metadata = getMetadata(joinPoint, CachePut.class, cachePutMetadataCache);
+        CachePut cacheEvict = metadata.getAnnotation();
 
         try {
             // 执行查询缓存方法
-            return executePut(aopAllianceInvoker, cacheEvict, method, joinPoint.getArgs(), joinPoint.getTarget());
+            return executePut(aopAllianceInvoker, metadata, joinPoint.getArgs(), joinPoint.getTarget());
         } catch (Exception e) {
             // 忽略操作缓存过程中遇到的异常
             if (cacheEvict.ignoreException()) {
@@ -149,56 +174,129 @@ public class LayeringAspect {
     /**
      * 执行Cacheable切面
      *
-     * @param invoker   缓存注解的回调方法
-     * @param cacheable {@link Cacheable}
-     * @param method    {@link Method}
-     * @param args      注解方法参数
-     * @param target    target
+     * @param invoker  缓存注解的回调方法
+     * @param metadata 缓存方法元数据
+     * @param args     注解方法参数
+     * @param target   target
      * @return {@link Object}
      */
-    private Object executeCacheable(CacheOperationInvoker invoker, Cacheable cacheable,
-                                    Method method, Object[] args, Object target) {
+    private Object executeCacheable(CacheOperationInvoker invoker, CacheOperationMetadata<Cacheable> metadata,
+                                    Object[] args, Object target) {
 
-        // 解析SpEL表达式获取cacheName和key
-        String[] cacheNames = cacheable.cacheNames();
-        Assert.notEmpty(cacheable.cacheNames(), CACHE_NAME_ERROR_MESSAGE);
-        String cacheName = cacheNames[0];
-        Object key = generateKey(cacheable.key(), method, args, target);
+        Cacheable cacheable = metadata.getAnnotation();
+        // 通过cacheName和缓存配置获取Cache
+        Cache cache = getCaches(metadata, cacheable.cacheNames(), false).get(0);
+
+        // 解析SpEL表达式获取key
+        Object key = generateKey(cacheable.key(), metadata, args, target);
         Assert.notNull(key, String.format(CACHE_KEY_ERROR_MESSAGE, cacheable.key()));
 
-        // 从注解中获取缓存配置
-        FirstCache firstCache = cacheable.firstCache();
-        SecondaryCache secondaryCache = cacheable.secondaryCache();
-        FirstCacheSetting firstCacheSetting = new FirstCacheSetting(firstCache.initialCapacity(), firstCache.maximumSize(),
-                firstCache.expireTime(), firstCache.timeUnit(), firstCache.expireMode());
+        // 返回值是异步类型时缓存异步结果中的值
+        AsyncReturnValueAdapter asyncReturnValueAdapter = metadata.getAsyncReturnValueAdapter();
+        if (asyncReturnValueAdapter != null) {
+            return asyncReturnValueAdapter.cacheable(cache, key, invoker, cacheable.ignoreException());
+        }
 
-        SecondaryCacheSetting secondaryCacheSetting = new SecondaryCacheSetting(secondaryCache.expireTime(),
-                secondaryCache.preloadTime(), secondaryCache.timeUnit(), secondaryCache.forceRefresh(),
-                secondaryCache.isAllowNullValue(), secondaryCache.magnification());
+        // 通Cache获取值
+        return cache.get(key, () -> invoker.invoke());
+    }
 
-        LayeringCacheSetting layeringCacheSetting = new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting,
-                cacheable.depict());
+    /**
+     * 执行批量模式的Cacheable切面，集合参数中的每个元素作为一个缓存key
+     *
+     * @param joinPoint {@link ProceedingJoinPoint}
+     * @param metadata  缓存方法元数据
+     * @param args      注解方法参数
+     * @return {@link Object}
+     */
+    @SuppressWarnings("unchecked")
+    private Object executeBatchCacheable(ProceedingJoinPoint joinPoint, CacheOperationMetadata<Cacheable> metadata, Object[] args) {
 
+        Cacheable cacheable = metadata.getAnnotation();
+        Method method = metadata.getMethod();
         // 通过cacheName和缓存配置获取Cache
-        Cache cache = cacheManager.getCache(cacheName, layeringCacheSetting);
+        Cache cache = getCaches(metadata, cacheable.cacheNames(), false).get(0);
 
-        // 通Cache获取值
-        return cache.get(key, () -> invoker.invoke());
+        // 获取集合参数
+        int index = metadata.getBatchArgIndex();
+        Collection<Object> keys = (Collection<Object>) args[index];
+        if (CollectionUtils.isEmpty(keys)) {
+            return proceed(joinPoint, args);
+        }
+        Assert.noNullElements(keys.toArray(), String.format(CACHE_KEY_ERROR_MESSAGE, cacheable.key()));
+
+        boolean isReturnMap = Map.class.isAssignableFrom(method.getReturnType());
+        boolean isReturnList = List.class.isAssignableFrom(method.getReturnType()) && StringUtils.hasText(cacheable.batchResultKey());
+        Assert.isTrue(isReturnMap || isReturnList, String.format(BATCH_RETURN_TYPE_ERROR_MESSAGE, method));
+
+        // 批量获取缓存，只使用缓存中缺失的元素调用被缓存的方法
+        Class<?> argType = method.getParameterTypes()[index];
+        Map<Object, Object> result = cache.getAll(keys, missKeys -> {
+            Object[] missArgs = args.clone();
+            missArgs[index] = toBatchArg(missKeys, argType);
+            return toBatchResult(proceed(joinPoint, missArgs), cacheable.batchResultKey(), metadata);
+        });
+        return isReturnMap ? result : new ArrayList<>(result.values());
+    }
+
+    /**
+     * 将缺失的key集合转换成被缓存方法的参数类型
+     */
+    private Collection<Object> toBatchArg(Collection<Object> missKeys, Class<?> argType) {
+        if (argType.isAssignableFrom(ArrayList.class)) {
+            return new ArrayList<>(missKeys);
+        }
+        if (argType.isAssignableFrom(LinkedHashSet.class)) {
+            return new LinkedHashSet<>(missKeys);
+        }
+        throw new IllegalArgumentException(String.format("批量缓存方法不支持 %s 类型的集合参数", argType.getName()));
+    }
+
+    /**
+     * 将被缓存方法的返回值转换成key和值的映射
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> toBatchResult(Object value, String batchResultKey, CacheOperationMetadata<?> metadata) {
+        if (value == null) {
+            return Collections.emptyMap();
+        }
+        if (value instanceof Map) {
+            return (Map<Object, Object>) value;
+        }
+
+        Map<Object, Object> result = new HashMap<>();
+        for (Object element : (Collection<Object>) value) {
+            if (element != null) {
+                result.put(evaluator.batchResultKey(batchResultKey, metadata.getMethodKey(), element), element);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 使用指定的参数执行被缓存的方法
+     */
+    private Object proceed(ProceedingJoinPoint joinPoint, Object[] args) {
+        try {
+            return joinPoint.proceed(args);
+        } catch (Throwable ex) {
+            throw new CacheOperationInvoker.ThrowableWrapperException(ex);
+        }
     }
 
     /**
      * 执行 CacheEvict 切面
      *
-     * @param invoker    缓存注解的回调方法
-     * @param cacheEvict {@link CacheEvict}
-     * @param method     {@link Method}
-     * @param args       注解方法参数
-     * @param target     target
+     * @param invoker  缓存注解的回调方法
+     * @param metadata 缓存方法元数据
+     * @param args     注解方法参数
+     * @param target   target
      * @return {@link Object}
      */
-    private Object executeEvict(CacheOperationInvoker invoker, CacheEvict cacheEvict,
-                                Method method, Object[] args, Object target) {
+    private Object executeEvict(CacheOperationInvoker invoker, CacheOperationMetadata<CacheEvict> metadata,
+                                Object[] args, Object target) {
 
+        CacheEvict cacheEvict = metadata.getAnnotation();
         // 解析SpEL表达式获取cacheName和key
         String[] cacheNames = cacheEvict.cacheNames();
         Assert.notEmpty(cacheEvict.cacheNames(), CACHE_NAME_ERROR_MESSAGE);
@@ -220,7 +318,7 @@ public class LayeringAspect {
             }
         } else {
             // 删除指定key
-            delete(cacheNames, cacheEvict.key(), method, args, target);
+            delete(cacheNames, cacheEvict.key(), metadata, args, target);
         }
 
         // 执行方法
@@ -232,13 +330,42 @@ public class LayeringAspect {
      *
      * @param cacheNames 缓存名称
      * @param keySpEL    key的SpEL表达式
-     * @param method     {@link Method}
+     * @param metadata   缓存方法元数据
      * @param args       参数列表
      * @param target     目标类
      */
-    private void delete(String[] cacheNames, String keySpEL, Method method, Object[] args, Object target) {
-        Object key = generateKey(keySpEL, method, args, target);
+    private void delete(String[] cacheNames, String keySpEL, CacheOperationMetadata<?> metadata, Object[] args, Object target) {
+        Object key = generateKey(keySpEL, metadata, args, target);
         Assert.notNull(key, String.format(CACHE_KEY_ERROR_MESSAGE, keySpEL));
+        evict(cacheNames, key);
+    }
+
+    /**
+     * 批量模式下删除集合参数中每个元素对应的缓存
+     *
+     * @param cacheNames 缓存名称
+     * @param metadata   缓存方法元数据
+     * @param args       参数列表
+     */
+    private void deleteBatch(String[] cacheNames, CacheOperationMetadata<?> metadata, Object[] args) {
+        Collection<?> keys = (Collection<?>) args[metadata.getBatchArgIndex()];
+        if (CollectionUtils.isEmpty(keys)) {
+            return;
+        }
+        for (Object key : keys) {
+            if (key != null) {
+                evict(cacheNames, key);
+            }
+        }
+    }
+
+    /**
+     * 删除缓存名称上的指定key
+     *
+     * @param cacheNames 缓存名称
+     * @param key        缓存key
+     */
+    private void evict(String[] cacheNames, Object key) {
         for (String cacheName : cacheNames) {
             Collection<Cache> caches = cacheManager.getCache(cacheName);
             if (CollectionUtils.isEmpty(caches)) {
@@ -258,46 +385,137 @@ public class LayeringAspect {
      * 执行 CachePut 切面
      *
      * @param invoker  缓存注解的回调方法
-     * @param cachePut {@link CachePut}
-     * @param method   {@link Method}
+     * @param metadata 缓存方法元数据
      * @param args     注解方法参数
      * @param target   target
      * @return {@link Object}
      */
-    private Object executePut(CacheOperationInvoker invoker, CachePut cachePut, Method method, Object[] args, Object target) {
-
+    private Object executePut(CacheOperationInvoker invoker, CacheOperationMetadata<CachePut> metadata, Object[] args, Object target) {
 
-        String[] cacheNames = cachePut.cacheNames();
-        Assert.notEmpty(cachePut.cacheNames(), CACHE_NAME_ERROR_MESSAGE);
+        CachePut cachePut = metadata.getAnnotation();
+        // 通过cacheName和缓存配置获取Cache
+        List<Cache> caches = getCaches(metadata, cachePut.cacheNames(), true);
         // 解析SpEL表达式获取 key
-        Object key = generateKey(cachePut.key(), method, args, target);
+        Object key = generateKey(cachePut.key(), metadata, args, target);
         Assert.notNull(key, String.format(CACHE_KEY_ERROR_MESSAGE, cachePut.key()));
 
-        // 从解决中获取缓存配置
-        FirstCache firstCache = cachePut.firstCache();
-        SecondaryCache secondaryCache = cachePut.secondaryCache();
-        FirstCacheSetting firstCacheSetting = new FirstCacheSetting(firstCache.initialCapacity(), firstCache.maximumSize(),
-                firstCache.expireTime(), firstCache.timeUnit(), firstCache.expireMode());
-
-        SecondaryCacheSetting secondaryCacheSetting = new SecondaryCacheSetting(secondaryCache.expireTime(),
-                secondaryCache.preloadTime(), secondaryCache.timeUnit(), secondaryCache.forceRefresh(),
-                secondaryCache.isAllowNullValue(), secondaryCache.magnification());
-
-        LayeringCacheSetting layeringCacheSetting = new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting,
-                cachePut.depict());
+        // 返回值是异步类型时异步结果完成后再放到缓存
+        AsyncReturnValueAdapter asyncReturnValueAdapter = metadata.getAsyncReturnValueAdapter();
+        if (asyncReturnValueAdapter != null) {
+            return asyncReturnValueAdapter.put(caches, key, invoker, cachePut.ignoreException());
+        }
 
         // 指定调用方法获取缓存值
         Object result = invoker.invoke();
 
-        for (String cacheName : cacheNames) {
-            // 通过cacheName和缓存配置获取Cache
-            Cache cache = cacheManager.getCache(cacheName, layeringCacheSetting);
+        for (Cache cache : caches) {
             cache.put(key, result);
         }
 
         return result;
     }
 
+    /**
+     * 获取缓存方法的元数据，同一个方法只在第一次调用时解析注解和缓存配置
+     *
+     * @param joinPoint      {@link ProceedingJoinPoint}
+     * @param annotationType 注解类型
+     * @param metadataCache  元数据缓存
+     * @param <A>            注解类型
+     * @return {@link CacheOperationMetadata}
+     */
+    private <A extends Annotation> CacheOperationMetadata<A> getMetadata(ProceedingJoinPoint joinPoint, Class<A> annotationType,
+                                                                       Map<AnnotatedElementKey, CacheOperationMetadata<A>> metadataCache) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = getTargetClass(joinPoint.getTarget());
+        AnnotatedElementKey cacheKey = new AnnotatedElementKey(method, targetClass);
+        CacheOperationMetadata<A> metadata = metadataCache.get(cacheKey);
+        if (metadata != null) {
+            return metadata;
+        }
+
+        // 获取method
+        Method specificMethod = this.getSpecificmethod(joinPoint);
+        // 获取注解
+        A annotation = AnnotationUtils.findAnnotation(specificMethod, annotationType);
+        // 从注解中获取缓存配置
+        LayeringCacheSetting layeringCacheSetting = null;
+        int batchArgIndex = -1;
+        if (annotation instanceof Cacheable) {
+            Cacheable cacheable = (Cacheable) annotation;
+            layeringCacheSetting = getLayeringCacheSetting(cacheable.firstCache(), cacheable.secondaryCache(), cacheable.depict(),
+                    cacheable.cacheMode());
+            // 批量模式下集合参数的下标只解析一次，不支持的key表达式直接报错
+            if (cacheable.batch()) {
+                batchArgIndex = evaluator.batchArgIndex(cacheable.key(), specificMethod, targetClass);
+                Assert.isTrue(batchArgIndex >= 0, String.format(BATCH_ARG_ERROR_MESSAGE, specificMethod, cacheable.key()));
+            }
+        } else if (annotation instanceof CachePut) {
+            CachePut cachePut = (CachePut) annotation;
+            layeringCacheSetting = getLayeringCacheSetting(cachePut.firstCache(), cachePut.secondaryCache(), cachePut.depict(),
+                    cachePut.cacheMode());
+        }
+
+        metadata = new CacheOperationMetadata<>(annotation, specificMethod, targetClass, layeringCacheSetting, batchArgIndex);
+        metadataCache.putIfAbsent(cacheKey, metadata);
+        return metadata;
+    }
+
+    /**
+     * 获取缓存方法对应的Cache，第一次执行时通过cacheName和缓存配置获取，之后直接使用元数据中的Cache
+     *
+     * @param metadata   缓存方法元数据
+     * @param cacheNames 缓存名称
+     * @param all        是否获取所有缓存名称对应的Cache，否则只获取第一个
+     * @return Cache 集合
+     */
+    private List<Cache> getCaches(CacheOperationMetadata<?> metadata, String[] cacheNames, boolean all) {
+        List<Cache> caches = metadata.getCaches();
+        if (caches != null) {
+            return caches;
+        }
+
+        Assert.notEmpty(cacheNames, CACHE_NAME_ERROR_MESSAGE);
+        int size = all ? cacheNames.length : 1;
+        caches = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            caches.add(cacheManager.getCache(cacheNames[i], metadata.getLayeringCacheSetting()));
+        }
+        caches = Collections.unmodifiableList(caches);
+        metadata.setCaches(caches);
+        return caches;
+    }
+
+    /**
+     * 根据注解上的一级缓存和二级缓存配置生成多级缓存配置
+     *
+     * @param firstCache     {@link FirstCache}
+     * @param secondaryCache {@link SecondaryCache}
+     * @param depict         描述
+     * @param cacheMode      缓存模式
+     * @return {@link LayeringCacheSetting}
+     */
+    private LayeringCacheSetting getLayeringCacheSetting(FirstCache firstCache, SecondaryCache secondaryCache, String depict,
+                                                         CacheMode cacheMode) {
+        FirstCacheSetting firstCacheSetting = new FirstCacheSetting(firstCache.initialCapacity(), firstCache.maximumSize(),
+                firstCache.expireTime(), firstCache.timeUnit(), firstCache.expireMode());
+        firstCacheSetting.setRefreshAfterWrite(firstCache.refreshAfterWrite());
+        firstCacheSetting.setHotKeyThreshold(firstCache.hotKeyThreshold());
+        firstCacheSetting.setHotKeyExpireTime(firstCache.hotKeyExpireTime());
+
+        SecondaryCacheSetting secondaryCacheSetting = new SecondaryCacheSetting(secondaryCache.expireTime(),
+                secondaryCache.preloadTime(), secondaryCache.timeUnit(), secondaryCache.forceRefresh(),
+                secondaryCache.isAllowNullValue(), secondaryCache.magnification());
+        secondaryCacheSetting.setEarlyRefreshBeta(secondaryCache.earlyRefreshBeta());
+        secondaryCacheSetting.setExpireJitterPercent(secondaryCache.expireJitterPercent());
+        secondaryCacheSetting.setExpireJitter(secondaryCache.expireJitter());
+        secondaryCacheSetting.setBloomFilterMode(secondaryCache.bloomFilterMode());
+        secondaryCacheSetting.setBloomFilterExpectedInsertions(secondaryCache.bloomFilterExpectedInsertions());
+        secondaryCacheSetting.setBloomFilterFpp(secondaryCache.bloomFilterFpp());
+
+        return new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting, depict, cacheMode);
+    }
+
     private CacheOperationInvoker getCacheOperationInvoker(ProceedingJoinPoint joinPoint) {
         return () -> {
             try {
@@ -313,20 +531,16 @@ public class LayeringAspect {
      *
      * @return Object
      */
-    private Object generateKey(String keySpEl, Method method, Object[] args, Object target) {
+    private Object generateKey(String keySpEl, CacheOperationMetadata<?> metadata, Object[] args, Object target) {
 
         // 获取注解上的key属性值
-        Class<?> targetClass = getTargetClass(target);
         if (StringUtils.hasText(keySpEl)) {
-            EvaluationContext evaluationContext = evaluator.createEvaluationContext(method, args, target,
-                    targetClass, CacheOperationExpressionEvaluator.NO_RESULT);
-
-            AnnotatedElementKey methodCacheKey = new AnnotatedElementKey(method, targetClass);
             // 兼容传null值得情况
-            Object keyValue = evaluator.key(keySpEl, methodCacheKey, evaluationContext);
+            Object keyValue = evaluator.key(keySpEl, metadata.getMethodKey(), metadata.getMethod(), args,
+                    target, metadata.getTargetClass());
             return Objects.isNull(keyValue) ? "null" : keyValue;
         }
-        return this.keyGenerator.generate(target, method, args);
+        return this.keyGenerator.generate(target, metadata.getMethod(), args);
     }
 
     /**
@@ -0,0 +1,69 @@
+package com.github.xiaolyuh.aspect;
+
+import com.github.xiaolyuh.cache.Cache;
+import com.github.xiaolyuh.support.CacheOperationInvoker;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 返回值是 Reactor {@link Mono} 或 {@link Flux} 的适配器，只有 classpath 中有 reactor-core 时才会加载
+ * <p>订阅时才查询缓存和执行被缓存的方法；Mono 缓存发出的值，Flux 把发出的所有元素收集成 List 后缓存</p>
+ *
+ * @author yuhao.wang3
+ */
+abstract class ReactorReturnValueAdapter extends AsyncReturnValueAdapter {
+
+    /**
+     * 根据方法的返回值类型获取适配器
+     *
+     * @param returnType 方法的返回值类型
+     * @return 返回值不是 Mono 或 Flux 时返回NULL
+     */
+    static AsyncReturnValueAdapter of(Class<?> returnType) {
+        if (Mono.class == returnType) {
+            return new MonoReturnValueAdapter();
+        }
+        if (Flux.class == returnType) {
+            return new FluxReturnValueAdapter();
+        }
+        return null;
+    }
+
+    static class MonoReturnValueAdapter extends ReactorReturnValueAdapter {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object cacheable(Cache cache, Object key, CacheOperationInvoker invoker, boolean ignoreException) {
+            return Mono.defer(() -> Mono.fromFuture(getAsync(cache, key,
+                    () -> ((Mono<Object>) invoker.invoke()).toFuture(), ignoreException)));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object put(List<Cache> caches, Object key, CacheOperationInvoker invoker, boolean ignoreException) {
+            return ((Mono<Object>) invoker.invoke())
+                    .flatMap(value -> Mono.fromFuture(putAsync(caches, key, value, ignoreException)));
+        }
+    }
+
+    static class FluxReturnValueAdapter extends ReactorReturnValueAdapter {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object cacheable(Cache cache, Object key, CacheOperationInvoker invoker, boolean ignoreException) {
+            return Flux.defer(() -> Mono.fromFuture(getAsync(cache, key,
+                    () -> ((Flux<Object>) invoker.invoke()).collectList().cast(Object.class).toFuture(), ignoreException))
+                    .flatMapIterable(values -> (List<Object>) values));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object put(List<Cache> caches, Object key, CacheOperationInvoker invoker, boolean ignoreException) {
+            return ((Flux<Object>) invoker.invoke()).collectList()
+                    .flatMap(values -> Mono.fromFuture(putAsync(caches, key, values, ignoreException)))
+                    .flatMapIterable(values -> (List<Object>) values);
+        }
+    }
+}
@@ -5,10 +5,17 @@ import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.context.expression.CachedExpressionEvaluator;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Utility class handling the SpEL expression parsing.
@@ -39,6 +46,29 @@ public class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator
      */
     public static final String RESULT_VARIABLE = "result";
 
+    private static final String ROOT_VARIABLE = "root";
+
+    private static final String THIS_VARIABLE = "this";
+
+    /**
+     * 不是直接引用参数的表达式
+     */
+    private static final int NO_ARG_INDEX = -1;
+
+    /**
+     * 通过下标引用参数的表达式，如：#p0、#a0、#root.args[0]
+     */
+    private static final Pattern ARG_INDEX_PATTERN = Pattern.compile("^#(?:[pa](\\d{1,9})|root\\.args\\[(\\d{1,9})])$");
+
+    /**
+     * 通过参数名引用参数的表达式，如：#userId
+     */
+    private static final Pattern ARG_NAME_PATTERN = Pattern.compile("^#([A-Za-z_$][\\w$]*)$");
+
+    /**
+     * 和下标变量同名的参数名，如：p0、a1
+     */
+    private static final Pattern INDEX_VARIABLE_PATTERN = Pattern.compile("^[pa]\\d+$");
 
     private final Map<ExpressionKey, Expression> keyCache = new ConcurrentHashMap<ExpressionKey, Expression>(64);
 
@@ -48,9 +78,22 @@ public class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator
 
     private final Map<ExpressionKey, Expression> unlessCache = new ConcurrentHashMap<ExpressionKey, Expression>(64);
 
+    private final Map<ExpressionKey, Expression> batchResultKeyCache = new ConcurrentHashMap<ExpressionKey, Expression>(64);
+
+    private final Map<AnnotatedElementKey, Map<String, Integer>> keyArgIndexCache =
+            new ConcurrentHashMap<AnnotatedElementKey, Map<String, Integer>>(64);
+
     private final Map<AnnotatedElementKey, Method> targetMethodCache =
             new ConcurrentHashMap<AnnotatedElementKey, Method>(64);
 
+    /**
+     * 使用MIXED编译模式，表达式执行多次后会被编译成字节码，编译后执行失败会自动退回解释执行
+     */
+    public CacheOperationExpressionEvaluator() {
+        super(new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED,
+                CacheOperationExpressionEvaluator.class.getClassLoader())));
+    }
+
     /**
      * Create an {@link EvaluationContext} without a return value.
      *
@@ -98,11 +141,82 @@ public class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator
         return getExpression(this.keyCache, methodKey, expression).getValue(evalContext);
     }
 
+    /**
+     * 计算缓存key，#p0、#a0、#root.args[0]、#参数名 这类直接引用参数的表达式不创建 {@link EvaluationContext}，直接返回参数值
+     *
+     * @param expression  表达式
+     * @param methodKey   AnnotatedElementKey
+     * @param method      Method
+     * @param args        方法参数
+     * @param target      目标对象
+     * @param targetClass 目标类
+     * @return 缓存key
+     */
+    public Object key(String expression, AnnotatedElementKey methodKey, Method method, Object[] args,
+                      Object target, Class<?> targetClass) {
+
+        Map<String, Integer> argIndexCache = this.keyArgIndexCache.get(methodKey);
+        if (argIndexCache == null) {
+            argIndexCache = new ConcurrentHashMap<String, Integer>(4);
+            this.keyArgIndexCache.put(methodKey, argIndexCache);
+        }
+        Integer argIndex = argIndexCache.get(expression);
+        if (argIndex == null) {
+            argIndex = getArgIndex(expression, getTargetMethod(targetClass, method));
+            argIndexCache.put(expression, argIndex);
+        }
+        if (argIndex != NO_ARG_INDEX) {
+            return args[argIndex];
+        }
+
+        EvaluationContext evalContext = createEvaluationContext(method, args, target, targetClass, NO_RESULT);
+        return key(expression, methodKey, evalContext);
+    }
+
+    /**
+     * 解析批量方法集合参数的下标，表达式只能直接引用参数，如：#userIds、#p0，没有指定表达式时取第一个集合类型的参数
+     *
+     * @param expression  表达式
+     * @param method      方法
+     * @param targetClass 目标类
+     * @return 集合参数的下标，表达式不是直接引用参数或者参数不是集合类型时返回-1
+     */
+    public int batchArgIndex(String expression, Method method, Class<?> targetClass) {
+        Method targetMethod = getTargetMethod(targetClass, method);
+        Class<?>[] parameterTypes = targetMethod.getParameterTypes();
+        if (!StringUtils.hasText(expression)) {
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (Collection.class.isAssignableFrom(parameterTypes[i])) {
+                    return i;
+                }
+            }
+            return NO_ARG_INDEX;
+        }
+
+        int argIndex = getArgIndex(expression, targetMethod);
+        if (argIndex == NO_ARG_INDEX || !Collection.class.isAssignableFrom(parameterTypes[argIndex])) {
+            return NO_ARG_INDEX;
+        }
+        return argIndex;
+    }
+
     public Object cacheName(String expression, AnnotatedElementKey methodKey, EvaluationContext evalContext) {
 
         return getExpression(this.cacheNameCache, methodKey, expression).getValue(evalContext);
     }
 
+    /**
+     * 以批量方法返回值中的元素作为根对象计算缓存key
+     *
+     * @param expression 表达式
+     * @param methodKey  AnnotatedElementKey
+     * @param element    返回值中的元素
+     * @return 缓存key
+     */
+    public Object batchResultKey(String expression, AnnotatedElementKey methodKey, Object element) {
+        return getExpression(this.batchResultKeyCache, methodKey, expression).getValue(element);
+    }
+
     public boolean condition(String conditionExpression, AnnotatedElementKey methodKey, EvaluationContext evalContext) {
         return getExpression(this.conditionCache, methodKey, conditionExpression).getValue(evalContext, boolean.class);
     }
@@ -116,11 +230,52 @@ public class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator
      */
     void clear() {
         this.keyCache.clear();
+        this.keyArgIndexCache.clear();
+        this.batchResultKeyCache.clear();
         this.conditionCache.clear();
         this.unlessCache.clear();
         this.targetMethodCache.clear();
     }
 
+    /**
+     * 解析表达式直接引用的参数下标，可变参数方法和其他表达式返回 {@link #NO_ARG_INDEX}
+     */
+    private int getArgIndex(String expression, Method method) {
+        if (method.isVarArgs()) {
+            return NO_ARG_INDEX;
+        }
+
+        String trimmed = expression.trim();
+        Matcher indexMatcher = ARG_INDEX_PATTERN.matcher(trimmed);
+        if (indexMatcher.matches()) {
+            String index = indexMatcher.group(1) != null ? indexMatcher.group(1) : indexMatcher.group(2);
+            // 下标越界时交给SpEL处理，保持原有的行为
+            int argIndex = Integer.parseInt(index);
+            return argIndex < method.getParameterCount() ? argIndex : NO_ARG_INDEX;
+        }
+
+        Matcher nameMatcher = ARG_NAME_PATTERN.matcher(trimmed);
+        if (!nameMatcher.matches()) {
+            return NO_ARG_INDEX;
+        }
+        String name = nameMatcher.group(1);
+        // #root、#this 不是变量；和下标变量或结果变量同名时变量值存在覆盖，交给SpEL处理
+        if (ROOT_VARIABLE.equals(name) || THIS_VARIABLE.equals(name) || RESULT_VARIABLE.equals(name)
+                || INDEX_VARIABLE_PATTERN.matcher(name).matches()) {
+            return NO_ARG_INDEX;
+        }
+        String[] parameterNames = getParameterNameDiscoverer().getParameterNames(method);
+        if (parameterNames == null) {
+            return NO_ARG_INDEX;
+        }
+        for (int i = parameterNames.length - 1; i >= 0; i--) {
+            if (name.equals(parameterNames[i])) {
+                return i;
+            }
+        }
+        return NO_ARG_INDEX;
+    }
+
     private Method getTargetMethod(Class<?> targetClass, Method method) {
         AnnotatedElementKey methodKey = new AnnotatedElementKey(method, targetClass);
         Method targetMethod = this.targetMethodCache.get(methodKey);
@@ -3,6 +3,7 @@ package com.github.xiaolyuh.test;
 import com.github.xiaolyuh.util.JsonUtils;
 import com.github.xiaolyuh.config.CacheConfig;
 import com.github.xiaolyuh.domain.User;
+import com.github.xiaolyuh.expression.CacheOperationExpressionEvaluator;
 import com.github.xiaolyuh.manager.CacheManager;
 import com.github.xiaolyuh.manager.LayeringCacheManager;
 import com.github.xiaolyuh.support.CacheMode;
@@ -12,14 +13,22 @@ import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import reactor.core.publisher.Mono;
 
+import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 // SpringJUnit4ClassRunner再Junit环境下提供Spring TestContext Framework的功能。
@@ -492,6 +501,108 @@ public class CacheAspectTest {
     }
 
 
+    @Test
+    public void testGetUserBatch() {
+        redisTemplate.delete(Arrays.asList("user:info:batch:1001", "user:info:batch:1002", "user:info:batch:1003",
+                "user:info:batch:list:2001", "user:info:batch:list:2002", "user:info:batch:list:2003"));
+
+        testService.getUserMapByIds("batch", Arrays.asList(1001L, 1002L));
+        Assert.assertEquals(Arrays.asList(1001L, 1002L), testService.getBatchLoadIds());
+
+        // 只使用缓存中不存在的元素执行被缓存的方法，返回值按照参数的顺序合并
+        Map<Long, User> users = testService.getUserMapByIds("batch", Arrays.asList(1003L, 1001L, -1004L, 1002L));
+        Assert.assertEquals(Arrays.asList(1003L, -1004L), testService.getBatchLoadIds());
+        Assert.assertEquals(Arrays.asList(1003L, 1001L, 1002L), new ArrayList<>(users.keySet()));
+        Assert.assertEquals("batch", users.get(1001L).getName());
+
+        // 每个元素单独缓存在redis中
+        Object result = redisTemplate.opsForValue().get("user:info:batch:1003");
+        Assert.assertNotNull(result);
+
+        // 全部命中缓存，不执行被缓存的方法
+        testService.getUserMapByIds("batch", Arrays.asList(1001L, 1002L, 1003L));
+        Assert.assertEquals(Arrays.asList(1003L, -1004L), testService.getBatchLoadIds());
+
+        List<User> userList = testService.getUserListByIds(new LinkedHashSet<>(Arrays.asList(2001L, 2002L)));
+        Assert.assertEquals(2, userList.size());
+        userList = testService.getUserListByIds(new LinkedHashSet<>(Arrays.asList(2002L, 2003L, 2001L)));
+        Assert.assertEquals(Collections.singletonList(2003L), testService.getBatchLoadIds());
+        Assert.assertEquals(3, userList.size());
+        Assert.assertEquals(2002L, userList.get(0).getUserId());
+        Assert.assertEquals(2001L, userList.get(2).getUserId());
+    }
+
+    @Test
+    public void testKeyExpressionFastPath() throws Exception {
+        CacheOperationExpressionEvaluator evaluator = new CacheOperationExpressionEvaluator();
+        Method method = TestService.class.getMethod("getUser", User.class, int.class);
+        AnnotatedElementKey methodKey = new AnnotatedElementKey(method, TestService.class);
+        User user = new User();
+        user.setUserId(1601);
+        Object[] args = {user, 25};
+
+        // 直接引用参数的表达式和SpEL计算的结果一致
+        for (String expression : Arrays.asList("#p1", "#a1", " #root.args[1] ", "#age", "#user", "#user.userId", "#p5", "#root.methodName")) {
+            Object expected = evaluator.key(expression, methodKey, evaluator.createEvaluationContext(method, args, testService, TestService.class));
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals(expression, expected, evaluator.key(expression, methodKey, method, args, testService, TestService.class));
+            }
+        }
+        Assert.assertSame(user, evaluator.key("#p0", methodKey, method, args, testService, TestService.class));
+        Assert.assertEquals(25, evaluator.key("#age", methodKey, method, args, testService, TestService.class));
+    }
+
+    @Test
+    public void testBatchArgIndex() throws Exception {
+        CacheOperationExpressionEvaluator evaluator = new CacheOperationExpressionEvaluator();
+        Method method = TestService.class.getMethod("getUserMapByIds", String.class, List.class);
+        for (String expression : Arrays.asList("#userIds", "#p1", "#root.args[1]", "")) {
+            Assert.assertEquals(expression, 1, evaluator.batchArgIndex(expression, method, TestService.class));
+        }
+        // 不是直接引用集合参数的表达式不支持
+        for (String expression : Arrays.asList("#depict", "#userIds.subList(0, 1)", "#p5")) {
+            Assert.assertEquals(expression, -1, evaluator.batchArgIndex(expression, method, TestService.class));
+        }
+
+        // 解析方法元数据时报错，ignoreException 不会忽略配置错误
+        try {
+            testService.getUserMapByExpression(Arrays.asList(1L, 2L));
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("#userIds.subList(0, 1)"));
+        }
+    }
+
+    @Test
+    public void testAsyncReturnValue() throws Exception {
+        redisTemplate.delete(Arrays.asList("user:info:future:1701", "user:info:mono:1702", "user:info:flux:1703"));
+
+        int count = testService.getAsyncLoadCount();
+        Assert.assertEquals(1701, testService.getUserFuture(1701).get().getUserId());
+        Assert.assertEquals(1701, testService.getUserFuture(1701).get().getUserId());
+        Assert.assertEquals(count + 1, testService.getAsyncLoadCount());
+        Assert.assertTrue(redisTemplate.opsForValue().get("user:info:future:1701") instanceof User);
+
+        // 订阅时才查询缓存和执行方法
+        Mono<User> mono = testService.getUserMono(1702);
+        Assert.assertEquals(count + 1, testService.getAsyncLoadCount());
+        Assert.assertEquals(31, mono.block().getAge());
+        Assert.assertEquals(31, testService.getUserMono(1702).block().getAge());
+        Assert.assertEquals(count + 2, testService.getAsyncLoadCount());
+
+        Assert.assertEquals(32, testService.putUserMono(1702).block().getAge());
+        // 等待删除一级缓存的消息处理完
+        sleep(1);
+        Assert.assertEquals(32, testService.getUserMono(1702).block().getAge());
+        Assert.assertEquals(count + 2, testService.getAsyncLoadCount());
+
+        Assert.assertEquals(2, testService.getUserFlux(1703).collectList().block().size());
+        List<User> users = testService.getUserFlux(1703).collectList().block();
+        Assert.assertEquals(Arrays.asList(1703L, 1704L), Arrays.asList(users.get(0).getUserId(), users.get(1).getUserId()));
+        Assert.assertEquals(count + 3, testService.getAsyncLoadCount());
+        Assert.assertEquals(2, ((List<?>) redisTemplate.opsForValue().get("user:info:flux:1703")).size());
+    }
+
     private void sleep(int time) {
         try {
             Thread.sleep(time * 1000);
@@ -6,15 +6,29 @@ import com.github.xiaolyuh.support.CacheMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class TestService {
     Logger logger = LoggerFactory.getLogger(getClass());
 
+    /**
+     * 批量模式下最近一次执行被缓存方法时的参数
+     */
+    private List<Long> batchLoadIds;
+
+    /**
+     * 返回值是异步类型的被缓存方法的执行次数
+     */
+    private final AtomicInteger asyncLoadCount = new AtomicInteger();
+
     @Cacheable(value = "user:info", key = "#userId", ignoreException = false,
             firstCache = @FirstCache(expireTime = 4, timeUnit = TimeUnit.SECONDS),
             secondaryCache = @SecondaryCache(expireTime = 10, preloadTime = 3,
@@ -335,6 +349,100 @@ public class TestService {
         return user;
     }
 
+    @Cacheable(value = "user:info:batch", key = "#userIds", batch = true, ignoreException = false,
+            firstCache = @FirstCache(expireTime = 4, timeUnit = TimeUnit.SECONDS),
+            secondaryCache = @SecondaryCache(expireTime = 100, preloadTime = 3, timeUnit = TimeUnit.SECONDS))
+    public Map<Long, User> getUserMapByIds(String depict, List<Long> userIds) {
+        logger.debug("测试批量模式的缓存方法，返回值是Map");
+        batchLoadIds = userIds;
+        Map<Long, User> users = new HashMap<>();
+        for (Long userId : userIds) {
+            // 模拟数据库中不存在的数据
+            if (userId < 0) {
+                continue;
+            }
+            User user = new User();
+            user.setUserId(userId);
+            user.setName(depict);
+            users.put(userId, user);
+        }
+        return users;
+    }
+
+    @Cacheable(value = "user:info:batch:list", batch = true, batchResultKey = "userId", ignoreException = false,
+            firstCache = @FirstCache(expireTime = 4, timeUnit = TimeUnit.SECONDS),
+            secondaryCache = @SecondaryCache(expireTime = 100, preloadTime = 3, timeUnit = TimeUnit.SECONDS))
+    public List<User> getUserListByIds(Set<Long> userIds) {
+        logger.debug("测试批量模式的缓存方法，返回值是List");
+        batchLoadIds = new ArrayList<>(userIds);
+        List<User> users = new ArrayList<>();
+        for (Long userId : userIds) {
+            User user = new User();
+            user.setUserId(userId);
+            users.add(user);
+        }
+        return users;
+    }
+
+    @Cacheable(value = "user:info:batch:expression", key = "#userIds.subList(0, 1)", batch = true, ignoreException = true)
+    public Map<Long, User> getUserMapByExpression(List<Long> userIds) {
+        logger.debug("测试批量模式不支持的key表达式");
+        return new HashMap<>();
+    }
+
+    public List<Long> getBatchLoadIds() {
+        return batchLoadIds;
+    }
+
+    @Cacheable(value = "user:info:future", key = "#userId", ignoreException = false,
+            firstCache = @FirstCache(expireTime = 4, timeUnit = TimeUnit.SECONDS),
+            secondaryCache = @SecondaryCache(expireTime = 100, preloadTime = 3, timeUnit = TimeUnit.SECONDS))
+    public CompletableFuture<User> getUserFuture(long userId) {
+        logger.debug("测试返回值是CompletableFuture的缓存方法");
+        asyncLoadCount.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> newUser(userId, 31));
+    }
+
+    @Cacheable(value = "user:info:mono", key = "#userId", ignoreException = false,
+            firstCache = @FirstCache(expireTime = 4, timeUnit = TimeUnit.SECONDS),
+            secondaryCache = @SecondaryCache(expireTime = 100, preloadTime = 3, timeUnit = TimeUnit.SECONDS))
+    public Mono<User> getUserMono(long userId) {
+        logger.debug("测试返回值是Mono的缓存方法");
+        return Mono.fromCallable(() -> {
+            asyncLoadCount.incrementAndGet();
+            return newUser(userId, 31);
+        });
+    }
+
+    @CachePut(value = "user:info:mono", key = "#userId", ignoreException = false,
+            firstCache = @FirstCache(expireTime = 4, timeUnit = TimeUnit.SECONDS),
+            secondaryCache = @SecondaryCache(expireTime = 100, preloadTime = 3, timeUnit = TimeUnit.SECONDS))
+    public Mono<User> putUserMono(long userId) {
+        return Mono.fromCallable(() -> newUser(userId, 32));
+    }
+
+    @Cacheable(value = "user:info:flux", key = "#userId", ignoreException = false,
+            firstCache = @FirstCache(expireTime = 4, timeUnit = TimeUnit.SECONDS),
+            secondaryCache = @SecondaryCache(expireTime = 100, preloadTime = 3, timeUnit = TimeUnit.SECONDS))
+    public Flux<User> getUserFlux(long userId) {
+        logger.debug("测试返回值是Flux的缓存方法");
+        return Flux.defer(() -> {
+            asyncLoadCount.incrementAndGet();
+            return Flux.just(newUser(userId, 31), newUser(userId + 1, 31));
+        });
+    }
+
+    public int getAsyncLoadCount() {
+        return asyncLoadCount.get();
+    }
+
+    private User newUser(long userId, int age) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setAge(age);
+        return user;
+    }
+
     @CacheEvict(value = "user:info", key = "#userId", ignoreException = false)
     public void evictUser(long userId) {
 
@@ -0,0 +1,29 @@
+package com.github.xiaolyuh.benchmark;
+
+import com.github.xiaolyuh.annotation.Cacheable;
+import com.github.xiaolyuh.annotation.FirstCache;
+import com.github.xiaolyuh.annotation.SecondaryCache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 切面性能测试使用的缓存方法
+ *
+ * @author yuhao.wang3
+ */
+public class BenchmarkService {
+
+    @Cacheable(value = "benchmark:aspect", key = "#userId",
+            firstCache = @FirstCache(expireTime = 10, timeUnit = TimeUnit.MINUTES),
+            secondaryCache = @SecondaryCache(expireTime = 60, preloadTime = 10, timeUnit = TimeUnit.SECONDS))
+    public BenchmarkUser getUserById(long userId) {
+        return BenchmarkSupport.user(userId);
+    }
+
+    @Cacheable(value = "benchmark:aspect", key = "#user.userId",
+            firstCache = @FirstCache(expireTime = 10, timeUnit = TimeUnit.MINUTES),
+            secondaryCache = @SecondaryCache(expireTime = 60, preloadTime = 10, timeUnit = TimeUnit.SECONDS))
+    public BenchmarkUser getUser(BenchmarkUser user) {
+        return user;
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.xiaolyuh.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.xiaolyuh.manager.LayeringCacheManager;
+import com.github.xiaolyuh.serializer.StringRedisSerializer;
+import com.github.xiaolyuh.setting.FirstCacheSetting;
+import com.github.xiaolyuh.setting.LayeringCacheSetting;
+import com.github.xiaolyuh.setting.SecondaryCacheSetting;
+import com.github.xiaolyuh.support.ExpireMode;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 性能测试公共组件，redis 地址通过系统属性 redis.host、redis.port 指定，默认 127.0.0.1:6379
+ *
+ * @author yuhao.wang3
+ */
+public abstract class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 创建 redis 连接工厂
+     *
+     * @return {@link LettuceConnectionFactory}
+     */
+    public static LettuceConnectionFactory connectionFactory() {
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
+        config.setHostName(System.getProperty("redis.host", "127.0.0.1"));
+        config.setPort(Integer.getInteger("redis.port", 6379));
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(config);
+        connectionFactory.afterPropertiesSet();
+        return connectionFactory;
+    }
+
+    /**
+     * 创建和测试用例相同配置的 RedisTemplate
+     *
+     * @param connectionFactory 连接工厂
+     * @return {@link RedisTemplate}
+     */
+    public static RedisTemplate<String, Object> redisTemplate(LettuceConnectionFactory connectionFactory) {
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+
+        Jackson2JsonRedisSerializer<Object> valueSerializer = jacksonSerializer();
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.setHashValueSerializer(valueSerializer);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        return redisTemplate;
+    }
+
+    /**
+     * 创建 Jackson 序列化器
+     *
+     * @return {@link Jackson2JsonRedisSerializer}
+     */
+    public static Jackson2JsonRedisSerializer<Object> jacksonSerializer() {
+        Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(Object.class);
+        ObjectMapper om = new ObjectMapper();
+        om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        om.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
+        serializer.setObjectMapper(om);
+        return serializer;
+    }
+
+    /**
+     * 创建缓存管理器，关闭统计避免统计任务干扰测试结果
+     *
+     * @param redisTemplate redisTemplate
+     * @return {@link LayeringCacheManager}
+     * @throws Exception 初始化异常
+     */
+    public static LayeringCacheManager cacheManager(RedisTemplate<String, Object> redisTemplate) throws Exception {
+        LayeringCacheManager cacheManager = new LayeringCacheManager(redisTemplate);
+        cacheManager.setStats(false);
+        cacheManager.afterPropertiesSet();
+        return cacheManager;
+    }
+
+    /**
+     * 性能测试使用的缓存配置，不允许缓存NULL值
+     *
+     * @return {@link LayeringCacheSetting}
+     */
+    public static LayeringCacheSetting cacheSetting() {
+        FirstCacheSetting firstCacheSetting = new FirstCacheSetting(1000, 100000, 10, TimeUnit.MINUTES, ExpireMode.WRITE);
+        SecondaryCacheSetting secondaryCacheSetting = new SecondaryCacheSetting(60, 10, TimeUnit.SECONDS, true, false, 1);
+        return new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting, "性能测试");
+    }
+
+    /**
+     * 创建测试数据
+     *
+     * @param userId 用户ID
+     * @return {@link BenchmarkUser}
+     */
+    public static BenchmarkUser user(long userId) {
+        BenchmarkUser user = new BenchmarkUser();
+        user.setUserId(userId);
+        user.setName("layering-cache-" + userId);
+        user.setAge(18);
+        user.setAddress(new String[]{"成都", "高新区", "天府软件园"});
+        return user;
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.xiaolyuh.benchmark;
+
+import java.io.Serializable;
+
+/**
+ * 性能测试数据
+ *
+ * @author yuhao.wang3
+ */
+public class BenchmarkUser implements Serializable {
+    private long userId;
+
+    private String name;
+
+    private int age;
+
+    private String[] address;
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public void setAge(int age) {
+        this.age = age;
+    }
+
+    public String[] getAddress() {
+        return address;
+    }
+
+    public void setAddress(String[] address) {
+        this.address = address;
+    }
+}
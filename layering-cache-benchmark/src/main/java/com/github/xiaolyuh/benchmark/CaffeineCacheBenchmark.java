@@ -0,0 +1,66 @@
+package com.github.xiaolyuh.benchmark;
+
+import com.github.xiaolyuh.cache.caffeine.CaffeineCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一级缓存 {@link CaffeineCache} 性能测试
+ *
+ * @author yuhao.wang3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaffeineCacheBenchmark {
+
+    private static final int KEY_COUNT = 1024;
+
+    private CaffeineCache cache;
+
+    private String[] keys;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        cache = new CaffeineCache("benchmark:caffeine", BenchmarkSupport.cacheSetting().getFirstCacheSetting(), false);
+        keys = new String[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = "key:" + i;
+            cache.put(keys[i], BenchmarkSupport.user(i));
+        }
+    }
+
+    @Benchmark
+    public Object getHit() {
+        return cache.get(nextKey());
+    }
+
+    @Benchmark
+    public Object getMiss() {
+        return cache.get("missing");
+    }
+
+    @Benchmark
+    public Object getWithLoaderHit() {
+        return cache.get(nextKey(), () -> null);
+    }
+
+    private String nextKey() {
+        return keys[index++ & (KEY_COUNT - 1)];
+    }
+}
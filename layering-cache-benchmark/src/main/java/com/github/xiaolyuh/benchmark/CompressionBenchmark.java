@@ -0,0 +1,86 @@
+package com.github.xiaolyuh.benchmark;
+
+import com.github.xiaolyuh.serializer.CompressionRedisSerializer;
+import com.github.xiaolyuh.serializer.CompressionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大缓存值压缩性能测试，对比 JSON 序列化后直接保存和压缩后保存的耗时
+ *
+ * @author yuhao.wang3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    /**
+     * 缓存值中的元素个数，大约对应 20KB 和 200KB 的 JSON
+     */
+    @Param({"150", "1500"})
+    private int valueSize;
+
+    @Param({"LZ4", "DEFLATE"})
+    private CompressionType compressionType;
+
+    private Jackson2JsonRedisSerializer<Object> jsonSerializer;
+
+    private CompressionRedisSerializer compressionSerializer;
+
+    private List<BenchmarkUser> value;
+
+    private byte[] jsonBytes;
+
+    private byte[] compressedBytes;
+
+    @Setup
+    public void setup() {
+        jsonSerializer = BenchmarkSupport.jacksonSerializer();
+        compressionSerializer = new CompressionRedisSerializer(jsonSerializer, compressionType, 4096);
+        value = new ArrayList<>(valueSize);
+        for (int i = 0; i < valueSize; i++) {
+            value.add(BenchmarkSupport.user(i));
+        }
+        jsonBytes = jsonSerializer.serialize(value);
+        compressedBytes = compressionSerializer.serialize(value);
+        System.out.printf("json=%d bytes, %s=%d bytes%n", jsonBytes.length, compressionType, compressedBytes.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonSerializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return jsonSerializer.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] compressEncode() {
+        return compressionSerializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object compressDecode() {
+        return compressionSerializer.deserialize(compressedBytes);
+    }
+}
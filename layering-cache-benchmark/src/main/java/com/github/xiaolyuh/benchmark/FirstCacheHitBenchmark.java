@@ -0,0 +1,81 @@
+package com.github.xiaolyuh.benchmark;
+
+import com.github.xiaolyuh.cache.LayeringCache;
+import com.github.xiaolyuh.manager.LayeringCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一级缓存命中的回归测试：在没有开启DEBUG日志时，命中一级缓存的耗时不应该随缓存值的大小增长
+ *
+ * @author yuhao.wang3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FirstCacheHitBenchmark {
+
+    private static final String KEY = "hit";
+
+    /**
+     * 缓存值中的元素个数
+     */
+    @Param({"1", "100", "10000"})
+    private int valueSize;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private LayeringCacheManager cacheManager;
+
+    private LayeringCache cache;
+
+    private List<BenchmarkUser> value;
+
+    @Setup
+    public void setup() throws Exception {
+        connectionFactory = BenchmarkSupport.connectionFactory();
+        cacheManager = BenchmarkSupport.cacheManager(BenchmarkSupport.redisTemplate(connectionFactory));
+        cache = (LayeringCache) cacheManager.getCache("benchmark:first:" + valueSize, BenchmarkSupport.cacheSetting());
+
+        value = new ArrayList<>(valueSize);
+        for (int i = 0; i < valueSize; i++) {
+            value.add(BenchmarkSupport.user(i));
+        }
+        cache.getFirstCache().put(KEY, value);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        cache.clear();
+        cacheManager.destroy();
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public Object get() {
+        return cache.get(KEY);
+    }
+
+    @Benchmark
+    public Object getWithLoader() {
+        return cache.get(KEY, () -> value);
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.xiaolyuh.benchmark;
+
+import com.github.xiaolyuh.aspect.LayeringAspect;
+import com.github.xiaolyuh.manager.CacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LayeringAspect} 切面拦截开销测试，对比直接调用和通过代理命中一级缓存的耗时
+ *
+ * @author yuhao.wang3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayeringAspectBenchmark {
+
+    private static final long USER_ID = 1L;
+
+    private AnnotationConfigApplicationContext context;
+
+    private BenchmarkService proxyService;
+
+    private BenchmarkService targetService;
+
+    private BenchmarkUser user;
+
+    @Setup
+    public void setup() {
+        context = new AnnotationConfigApplicationContext(BenchmarkConfig.class);
+        proxyService = context.getBean(BenchmarkService.class);
+        targetService = new BenchmarkService();
+        user = BenchmarkSupport.user(USER_ID);
+        proxyService.getUserById(USER_ID);
+        proxyService.getUser(user);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 直接调用方法，作为基准
+     */
+    @Benchmark
+    public Object direct() {
+        return targetService.getUserById(USER_ID);
+    }
+
+    /**
+     * 通过切面调用，命中一级缓存，key直接引用参数
+     */
+    @Benchmark
+    public Object cacheable() {
+        return proxyService.getUserById(USER_ID);
+    }
+
+    /**
+     * 通过切面调用，命中一级缓存，key需要SpEL计算参数的属性
+     */
+    @Benchmark
+    public Object cacheableSpel() {
+        return proxyService.getUser(user);
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    public static class BenchmarkConfig {
+
+        @Bean(destroyMethod = "destroy")
+        public LettuceConnectionFactory redisConnectionFactory() {
+            return BenchmarkSupport.connectionFactory();
+        }
+
+        @Bean
+        public CacheManager cacheManager(LettuceConnectionFactory redisConnectionFactory) throws Exception {
+            return BenchmarkSupport.cacheManager(BenchmarkSupport.redisTemplate(redisConnectionFactory));
+        }
+
+        @Bean
+        public LayeringAspect layeringAspect() {
+            return new LayeringAspect();
+        }
+
+        @Bean
+        public BenchmarkService benchmarkService() {
+            return new BenchmarkService();
+        }
+    }
+}
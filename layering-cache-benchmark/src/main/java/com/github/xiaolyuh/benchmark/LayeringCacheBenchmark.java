@@ -0,0 +1,88 @@
+package com.github.xiaolyuh.benchmark;
+
+import com.github.xiaolyuh.cache.LayeringCache;
+import com.github.xiaolyuh.manager.LayeringCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link LayeringCache#get(Object, java.util.concurrent.Callable)} 性能测试，分别覆盖一级缓存命中、二级缓存命中和缓存都未命中三种场景
+ *
+ * @author yuhao.wang3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayeringCacheBenchmark {
+
+    private static final String HIT_KEY = "hit";
+
+    private final AtomicLong missKey = new AtomicLong();
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private LayeringCacheManager cacheManager;
+
+    private LayeringCache cache;
+
+    private BenchmarkUser user;
+
+    @Setup
+    public void setup() throws Exception {
+        connectionFactory = BenchmarkSupport.connectionFactory();
+        RedisTemplate<String, Object> redisTemplate = BenchmarkSupport.redisTemplate(connectionFactory);
+        cacheManager = BenchmarkSupport.cacheManager(redisTemplate);
+        cache = (LayeringCache) cacheManager.getCache("benchmark:layering", BenchmarkSupport.cacheSetting());
+        user = BenchmarkSupport.user(1);
+        cache.put(HIT_KEY, user);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        cache.clear();
+        cacheManager.destroy();
+        connectionFactory.destroy();
+    }
+
+    /**
+     * 一级缓存命中
+     */
+    @Benchmark
+    public Object firstCacheHit() {
+        return cache.get(HIT_KEY, () -> user);
+    }
+
+    /**
+     * 一级缓存未命中，二级缓存命中
+     */
+    @Benchmark
+    public Object secondCacheHit() {
+        cache.getFirstCache().evict(HIT_KEY);
+        return cache.get(HIT_KEY, () -> user);
+    }
+
+    /**
+     * 缓存都未命中，执行加载方法并回写缓存
+     */
+    @Benchmark
+    public Object cacheMiss() {
+        return cache.get("miss:" + missKey.incrementAndGet(), () -> user);
+    }
+}
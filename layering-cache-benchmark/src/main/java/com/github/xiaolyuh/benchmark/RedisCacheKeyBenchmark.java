@@ -0,0 +1,67 @@
+package com.github.xiaolyuh.benchmark;
+
+import com.github.xiaolyuh.cache.redis.RedisCacheKey;
+import com.github.xiaolyuh.serializer.StringRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RedisCacheKey} 构建性能测试
+ *
+ * @author yuhao.wang3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisCacheKeyBenchmark {
+
+    private static final String CACHE_NAME = "benchmark:key";
+
+    private final StringRedisSerializer serializer = new StringRedisSerializer();
+
+    private byte[] prefix;
+
+    private long id;
+
+    @Setup
+    public void setup() {
+        prefix = RedisCacheKey.serializePrefix(CACHE_NAME);
+    }
+
+    /**
+     * 每次构建时序列化前缀
+     */
+    @Benchmark
+    public byte[] keyBytes() {
+        return new RedisCacheKey(id++, serializer).cacheName(CACHE_NAME).usePrefix(true).getKeyBytes();
+    }
+
+    /**
+     * 使用预先序列化好的前缀
+     */
+    @Benchmark
+    public byte[] keyBytesWithPrefix() {
+        return new RedisCacheKey(id++, serializer, prefix).usePrefix(true).getKeyBytes();
+    }
+
+    /**
+     * 获取字符串形式的key
+     */
+    @Benchmark
+    public String key() {
+        return new RedisCacheKey(id++, serializer, prefix).usePrefix(true).getKey();
+    }
+}
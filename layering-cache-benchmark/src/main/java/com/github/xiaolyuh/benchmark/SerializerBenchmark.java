@@ -0,0 +1,141 @@
+package com.github.xiaolyuh.benchmark;
+
+import com.github.xiaolyuh.listener.RedisPubSubMessage;
+import com.github.xiaolyuh.listener.RedisPubSubMessageCodec;
+import com.github.xiaolyuh.listener.RedisPubSubMessageType;
+import com.github.xiaolyuh.serializer.KryoRedisSerializer;
+import com.github.xiaolyuh.serializer.ProtostuffRedisSerializer;
+import com.github.xiaolyuh.serializer.StringRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 序列化性能测试，覆盖缓存值、缓存key和 pub/sub 消息的编解码
+ *
+ * @author yuhao.wang3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    private Jackson2JsonRedisSerializer<Object> jacksonSerializer;
+
+    private JdkSerializationRedisSerializer jdkSerializer;
+
+    private ProtostuffRedisSerializer protostuffSerializer;
+
+    private KryoRedisSerializer kryoSerializer;
+
+    private StringRedisSerializer keySerializer;
+
+    private RedisPubSubMessageCodec codec;
+
+    private BenchmarkUser user;
+
+    private RedisPubSubMessage message;
+
+    private byte[] jacksonBytes;
+
+    private byte[] jdkBytes;
+
+    private byte[] protostuffBytes;
+
+    private byte[] kryoBytes;
+
+    private byte[] messageBytes;
+
+    @Setup
+    public void setup() {
+        jacksonSerializer = BenchmarkSupport.jacksonSerializer();
+        jdkSerializer = new JdkSerializationRedisSerializer();
+        protostuffSerializer = new ProtostuffRedisSerializer();
+        kryoSerializer = new KryoRedisSerializer();
+        keySerializer = new StringRedisSerializer();
+        codec = new RedisPubSubMessageCodec(keySerializer);
+        user = BenchmarkSupport.user(1);
+
+        message = new RedisPubSubMessage();
+        message.setCacheName("benchmark:serializer");
+        message.setKey(1L);
+        message.setMessageType(RedisPubSubMessageType.EVICT);
+
+        jacksonBytes = jacksonSerializer.serialize(user);
+        jdkBytes = jdkSerializer.serialize(user);
+        protostuffBytes = protostuffSerializer.serialize(user);
+        kryoBytes = kryoSerializer.serialize(user);
+        System.out.printf("序列化后的字节数 jackson=%d, jdk=%d, protostuff=%d, kryo=%d%n",
+                jacksonBytes.length, jdkBytes.length, protostuffBytes.length, kryoBytes.length);
+        messageBytes = codec.encode(message);
+    }
+
+    @Benchmark
+    public byte[] jacksonEncode() {
+        return jacksonSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public Object jacksonDecode() {
+        return jacksonSerializer.deserialize(jacksonBytes);
+    }
+
+    @Benchmark
+    public byte[] jdkEncode() {
+        return jdkSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public Object jdkDecode() {
+        return jdkSerializer.deserialize(jdkBytes);
+    }
+
+    @Benchmark
+    public byte[] protostuffEncode() {
+        return protostuffSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public Object protostuffDecode() {
+        return protostuffSerializer.deserialize(protostuffBytes);
+    }
+
+    @Benchmark
+    public byte[] kryoEncode() {
+        return kryoSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public Object kryoDecode() {
+        return kryoSerializer.deserialize(kryoBytes);
+    }
+
+    @Benchmark
+    public byte[] keyEncode() {
+        return keySerializer.serialize(123456789L);
+    }
+
+    @Benchmark
+    public byte[] messageEncode() {
+        return codec.encode(message);
+    }
+
+    @Benchmark
+    public Object messageDecode() {
+        return codec.decode(messageBytes);
+    }
+}
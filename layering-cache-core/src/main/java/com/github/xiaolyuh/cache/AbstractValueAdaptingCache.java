@@ -18,10 +18,20 @@ package com.github.xiaolyuh.cache;
 
 import com.github.xiaolyuh.util.JsonUtils;
 import com.github.xiaolyuh.stats.CacheStats;
+import com.github.xiaolyuh.support.AsyncLoader;
 import com.github.xiaolyuh.support.NullValue;
+import com.github.xiaolyuh.util.FutureUtils;
 import org.springframework.util.Assert;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 
 
 /**
@@ -105,6 +115,97 @@ public abstract class AbstractValueAdaptingCache implements Cache {
         return userValue;
     }
 
+    /**
+     * 调用一次批量加载方法加载缓存中缺失的数据
+     *
+     * @param missKeys   缓存中缺失的key集合
+     * @param bulkLoader 批量加载缓存的回调方法
+     * @param <K>        key类型
+     * @param <T>        Object
+     * @return 缓存中缺失的key对应的加载结果
+     */
+    protected <K, T> Map<K, T> loadAll(Collection<K> missKeys, Function<Collection<K>, Map<K, T>> bulkLoader) {
+        if (missKeys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        long start = System.currentTimeMillis();
+        if (isStats()) {
+            getCacheStats().addCachedMethodRequestCount(missKeys.size());
+        }
+
+        Map<K, T> loadValues;
+        try {
+            loadValues = bulkLoader.apply(missKeys);
+        } catch (LoaderCacheValueException e) {
+            // 多级缓存中下一级缓存已经包装过的异常直接抛出
+            throw e;
+        } catch (Exception e) {
+            throw new LoaderCacheValueException(missKeys, e);
+        }
+
+        if (isStats()) {
+            getCacheStats().addCachedMethodRequestTime(System.currentTimeMillis() - start);
+        }
+        return loadValues == null ? Collections.emptyMap() : loadValues;
+    }
+
+    /**
+     * 调用异步加载方法加载缓存数据，加载异常时使用 {@link LoaderCacheValueException} 异常完成
+     *
+     * @param key         缓存key
+     * @param asyncLoader 异步加载缓存的回调方法
+     * @param <T>         Object
+     * @return 加载结果
+     */
+    protected <T> CompletableFuture<T> loadAsync(Object key, AsyncLoader<T> asyncLoader) {
+        long start = System.currentTimeMillis();
+        if (isStats()) {
+            getCacheStats().addCachedMethodRequestCount(1);
+        }
+
+        CompletionStage<T> stage;
+        try {
+            stage = asyncLoader.load();
+        } catch (Exception e) {
+            return FutureUtils.failedFuture(new LoaderCacheValueException(key, e));
+        }
+        if (stage == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return stage.toCompletableFuture().handle((value, e) -> {
+            if (e != null) {
+                Throwable cause = FutureUtils.unwrap(e);
+                // 多级缓存中下一级缓存已经包装过的异常直接抛出
+                throw new CompletionException(cause instanceof LoaderCacheValueException ? cause : new LoaderCacheValueException(key, cause));
+            }
+            if (isStats()) {
+                getCacheStats().addCachedMethodRequestTime(System.currentTimeMillis() - start);
+            }
+            return value;
+        });
+    }
+
+    /**
+     * 按照请求key的顺序合并缓存命中的数据和加载的数据，值为NULL的key不放入结果
+     *
+     * @param keys       需要返回的key集合
+     * @param hitValues  缓存命中的数据
+     * @param loadValues 加载的数据
+     * @param <K>        key类型
+     * @param <T>        Object
+     * @return key和值的映射
+     */
+    protected <K, T> Map<K, T> mergeValues(Collection<K> keys, Map<K, T> hitValues, Map<K, T> loadValues) {
+        Map<K, T> result = new LinkedHashMap<>(keys.size() * 4 / 3 + 1);
+        for (K key : keys) {
+            T value = hitValues.containsKey(key) ? hitValues.get(key) : loadValues.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
 
     /**
      * {@link #get(Object, Callable)} 方法加载缓存值的包装异常
@@ -2,8 +2,19 @@ package com.github.xiaolyuh.cache;
 
 import com.github.xiaolyuh.manager.CacheManager;
 import com.github.xiaolyuh.stats.CacheStats;
+import com.github.xiaolyuh.support.AsyncLoader;
+import com.github.xiaolyuh.support.NullValue;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 
 /**
  * 缓存的顶级接口
@@ -54,6 +65,54 @@ public interface Cache {
      */
     <T> T get(Object key, Callable<T> valueLoader);
 
+    /**
+     * 根据KEY集合批量获取缓存中对应的值，缓存中不存在的key会汇总后只调用一次bulkLoader加载数据
+     * <p>默认逐个调用 {@link #get(Object)} 查询缓存，再把加载的数据逐个 {@link #put(Object, Object)} 到缓存，
+     * 实现类可以覆盖成批量查询
+     *
+     * @param keys       缓存key集合
+     * @param bulkLoader 批量加载缓存的回调方法，入参是缓存中缺失的key集合，返回值是key和值的映射
+     * @param <K>        key类型
+     * @param <T>        Object
+     * @return key和缓存值的映射，值为NULL的key不会出现在返回结果中
+     */
+    @SuppressWarnings("unchecked")
+    default <K, T> Map<K, T> getAll(Collection<K> keys, Function<Collection<K>, Map<K, T>> bulkLoader) {
+        Map<K, T> values = new HashMap<>(keys.size() * 4 / 3 + 1);
+        Set<K> missKeys = new LinkedHashSet<>();
+        for (K key : keys) {
+            Object value = get(key);
+            if (value == null) {
+                missKeys.add(key);
+            } else if (!(value instanceof NullValue)) {
+                // 缓存的NULL值不放入结果，也不重新加载
+                values.put(key, (T) value);
+            }
+        }
+        if (!missKeys.isEmpty()) {
+            Map<K, T> loadValues = bulkLoader.apply(missKeys);
+            if (loadValues != null) {
+                for (K key : missKeys) {
+                    T value = loadValues.get(key);
+                    if (value != null) {
+                        put(key, value);
+                        values.put(key, value);
+                    }
+                }
+            }
+        }
+
+        // 按照请求key的顺序返回
+        Map<K, T> result = new LinkedHashMap<>(values.size() * 4 / 3 + 1);
+        for (K key : keys) {
+            T value = values.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
     /**
      * 将对应key-value放到缓存，如果key原来有值就直接覆盖
      *
@@ -95,6 +154,56 @@ public interface Cache {
      */
     void evict(Object key);
 
+    /**
+     * 异步根据Key返回key对应的值，如果没有就返回NULL
+     * <p>默认在 {@link CompletableFuture#supplyAsync} 中调用 {@link #get(Object)}，实现类可以覆盖成非阻塞实现
+     *
+     * @param key key
+     * @return 缓存key对应的值
+     */
+    default CompletableFuture<Object> getAsync(Object key) {
+        return CompletableFuture.supplyAsync(() -> get(key));
+    }
+
+    /**
+     * 异步根据KEY返回缓存中对应的值，如果对应key不存在则调用asyncLoader加载数据
+     * <p>默认在 {@link CompletableFuture#supplyAsync} 中调用 {@link #get(Object, Callable)}，并等待asyncLoader加载完成
+     *
+     * @param key         缓存key
+     * @param asyncLoader 异步加载缓存的回调方法
+     * @param <T>         Object
+     * @return 缓存key对应的值
+     */
+    default <T> CompletableFuture<T> getAsync(Object key, AsyncLoader<T> asyncLoader) {
+        return CompletableFuture.supplyAsync(() -> get(key, () -> {
+            CompletionStage<T> stage = asyncLoader.load();
+            return stage == null ? null : stage.toCompletableFuture().get();
+        }));
+    }
+
+    /**
+     * 异步将对应key-value放到缓存，如果key原来有值就直接覆盖
+     * <p>默认在 {@link CompletableFuture#runAsync} 中调用 {@link #put(Object, Object)}
+     *
+     * @param key   缓存key
+     * @param value 缓存的值
+     * @return 写入完成时完成
+     */
+    default CompletableFuture<Void> putAsync(Object key, Object value) {
+        return CompletableFuture.runAsync(() -> put(key, value));
+    }
+
+    /**
+     * 异步在缓存中删除对应的key
+     * <p>默认在 {@link CompletableFuture#runAsync} 中调用 {@link #evict(Object)}
+     *
+     * @param key 缓存key
+     * @return 删除完成时完成
+     */
+    default CompletableFuture<Void> evictAsync(Object key) {
+        return CompletableFuture.runAsync(() -> evict(key));
+    }
+
     /**
      * 清楚缓存
      */
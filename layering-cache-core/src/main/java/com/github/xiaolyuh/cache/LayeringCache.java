@@ -1,17 +1,34 @@
 package com.github.xiaolyuh.cache;
 
+import com.github.xiaolyuh.cache.caffeine.CaffeineCache;
+import com.github.xiaolyuh.cache.redis.RedisCache;
 import com.github.xiaolyuh.util.JsonUtils;
+import com.github.xiaolyuh.listener.BatchRedisPublisher;
+import com.github.xiaolyuh.listener.RedisMessagePublisher;
 import com.github.xiaolyuh.listener.RedisPubSubMessage;
 import com.github.xiaolyuh.listener.RedisPubSubMessageType;
-import com.github.xiaolyuh.listener.RedisPublisher;
+import com.github.xiaolyuh.setting.FirstCacheSetting;
 import com.github.xiaolyuh.setting.LayeringCacheSetting;
 import com.github.xiaolyuh.stats.CacheStats;
+import com.github.xiaolyuh.stats.HotKey;
+import com.github.xiaolyuh.stats.HotKeyDetector;
+import com.github.xiaolyuh.support.AsyncLoader;
+import com.github.xiaolyuh.support.ExpireMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.listener.ChannelTopic;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 /**
  * 多级缓存
@@ -47,18 +64,65 @@ public class LayeringCache extends AbstractValueAdaptingCache {
      */
     private boolean useFirstCache = true;
 
+    /**
+     * 是否使用二级缓存，只使用一级缓存时为false，所有操作都只操作一级缓存，不访问redis也不发布删除消息
+     */
+    private boolean useSecondCache = true;
+
+    /**
+     * 删除一级缓存消息的发布者
+     */
+    private RedisMessagePublisher messagePublisher;
+
+    /**
+     * 批量发布删除一级缓存消息的发布者，为NULL表示每次写操作都马上发布消息
+     */
+    private BatchRedisPublisher batchRedisPublisher;
+
+    /**
+     * 是否由redis客户端缓存的失效消息删除其他节点的一级缓存，为true时写操作不再发布删除消息
+     */
+    private boolean evictByClientTracking = false;
+
+    /**
+     * redis客户端缓存模式下redis key和本地缓存key的映射，只记录不是String类型的key，
+     * 收到失效消息时直接找到本地缓存key，不需要遍历本地缓存比较序列化后的redis key
+     */
+    private volatile Map<String, Object> trackedKeys;
+
+    /**
+     * 是否正在清理已经不在本地缓存中的映射
+     */
+    private final AtomicBoolean pruningTrackedKeys = new AtomicBoolean();
+
+    /**
+     * 热点key探测器，为NULL表示不探测热点key
+     */
+    private HotKeyDetector hotKeyDetector;
+
+    /**
+     * 固定热点key的本地缓存，为NULL表示只探测不固定
+     */
+    private CaffeineCache hotKeyCache;
+
+    /**
+     * 二级缓存是否使用本地布隆过滤器，其他节点写入或删除的key需要通过删除消息补充到本节点的过滤器
+     */
+    private boolean localBloomFilter;
+
     /**
      * 创建一个多级缓存对象
      *
      * @param redisTemplate        redisTemplate
-     * @param firstCache           一级缓存
-     * @param secondCache          二级缓存
+     * @param firstCache           一级缓存，只使用二级缓存时为NULL
+     * @param secondCache          二级缓存，只使用一级缓存时为NULL
      * @param stats                是否开启统计
      * @param layeringCacheSetting 多级缓存配置
      */
     public LayeringCache(RedisTemplate<String, Object> redisTemplate, AbstractValueAdaptingCache firstCache,
                          AbstractValueAdaptingCache secondCache, boolean stats, LayeringCacheSetting layeringCacheSetting) {
-        this(redisTemplate, firstCache, secondCache, true, stats, secondCache.getName(), layeringCacheSetting);
+        this(redisTemplate, firstCache, secondCache, firstCache != null, stats,
+                secondCache != null ? secondCache.getName() : firstCache.getName(), layeringCacheSetting);
     }
 
     /**
@@ -76,8 +140,28 @@ public class LayeringCache extends AbstractValueAdaptingCache {
         this.redisTemplate = redisTemplate;
         this.firstCache = firstCache;
         this.secondCache = secondCache;
-        this.useFirstCache = useFirstCache;
+        this.useFirstCache = useFirstCache && firstCache != null;
+        this.useSecondCache = secondCache != null;
         this.layeringCacheSetting = layeringCacheSetting;
+        this.messagePublisher = new RedisMessagePublisher(redisTemplate);
+        this.localBloomFilter = secondCache instanceof RedisCache && ((RedisCache) secondCache).getBloomFilter() != null
+                && ((RedisCache) secondCache).getBloomFilter().isLocal();
+        initHotKey(layeringCacheSetting);
+    }
+
+    /**
+     * 开启热点key探测时创建探测器，配置了固定时间并且使用二级缓存时再创建固定热点key的本地缓存
+     */
+    private void initHotKey(LayeringCacheSetting layeringCacheSetting) {
+        FirstCacheSetting firstCacheSetting = layeringCacheSetting == null ? null : layeringCacheSetting.getFirstCacheSetting();
+        if (firstCacheSetting == null || firstCacheSetting.getHotKeyThreshold() <= 0) {
+            return;
+        }
+        this.hotKeyDetector = new HotKeyDetector(firstCacheSetting.getHotKeyThreshold());
+        if (useSecondCache && firstCacheSetting.getHotKeyExpireTime() > 0) {
+            this.hotKeyCache = new CaffeineCache(getName(), new FirstCacheSetting(16, HotKeyDetector.CAPACITY,
+                    firstCacheSetting.getHotKeyExpireTime(), firstCacheSetting.getTimeUnit(), ExpireMode.WRITE), false);
+        }
     }
 
     @Override
@@ -87,64 +171,162 @@ public class LayeringCache extends AbstractValueAdaptingCache {
 
     @Override
     public Object get(Object key) {
+        if (!useSecondCache) {
+            return fromStoreValue(firstCache.get(key));
+        }
+        recordHotKey(key);
         Object result = null;
         if (useFirstCache) {
             result = firstCache.get(key);
-            logger.debug("查询一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+            if (logger.isDebugEnabled()) {
+                logger.debug("查询一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+            }
+        }
+        if (result == null) {
+            result = getHotKeyValue(key);
         }
         if (result == null) {
             result = secondCache.get(key);
-            firstCache.putIfAbsent(key, result);
-            logger.debug("查询二级缓存,并将数据放到一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+            if (useFirstCache) {
+                putFirstCache(key, result);
+            }
+            pinHotKey(key, result);
+            if (logger.isDebugEnabled()) {
+                logger.debug("查询二级缓存,并将数据放到一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+            }
         }
         return fromStoreValue(result);
     }
 
     @Override
     public <T> T get(Object key, Class<T> type) {
+        if (!useSecondCache) {
+            return (T) fromStoreValue(firstCache.get(key, type));
+        }
+        recordHotKey(key);
         if (useFirstCache) {
             Object result = firstCache.get(key, type);
-            logger.debug("查询一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+            if (logger.isDebugEnabled()) {
+                logger.debug("查询一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+            }
             if (result != null) {
                 return (T) fromStoreValue(result);
             }
         }
+        Object hotKeyValue = getHotKeyValue(key);
+        if (hotKeyValue != null) {
+            return (T) fromStoreValue(hotKeyValue);
+        }
 
         T result = secondCache.get(key, type);
-        firstCache.putIfAbsent(key, result);
-        logger.debug("查询二级缓存,并将数据放到一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+        if (useFirstCache) {
+            putFirstCache(key, result);
+        }
+        pinHotKey(key, result);
+        if (logger.isDebugEnabled()) {
+            logger.debug("查询二级缓存,并将数据放到一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+        }
         return result;
     }
 
     @Override
     public <T> T get(Object key, Callable<T> valueLoader) {
+        if (!useSecondCache) {
+            return firstCache.get(key, valueLoader);
+        }
+        recordHotKey(key);
         if (useFirstCache) {
             Object result = firstCache.get(key);
-            logger.debug("查询一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+            if (logger.isDebugEnabled()) {
+                logger.debug("查询一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+            }
             if (result != null) {
                 return (T) fromStoreValue(result);
             }
         }
+        Object hotKeyValue = getHotKeyValue(key);
+        if (hotKeyValue != null) {
+            return (T) fromStoreValue(hotKeyValue);
+        }
         T result = secondCache.get(key, valueLoader);
-        firstCache.putIfAbsent(key, result);
-        logger.debug("查询二级缓存,并将数据放到一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+        if (useFirstCache) {
+            putFirstCache(key, result);
+        }
+        pinHotKey(key, result);
+        if (logger.isDebugEnabled()) {
+            logger.debug("查询二级缓存,并将数据放到一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+        }
         return result;
     }
 
+    @Override
+    public <K, T> Map<K, T> getAll(Collection<K> keys, Function<Collection<K>, Map<K, T>> bulkLoader) {
+        if (!useSecondCache) {
+            return firstCache.getAll(keys, bulkLoader);
+        }
+        for (K key : keys) {
+            recordHotKey(key);
+        }
+        if (useFirstCache) {
+            // 一级缓存没有命中的key批量查询二级缓存，二级缓存也没有命中的key再调用一次bulkLoader
+            trackKeys(keys);
+            Map<K, T> result = firstCache.getAll(keys, missKeys -> getAllFromSecondCache(missKeys, bulkLoader));
+            trackKeys(result.keySet());
+            logger.debug("批量查询一级缓存和二级缓存。 key数量={},命中数量:{}", keys.size(), result.size());
+            return result;
+        }
+        return getAllFromSecondCache(keys, bulkLoader);
+    }
+
+    /**
+     * 批量查询二级缓存，先从固定热点key的本地缓存获取，没有命中的key再批量查询二级缓存，查到的热点key固定到本地缓存
+     */
+    @SuppressWarnings("unchecked")
+    private <K, T> Map<K, T> getAllFromSecondCache(Collection<K> keys, Function<Collection<K>, Map<K, T>> bulkLoader) {
+        if (hotKeyCache == null) {
+            return secondCache.getAll(keys, bulkLoader);
+        }
+        Map<K, T> hotValues = new HashMap<>(16);
+        List<K> missKeys = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            Object value = getHotKeyValue(key);
+            if (value != null) {
+                hotValues.put(key, (T) fromStoreValue(value));
+            } else {
+                missKeys.add(key);
+            }
+        }
+        if (missKeys.isEmpty()) {
+            return mergeValues(keys, hotValues, Collections.emptyMap());
+        }
+        Map<K, T> values = secondCache.getAll(missKeys, bulkLoader);
+        for (Map.Entry<K, T> entry : values.entrySet()) {
+            pinHotKey(entry.getKey(), entry.getValue());
+        }
+        return mergeValues(keys, hotValues, values);
+    }
+
     @Override
     public void put(Object key, Object value) {
+        if (!useSecondCache) {
+            firstCache.put(key, value);
+            return;
+        }
         secondCache.put(key, value);
         // 删除一级缓存
-        if (useFirstCache) {
+        if (hasLocalState()) {
             deleteFirstCache(key);
         }
     }
 
     @Override
     public Object putIfAbsent(Object key, Object value) {
+        if (!useSecondCache) {
+            return firstCache.putIfAbsent(key, value);
+        }
         Object result = secondCache.putIfAbsent(key, value);
         // 删除一级缓存
-        if (useFirstCache) {
+        if (hasLocalState()) {
             deleteFirstCache(key);
         }
         return result;
@@ -152,42 +334,354 @@ public class LayeringCache extends AbstractValueAdaptingCache {
 
     @Override
     public void evict(Object key) {
+        if (!useSecondCache) {
+            firstCache.evict(key);
+            return;
+        }
         // 删除的时候要先删除二级缓存再删除一级缓存，否则有并发问题
         secondCache.evict(key);
         // 删除一级缓存
-        if (useFirstCache) {
+        if (hasLocalState()) {
             deleteFirstCache(key);
         }
     }
 
+    @Override
+    public CompletableFuture<Object> getAsync(Object key) {
+        if (!useSecondCache) {
+            return firstCache.getAsync(key);
+        }
+        recordHotKey(key);
+        Object result = useFirstCache ? firstCache.get(key) : null;
+        if (result == null) {
+            result = getHotKeyValue(key);
+        }
+        if (result != null) {
+            return CompletableFuture.completedFuture(fromStoreValue(result));
+        }
+        return secondCache.getAsync(key).thenApply(value -> {
+            if (useFirstCache) {
+                putFirstCache(key, value);
+            }
+            pinHotKey(key, value);
+            if (logger.isDebugEnabled()) {
+                logger.debug("异步查询二级缓存,并将数据放到一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(value));
+            }
+            return fromStoreValue(value);
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync(Object key, AsyncLoader<T> asyncLoader) {
+        if (!useSecondCache) {
+            return firstCache.getAsync(key, asyncLoader);
+        }
+        recordHotKey(key);
+        Object cached = useFirstCache ? firstCache.get(key) : null;
+        if (cached == null) {
+            cached = getHotKeyValue(key);
+        }
+        if (cached != null) {
+            return CompletableFuture.completedFuture((T) fromStoreValue(cached));
+        }
+        return secondCache.getAsync(key, asyncLoader).thenApply(result -> {
+            if (useFirstCache) {
+                putFirstCache(key, result);
+            }
+            pinHotKey(key, result);
+            if (logger.isDebugEnabled()) {
+                logger.debug("异步查询二级缓存,并将数据放到一级缓存。 key={},返回值是:{}", key, JsonUtils.toJson(result));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(Object key, Object value) {
+        if (!useSecondCache) {
+            return firstCache.putAsync(key, value);
+        }
+        CompletableFuture<Void> future = secondCache.putAsync(key, value);
+        return hasLocalState() ? future.thenCompose(v -> deleteFirstCacheAsync(key)) : future;
+    }
+
+    @Override
+    public CompletableFuture<Void> evictAsync(Object key) {
+        if (!useSecondCache) {
+            return firstCache.evictAsync(key);
+        }
+        // 删除的时候要先删除二级缓存再删除一级缓存，否则有并发问题
+        CompletableFuture<Void> future = secondCache.evictAsync(key);
+        return hasLocalState() ? future.thenCompose(v -> deleteFirstCacheAsync(key)) : future;
+    }
+
     @Override
     public void clear() {
+        if (!useSecondCache) {
+            firstCache.clear();
+            return;
+        }
         // 删除的时候要先删除二级缓存再删除一级缓存，否则有并发问题
         secondCache.clear();
-        if (useFirstCache) {
+        if (hasLocalCache() && batchRedisPublisher != null) {
+            batchRedisPublisher.clear(getName());
+        } else if (hasLocalCache()) {
             // 清除一级缓存需要用到redis的订阅/发布模式，否则集群中其他服服务器节点的一级缓存数据无法删除
             RedisPubSubMessage message = new RedisPubSubMessage();
             message.setCacheName(getName());
             message.setMessageType(RedisPubSubMessageType.CLEAR);
             // 发布消息
-            RedisPublisher.publisher(redisTemplate, new ChannelTopic(getName()), message);
+            messagePublisher.publish(message);
         }
     }
 
     private void deleteFirstCache(Object key) {
+        if (evictByClientTracking) {
+            // 其他节点由redis服务端推送的失效消息删除，本节点的一级缓存直接删除
+            evictLocal(key);
+            return;
+        }
+        if (batchRedisPublisher != null) {
+            // 批量发布消息有延迟，本节点的一级缓存直接删除
+            evictLocal(key);
+            batchRedisPublisher.evict(getName(), key);
+            return;
+        }
         // 删除一级缓存需要用到redis的Pub/Sub（订阅/发布）模式，否则集群中其他服服务器节点的一级缓存数据无法删除
         RedisPubSubMessage message = new RedisPubSubMessage();
         message.setCacheName(getName());
         message.setKey(key);
         message.setMessageType(RedisPubSubMessageType.EVICT);
         // 发布消息
-        RedisPublisher.publisher(redisTemplate, new ChannelTopic(getName()), message);
+        messagePublisher.publish(message);
+    }
+
+    /**
+     * 异步写操作完成后删除一级缓存，二级缓存的回调可能在lettuce的IO线程上执行，
+     * 使用Pub/Sub发布删除消息是阻塞的redis命令，需要切换到其他线程发布
+     */
+    private CompletableFuture<Void> deleteFirstCacheAsync(Object key) {
+        if (evictByClientTracking || batchRedisPublisher != null) {
+            deleteFirstCache(key);
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> deleteFirstCache(key));
+    }
+
+    /**
+     * 记录一次访问，开启热点key探测时才记录
+     */
+    private void recordHotKey(Object key) {
+        if (hotKeyDetector != null) {
+            hotKeyDetector.record(key);
+        }
+    }
+
+    private Object getHotKeyValue(Object key) {
+        return hotKeyCache == null ? null : hotKeyCache.get(key);
+    }
+
+    /**
+     * 从二级缓存查到的数据是热点key时固定到本地缓存
+     */
+    private void pinHotKey(Object key, Object value) {
+        if (hotKeyCache != null && value != null && hotKeyDetector.isHot(key)) {
+            putLocalCache(key, () -> hotKeyCache.put(key, value));
+            if (logger.isDebugEnabled()) {
+                logger.debug("热点key固定到本地缓存。 key={}", key);
+            }
+        }
+    }
+
+    private void putFirstCache(Object key, Object value) {
+        putLocalCache(key, () -> firstCache.putIfAbsent(key, value));
+    }
+
+    /**
+     * 写本地缓存，redis客户端缓存模式下写入前后都记录redis key和本地缓存key的映射：
+     * 写入前记录保证写入期间收到的失效消息能找到本地缓存key，写入后记录避免映射在写入期间被清理
+     */
+    private void putLocalCache(Object key, Runnable put) {
+        String redisKey = getTrackedRedisKey(key);
+        if (redisKey == null) {
+            put.run();
+            return;
+        }
+        trackedKeys.put(redisKey, key);
+        put.run();
+        trackedKeys.put(redisKey, key);
+        pruneTrackedKeys();
+    }
+
+    private void trackKeys(Collection<?> keys) {
+        for (Object key : keys) {
+            String redisKey = getTrackedRedisKey(key);
+            if (redisKey != null) {
+                trackedKeys.put(redisKey, key);
+            }
+        }
+        pruneTrackedKeys();
+    }
+
+    /**
+     * 获取需要记录映射的redis key，String类型的key可以直接从redis key中截取，不需要记录
+     */
+    private String getTrackedRedisKey(Object key) {
+        if (trackedKeys == null || key == null || key instanceof String) {
+            return null;
+        }
+        return ((RedisCache) secondCache).getRedisCacheKey(key).getKey();
+    }
+
+    /**
+     * 映射数量超过本地缓存的最大数量时，清理已经被淘汰或过期的本地缓存key的映射
+     */
+    private void pruneTrackedKeys() {
+        Map<String, Object> tracked = this.trackedKeys;
+        if (tracked == null || tracked.size() <= getLocalMaximumSize() * 2L || !pruningTrackedKeys.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (String redisKey : tracked.keySet()) {
+                // 和写本地缓存后记录映射互斥，不会删除刚写入的key的映射
+                tracked.computeIfPresent(redisKey, (k, key) -> containsLocal(key) ? key : null);
+            }
+        } finally {
+            pruningTrackedKeys.set(false);
+        }
+    }
+
+    private long getLocalMaximumSize() {
+        long size = hotKeyCache == null ? 0 : HotKeyDetector.CAPACITY;
+        if (useFirstCache && layeringCacheSetting != null && layeringCacheSetting.getFirstCacheSetting() != null) {
+            size += layeringCacheSetting.getFirstCacheSetting().getMaximumSize();
+        }
+        return size;
+    }
+
+    private boolean containsLocal(Object key) {
+        if (firstCache instanceof CaffeineCache && ((CaffeineCache) firstCache).getNativeCache().asMap().containsKey(key)) {
+            return true;
+        }
+        return hotKeyCache != null && hotKeyCache.getNativeCache().asMap().containsKey(key);
+    }
+
+    /**
+     * 是否有需要通过删除消息清除的本地缓存，包括一级缓存和固定热点key的本地缓存
+     */
+    private boolean hasLocalCache() {
+        return useFirstCache || hotKeyCache != null;
+    }
+
+    /**
+     * 是否有需要通过删除消息同步的本地状态，包括本地缓存和本地布隆过滤器
+     */
+    private boolean hasLocalState() {
+        return hasLocalCache() || localBloomFilter;
+    }
+
+    /**
+     * 删除本节点的一级缓存和固定的热点key，key被写入或删除过，同时补充到本地布隆过滤器
+     *
+     * @param key 缓存key
+     */
+    public void evictLocal(Object key) {
+        evictLocalCache(key);
+        if (localBloomFilter) {
+            ((RedisCache) secondCache).learnBloomFilter(key);
+        }
+    }
+
+    private void evictLocalCache(Object key) {
+        if (firstCache != null) {
+            firstCache.evict(key);
+        }
+        if (hotKeyCache != null) {
+            hotKeyCache.evict(key);
+        }
+    }
+
+    /**
+     * 批量删除本节点的一级缓存和固定的热点key，key被写入或删除过，同时补充到本地布隆过滤器
+     *
+     * @param keys 缓存key集合
+     */
+    public void evictLocal(Collection<Object> keys) {
+        if (localBloomFilter) {
+            for (Object key : keys) {
+                ((RedisCache) secondCache).learnBloomFilter(key);
+            }
+        }
+        if (firstCache instanceof CaffeineCache) {
+            ((CaffeineCache) firstCache).evictAll(keys);
+        } else if (firstCache != null) {
+            for (Object key : keys) {
+                firstCache.evict(key);
+            }
+        }
+        if (hotKeyCache != null) {
+            hotKeyCache.evictAll(keys);
+        }
+    }
+
+    /**
+     * 根据redis客户端缓存推送的失效消息删除本节点的一级缓存和固定的热点key
+     *
+     * @param redisKey 失效的redis key
+     * @param key      去掉缓存名称前缀的redis key，String类型的缓存key和它相同
+     */
+    public void evictLocal(String redisKey, String key) {
+        evictLocalCache(key);
+        Map<String, Object> tracked = this.trackedKeys;
+        Object trackedKey = tracked == null ? null : tracked.remove(redisKey);
+        if (trackedKey != null) {
+            evictLocalCache(trackedKey);
+        }
+        if (localBloomFilter) {
+            ((RedisCache) secondCache).learnBloomFilterRedisKey(redisKey);
+        }
+    }
+
+    /**
+     * 清空本节点的一级缓存和固定的热点key
+     */
+    public void clearLocal() {
+        if (firstCache != null) {
+            firstCache.clear();
+        }
+        if (hotKeyCache != null) {
+            hotKeyCache.clear();
+        }
+        Map<String, Object> tracked = this.trackedKeys;
+        if (tracked != null) {
+            tracked.clear();
+        }
+    }
+
+    /**
+     * 获取访问次数最多的热点key
+     *
+     * @param n 数量
+     * @return 按每秒访问次数倒序排列的热点key，没有开启热点key探测时返回空集合
+     */
+    public List<HotKey> getHotKeys(int n) {
+        return hotKeyDetector == null ? Collections.emptyList() : hotKeyDetector.getTopKeys(n);
+    }
+
+    /**
+     * 获取固定热点key的本地缓存
+     *
+     * @return 没有开启热点key固定时为NULL
+     */
+    public CaffeineCache getHotKeyCache() {
+        return hotKeyCache;
     }
 
     /**
      * 获取一级缓存
      *
-     * @return FirstCache
+     * @return FirstCache，只使用二级缓存时为NULL
      */
     public Cache getFirstCache() {
         return firstCache;
@@ -196,7 +690,7 @@ public class LayeringCache extends AbstractValueAdaptingCache {
     /**
      * 获取二级缓存
      *
-     * @return SecondCache
+     * @return SecondCache，只使用一级缓存时为NULL
      */
     public Cache getSecondCache() {
         return secondCache;
@@ -205,6 +699,15 @@ public class LayeringCache extends AbstractValueAdaptingCache {
     @Override
     public CacheStats getCacheStats() {
         CacheStats cacheStats = new CacheStats();
+        if (firstCache == null || secondCache == null) {
+            // 只使用一级缓存或二级缓存时，直接使用这一级缓存的统计数据
+            CacheStats onlyCacheStats = (firstCache == null ? secondCache : firstCache).getCacheStats();
+            cacheStats.addCacheRequestCount(onlyCacheStats.getCacheRequestCount().longValue());
+            cacheStats.addCachedMethodRequestCount(onlyCacheStats.getCachedMethodRequestCount().longValue());
+            cacheStats.addCachedMethodRequestTime(onlyCacheStats.getCachedMethodRequestTime().longValue());
+            setCacheStats(cacheStats);
+            return cacheStats;
+        }
         cacheStats.addCacheRequestCount(firstCache.getCacheStats().getCacheRequestCount().longValue());
         cacheStats.addCachedMethodRequestCount(secondCache.getCacheStats().getCachedMethodRequestCount().longValue());
         cacheStats.addCachedMethodRequestTime(secondCache.getCacheStats().getCachedMethodRequestTime().longValue());
@@ -215,12 +718,27 @@ public class LayeringCache extends AbstractValueAdaptingCache {
         return cacheStats;
     }
 
+    public void setMessagePublisher(RedisMessagePublisher messagePublisher) {
+        this.messagePublisher = messagePublisher;
+    }
+
+    public void setBatchRedisPublisher(BatchRedisPublisher batchRedisPublisher) {
+        this.batchRedisPublisher = batchRedisPublisher;
+    }
+
+    public void setEvictByClientTracking(boolean evictByClientTracking) {
+        this.evictByClientTracking = evictByClientTracking;
+        // 只有二级缓存是redis并且有本地缓存时才需要记录redis key和本地缓存key的映射
+        this.trackedKeys = evictByClientTracking && secondCache instanceof RedisCache && hasLocalCache()
+                ? new ConcurrentHashMap<>() : null;
+    }
+
     public LayeringCacheSetting getLayeringCacheSetting() {
         return layeringCacheSetting;
     }
 
     @Override
     public boolean isAllowNullValues() {
-        return secondCache.isAllowNullValues();
+        return useSecondCache ? secondCache.isAllowNullValues() : firstCache.isAllowNullValues();
     }
 }
@@ -2,16 +2,25 @@ package com.github.xiaolyuh.cache.caffeine;
 
 import com.github.xiaolyuh.util.JsonUtils;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.github.xiaolyuh.cache.AbstractValueAdaptingCache;
 import com.github.xiaolyuh.setting.FirstCacheSetting;
+import com.github.xiaolyuh.support.AsyncLoader;
 import com.github.xiaolyuh.support.ExpireMode;
 import com.github.xiaolyuh.support.NullValue;
+import com.github.xiaolyuh.support.ThreadTaskUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * 基于Caffeine实现的一级缓存
@@ -26,6 +35,11 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
      */
     private final Cache<Object, Object> cache;
 
+    /**
+     * 自动刷新一级缓存时获取新值的方法，一般是从二级缓存获取
+     */
+    private volatile Function<Object, Object> refreshLoader;
+
     /**
      * 使用name和{@link FirstCacheSetting}创建一个 {@link CaffeineCache} 实例
      *
@@ -34,9 +48,21 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
      * @param stats             是否开启统计模式
      */
     public CaffeineCache(String name, FirstCacheSetting firstCacheSetting, boolean stats) {
+        this(name, firstCacheSetting, 0, stats);
+    }
+
+    /**
+     * 使用name和{@link FirstCacheSetting}创建一个有效时间随机抖动的 {@link CaffeineCache} 实例
+     *
+     * @param name                缓存名称
+     * @param firstCacheSetting   一级缓存配置 {@link FirstCacheSetting}
+     * @param expireJitterPercent 有效时间随机抖动百分比，小于等于0表示不抖动
+     * @param stats               是否开启统计模式
+     */
+    public CaffeineCache(String name, FirstCacheSetting firstCacheSetting, int expireJitterPercent, boolean stats) {
 
         super(stats, name);
-        this.cache = getCache(firstCacheSetting);
+        this.cache = getCache(firstCacheSetting, expireJitterPercent, this::refresh, ThreadTaskUtils.getExecutor(name));
     }
 
     @Override
@@ -46,22 +72,24 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 
     @Override
     public Object get(Object key) {
-        logger.debug("caffeine缓存 key={} 获取缓存", JsonUtils.toJson(key));
+        if (logger.isDebugEnabled()) {
+            logger.debug("caffeine缓存 key={} 获取缓存", JsonUtils.toJson(key));
+        }
 
         if (isStats()) {
             getCacheStats().addCacheRequestCount(1);
         }
 
-        if (this.cache instanceof LoadingCache) {
-            return ((LoadingCache<Object, Object>) this.cache).get(key);
-        }
+        // 开启了自动刷新时也只查询，没有命中不会同步调用刷新方法
         return cache.getIfPresent(key);
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> T get(Object key, Callable<T> valueLoader) {
-        logger.debug("caffeine缓存 key={} 获取缓存， 如果没有命中就走库加载缓存", JsonUtils.toJson(key));
+        if (logger.isDebugEnabled()) {
+            logger.debug("caffeine缓存 key={} 获取缓存， 如果没有命中就走库加载缓存", JsonUtils.toJson(key));
+        }
 
         if (isStats()) {
             getCacheStats().addCacheRequestCount(1);
@@ -76,18 +104,46 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
         return (T) fromStoreValue(result);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, T> Map<K, T> getAll(Collection<K> keys, Function<Collection<K>, Map<K, T>> bulkLoader) {
+        logger.debug("caffeine缓存 批量获取缓存，key数量={}， 没有命中的key批量走库加载缓存", keys.size());
+
+        if (isStats()) {
+            getCacheStats().addCacheRequestCount(keys.size());
+        }
+
+        Map<K, T> hitValues = (Map<K, T>) (Map) this.cache.getAllPresent(keys);
+        Set<K> missKeys = new LinkedHashSet<>();
+        for (K key : keys) {
+            if (!hitValues.containsKey(key)) {
+                missKeys.add(key);
+            }
+        }
+
+        Map<K, T> loadValues = loadAll(missKeys, bulkLoader);
+        for (Map.Entry<K, T> entry : loadValues.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+        return mergeValues(keys, hitValues, loadValues);
+    }
+
     @Override
     public void put(Object key, Object value) {
         // 允许存NULL值
         if (isAllowNullValues()) {
-            logger.debug("caffeine缓存 key={} put缓存，缓存值：{}", JsonUtils.toJson(key), JsonUtils.toJson(value));
+            if (logger.isDebugEnabled()) {
+                logger.debug("caffeine缓存 key={} put缓存，缓存值：{}", JsonUtils.toJson(key), JsonUtils.toJson(value));
+            }
             this.cache.put(key, toStoreValue(value));
             return;
         }
 
         // 不允许存NULL值
         if (value != null && !(value instanceof NullValue)) {
-            logger.debug("caffeine缓存 key={} put缓存，缓存值：{}", JsonUtils.toJson(key), JsonUtils.toJson(value));
+            if (logger.isDebugEnabled()) {
+                logger.debug("caffeine缓存 key={} put缓存，缓存值：{}", JsonUtils.toJson(key), JsonUtils.toJson(value));
+            }
             this.cache.put(key, toStoreValue(value));
             return;
         }
@@ -96,7 +152,9 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 
     @Override
     public Object putIfAbsent(Object key, Object value) {
-        logger.debug("caffeine缓存 key={} putIfAbsent 缓存，缓存值：{}", JsonUtils.toJson(key), JsonUtils.toJson(value));
+        if (logger.isDebugEnabled()) {
+            logger.debug("caffeine缓存 key={} putIfAbsent 缓存，缓存值：{}", JsonUtils.toJson(key), JsonUtils.toJson(value));
+        }
         boolean flag = !isAllowNullValues() && (value == null || value instanceof NullValue);
         if (flag) {
             return null;
@@ -107,10 +165,58 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 
     @Override
     public void evict(Object key) {
-        logger.debug("caffeine缓存 key={} 清除缓存", JsonUtils.toJson(key));
+        if (logger.isDebugEnabled()) {
+            logger.debug("caffeine缓存 key={} 清除缓存", JsonUtils.toJson(key));
+        }
         this.cache.invalidate(key);
     }
 
+    /**
+     * 本地缓存的读写都是内存操作，直接在调用线程上执行，返回已经完成的 {@link CompletableFuture}
+     */
+    @Override
+    public CompletableFuture<Object> getAsync(Object key) {
+        return CompletableFuture.completedFuture(get(key));
+    }
+
+    /**
+     * 没有命中时异步加载数据，加载完成后放入缓存
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync(Object key, AsyncLoader<T> asyncLoader) {
+        Object result = get(key);
+        if (result != null) {
+            return CompletableFuture.completedFuture((T) fromStoreValue(result));
+        }
+        return loadAsync(key, asyncLoader).thenApply(value -> {
+            put(key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(Object key, Object value) {
+        put(key, value);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> evictAsync(Object key) {
+        evict(key);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 批量删除缓存
+     *
+     * @param keys 缓存key集合
+     */
+    public void evictAll(Collection<?> keys) {
+        logger.debug("caffeine缓存 批量清除缓存，key数量={}", keys.size());
+        this.cache.invalidateAll(keys);
+    }
+
     @Override
     public void clear() {
         logger.debug("caffeine缓存 key={} 清空缓存");
@@ -128,7 +234,9 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 
         try {
             T t = valueLoader.call();
-            logger.debug("caffeine缓存 key={} 从库加载缓存", JsonUtils.toJson(key), JsonUtils.toJson(t));
+            if (logger.isDebugEnabled()) {
+                logger.debug("caffeine缓存 key={} 从库加载缓存", JsonUtils.toJson(key), JsonUtils.toJson(t));
+            }
 
             if (isStats()) {
                 getCacheStats().addCachedMethodRequestTime(System.currentTimeMillis() - start);
@@ -140,22 +248,61 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 
     }
 
+    /**
+     * 设置自动刷新一级缓存时获取新值的方法
+     *
+     * @param refreshLoader 获取新值的方法，返回NULL表示删除一级缓存
+     */
+    public void setRefreshLoader(Function<Object, Object> refreshLoader) {
+        this.refreshLoader = refreshLoader;
+    }
+
+    /**
+     * 异步刷新缓存，由 Caffeine 在读取超过 refreshAfterWrite 的缓存时调用，刷新完成之前仍然返回旧值
+     */
+    private Object refresh(Object key) {
+        Function<Object, Object> loader = this.refreshLoader;
+        if (loader == null) {
+            return null;
+        }
+        Object value = loader.apply(key);
+        if (logger.isDebugEnabled()) {
+            logger.debug("caffeine缓存 key={} 自动刷新缓存，缓存值：{}", JsonUtils.toJson(key), JsonUtils.toJson(value));
+        }
+        // 返回NULL时 Caffeine 会删除缓存
+        return value instanceof NullValue ? null : value;
+    }
+
     /**
      * 根据配置获取本地缓存对象
      *
-     * @param firstCacheSetting 一级缓存配置
+     * @param firstCacheSetting   一级缓存配置
+     * @param expireJitterPercent 有效时间随机抖动百分比
+     * @param refreshLoader       自动刷新缓存时获取新值的方法
+     * @param refreshExecutor     自动刷新缓存的执行器
      * @return {@link Cache}
      */
-    private static Cache<Object, Object> getCache(FirstCacheSetting firstCacheSetting) {
+    private static Cache<Object, Object> getCache(FirstCacheSetting firstCacheSetting, int expireJitterPercent,
+                                                  CacheLoader<Object, Object> refreshLoader, Executor refreshExecutor) {
         // 根据配置创建Caffeine builder
         Caffeine<Object, Object> builder = Caffeine.newBuilder();
         builder.initialCapacity(firstCacheSetting.getInitialCapacity());
         builder.maximumSize(firstCacheSetting.getMaximumSize());
-        if (ExpireMode.WRITE.equals(firstCacheSetting.getExpireMode())) {
+        if (expireJitterPercent > 0) {
+            // 有效时间随机抖动时使用自定义的过期策略
+            builder.expireAfter(new JitterExpiry(firstCacheSetting.getExpireTime(), firstCacheSetting.getTimeUnit(),
+                    expireJitterPercent, firstCacheSetting.getExpireMode()));
+        } else if (ExpireMode.WRITE.equals(firstCacheSetting.getExpireMode())) {
             builder.expireAfterWrite(firstCacheSetting.getExpireTime(), firstCacheSetting.getTimeUnit());
         } else if (ExpireMode.ACCESS.equals(firstCacheSetting.getExpireMode())) {
             builder.expireAfterAccess(firstCacheSetting.getExpireTime(), firstCacheSetting.getTimeUnit());
         }
+        if (firstCacheSetting.getRefreshAfterWrite() > 0) {
+            builder.refreshAfterWrite(firstCacheSetting.getRefreshAfterWrite(), firstCacheSetting.getTimeUnit());
+            // 刷新会阻塞查询redis，不能使用 Caffeine 默认的 ForkJoinPool.commonPool()，使用缓存的后台线程池
+            builder.executor(refreshExecutor);
+            return builder.build(refreshLoader);
+        }
         // 根据Caffeine builder创建 Cache 对象
         return builder.build();
     }
@@ -0,0 +1,62 @@
+package com.github.xiaolyuh.cache.caffeine;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.xiaolyuh.support.ExpireMode;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 有效时间随机抖动的一级缓存过期策略，每次写入（访问模式下每次访问）时在有效时间上加一个随机的抖动时间，
+ * 避免同时写入的缓存同时失效
+ *
+ * @author yuhao.wang3
+ */
+class JitterExpiry implements Expiry<Object, Object> {
+
+    /**
+     * 有效时间，单位纳秒
+     */
+    private final long expireNanos;
+
+    /**
+     * 最大抖动时间，单位纳秒
+     */
+    private final long jitterNanos;
+
+    /**
+     * 过期模式
+     */
+    private final ExpireMode expireMode;
+
+    /**
+     * @param expireTime    有效时间
+     * @param timeUnit      时间单位
+     * @param jitterPercent 抖动百分比
+     * @param expireMode    过期模式
+     */
+    JitterExpiry(long expireTime, TimeUnit timeUnit, int jitterPercent, ExpireMode expireMode) {
+        this.expireNanos = timeUnit.toNanos(expireTime);
+        this.jitterNanos = expireNanos / 100 * jitterPercent;
+        this.expireMode = expireMode;
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return nextExpireNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return nextExpireNanos();
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return ExpireMode.ACCESS.equals(expireMode) ? nextExpireNanos() : currentDuration;
+    }
+
+    private long nextExpireNanos() {
+        return expireNanos + ThreadLocalRandom.current().nextLong(jitterNanos + 1);
+    }
+}
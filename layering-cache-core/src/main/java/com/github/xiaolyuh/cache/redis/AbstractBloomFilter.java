@@ -0,0 +1,70 @@
+package com.github.xiaolyuh.cache.redis;
+
+import org.springframework.util.Assert;
+
+/**
+ * 布隆过滤器的公共部分，根据预计的key数量和误判率计算位数组大小和哈希函数个数
+ *
+ * @author yuhao.wang3
+ */
+abstract class AbstractBloomFilter implements BloomFilter {
+
+    /**
+     * 位数组的最大长度，redis的bitmap最多2^32位
+     */
+    private static final long MAX_BITS = 1L << 32;
+
+    /**
+     * 位数组长度
+     */
+    protected final long numBits;
+
+    /**
+     * 哈希函数个数
+     */
+    protected final int numHashFunctions;
+
+    AbstractBloomFilter(long expectedInsertions, double fpp) {
+        Assert.isTrue(expectedInsertions > 0, "布隆过滤器预计的key数量必须大于0");
+        Assert.isTrue(fpp > 0 && fpp < 1, "布隆过滤器误判率必须在0和1之间");
+        long bits = (long) (-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(Long.SIZE, Math.min(bits, MAX_BITS));
+        this.numHashFunctions = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 计算key在位数组中的所有位置，使用一个64位哈希拆成两个32位哈希组合出多个哈希函数
+     *
+     * @param key 序列化后的redis key
+     * @return 位置数组
+     */
+    protected long[] offsets(byte[] key) {
+        long hash = hash(key);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        long[] offsets = new long[numHashFunctions];
+        long combinedHash = hash1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            offsets[i] = (combinedHash & Long.MAX_VALUE) % numBits;
+            combinedHash += hash2;
+        }
+        return offsets;
+    }
+
+    /**
+     * FNV-1a 64位哈希，再做一次 murmur3 的 fmix64 让高低位分布更均匀
+     */
+    private static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
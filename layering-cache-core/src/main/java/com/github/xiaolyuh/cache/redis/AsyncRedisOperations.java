@@ -0,0 +1,57 @@
+package com.github.xiaolyuh.cache.redis;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步缓存接口使用的redis命令，只包含缓存需要的几个命令
+ * <p>使用lettuce客户端时直接发送lettuce的异步命令，等待redis响应期间不占用调用线程；
+ * 其他客户端没有异步命令，降级成在调用线程上同步执行，返回已经完成的 {@link CompletableFuture}</p>
+ * <p>返回的 {@link CompletableFuture} 可能在lettuce的IO线程上完成，后续的回调中不能再执行阻塞的redis命令</p>
+ *
+ * @author yuhao.wang3
+ */
+public interface AsyncRedisOperations {
+
+    /**
+     * GET命令
+     *
+     * @param key 序列化后的key
+     * @return 序列化后的值，key不存在时为NULL
+     */
+    CompletableFuture<byte[]> get(byte[] key);
+
+    /**
+     * SET PX命令
+     *
+     * @param key        序列化后的key
+     * @param value      序列化后的值
+     * @param expiration 有效时间，单位毫秒
+     * @return CompletableFuture
+     */
+    CompletableFuture<Void> set(byte[] key, byte[] value, long expiration);
+
+    /**
+     * DEL命令
+     *
+     * @param key 序列化后的key
+     * @return CompletableFuture
+     */
+    CompletableFuture<Void> delete(byte[] key);
+
+    /**
+     * 根据redis客户端创建异步命令
+     *
+     * @param redisTemplate redis 客户端
+     * @return {@link AsyncRedisOperations}
+     */
+    static AsyncRedisOperations create(RedisTemplate<String, Object> redisTemplate) {
+        boolean lettucePresent = ClassUtils.isPresent("io.lettuce.core.RedisFuture", AsyncRedisOperations.class.getClassLoader());
+        if (lettucePresent && LettuceAsyncRedisOperations.isSupported(redisTemplate.getConnectionFactory())) {
+            return new LettuceAsyncRedisOperations(redisTemplate.getConnectionFactory());
+        }
+        return new BlockingAsyncRedisOperations(redisTemplate);
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.xiaolyuh.cache.redis;
+
+import com.github.xiaolyuh.util.FutureUtils;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客户端不支持异步命令时的 {@link AsyncRedisOperations}，在调用线程上同步执行命令
+ *
+ * @author yuhao.wang3
+ */
+class BlockingAsyncRedisOperations implements AsyncRedisOperations {
+
+    /**
+     * redis 客户端
+     */
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    BlockingAsyncRedisOperations(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public CompletableFuture<byte[]> get(byte[] key) {
+        try {
+            return CompletableFuture.completedFuture(redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(key)));
+        } catch (RuntimeException e) {
+            return FutureUtils.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> set(byte[] key, byte[] value, long expiration) {
+        try {
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.set(key, value,
+                    Expiration.from(expiration, TimeUnit.MILLISECONDS), RedisStringCommands.SetOption.UPSERT));
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return FutureUtils.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(byte[] key) {
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.del(key));
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return FutureUtils.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.xiaolyuh.cache.redis;
+
+import com.github.xiaolyuh.support.BloomFilterMode;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * 二级缓存的布隆过滤器，redis没有命中并且过滤器判断一定不存在的key不再加锁执行被缓存的方法
+ * <p>过滤器需要先通过 {@link #rebuild(Supplier)} 用所有存在的key初始化，初始化之前所有key都认为可能存在</p>
+ *
+ * @author yuhao.wang3
+ */
+public interface BloomFilter {
+
+    /**
+     * key是否可能存在，过滤器还没有初始化时总是返回true
+     *
+     * @param key 序列化后的redis key
+     * @return false表示key一定不存在
+     */
+    boolean mightContain(byte[] key);
+
+    /**
+     * 添加一个key
+     *
+     * @param key 序列化后的redis key
+     */
+    void put(byte[] key);
+
+    /**
+     * 使用所有存在的key重建过滤器，重建完成之前旧的过滤器仍然可用
+     * <p>开始重建之后才读取key来源，重建期间添加的key会同时写入新的过滤器，不会丢失</p>
+     *
+     * @param keySource 序列化后的redis key集合来源
+     * @return 是否执行了重建，其他节点正在重建时返回false
+     */
+    boolean rebuild(Supplier<? extends Collection<byte[]>> keySource);
+
+    /**
+     * 是否是本地内存中的过滤器，本地过滤器看不到其他节点添加的key，查询redis命中的key需要补充到本地过滤器
+     *
+     * @return boolean
+     */
+    boolean isLocal();
+
+    /**
+     * 根据模式创建布隆过滤器
+     *
+     * @param mode               {@link BloomFilterMode}
+     * @param name               缓存名称
+     * @param redisTemplate      redis客户端
+     * @param expectedInsertions 预计的key数量
+     * @param fpp                误判率
+     * @return 模式是 {@link BloomFilterMode#NONE} 时返回NULL
+     */
+    static BloomFilter create(BloomFilterMode mode, String name, RedisTemplate<String, Object> redisTemplate,
+                              long expectedInsertions, double fpp) {
+        if (mode == BloomFilterMode.LOCAL) {
+            return new LocalBloomFilter(expectedInsertions, fpp);
+        }
+        if (mode == BloomFilterMode.REDIS) {
+            return new RedisBloomFilter(name, redisTemplate, expectedInsertions, fpp);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.xiaolyuh.cache.redis;
+
+import com.github.xiaolyuh.util.FutureUtils;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 基于lettuce异步命令实现的 {@link AsyncRedisOperations}
+ * <p>共享连接模式下直接使用共享的本地连接；非共享连接模式下每个命令从连接池借一个连接，命令完成后归还</p>
+ *
+ * @author yuhao.wang3
+ */
+class LettuceAsyncRedisOperations implements AsyncRedisOperations {
+
+    /**
+     * redis连接工厂
+     */
+    private final RedisConnectionFactory connectionFactory;
+
+    LettuceAsyncRedisOperations(RedisConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * 是否是lettuce的连接工厂
+     *
+     * @param connectionFactory redis连接工厂
+     * @return boolean
+     */
+    static boolean isSupported(RedisConnectionFactory connectionFactory) {
+        return connectionFactory instanceof LettuceConnectionFactory;
+    }
+
+    @Override
+    public CompletableFuture<byte[]> get(byte[] key) {
+        return execute(commands -> commands.get(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> set(byte[] key, byte[] value, long expiration) {
+        return execute(commands -> commands.set(key, value, SetArgs.Builder.px(expiration))).thenAccept(result -> {
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(byte[] key) {
+        return execute(commands -> commands.del(key)).thenAccept(result -> {
+        });
+    }
+
+    /**
+     * 获取连接发送异步命令，命令完成后关闭连接
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> execute(Function<RedisClusterAsyncCommands<byte[], byte[]>, RedisFuture<T>> command) {
+        RedisConnection connection;
+        try {
+            connection = connectionFactory.getConnection();
+        } catch (RuntimeException e) {
+            return FutureUtils.failedFuture(e);
+        }
+
+        try {
+            RedisClusterAsyncCommands<byte[], byte[]> commands = (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            return command.apply(commands).toCompletableFuture().whenComplete((result, e) -> connection.close());
+        } catch (RuntimeException e) {
+            connection.close();
+            return FutureUtils.failedFuture(e);
+        }
+    }
+}
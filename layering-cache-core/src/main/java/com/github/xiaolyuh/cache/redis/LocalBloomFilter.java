@@ -0,0 +1,108 @@
+package com.github.xiaolyuh.cache.redis;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 本地内存中的布隆过滤器，每个节点各自维护
+ *
+ * @author yuhao.wang3
+ */
+class LocalBloomFilter extends AbstractBloomFilter {
+
+    /**
+     * 当前使用的位数组，为NULL表示还没有初始化
+     */
+    private volatile AtomicLongArray bits;
+
+    /**
+     * 正在重建的位数组，重建期间添加的key同时写入
+     */
+    private volatile AtomicLongArray rebuildingBits;
+
+    /**
+     * 添加key时加读锁，开始重建和切换位数组时加写锁，保证重建期间添加的key不会丢失
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    LocalBloomFilter(long expectedInsertions, double fpp) {
+        super(expectedInsertions, fpp);
+    }
+
+    @Override
+    public boolean mightContain(byte[] key) {
+        AtomicLongArray current = bits;
+        if (current == null) {
+            return true;
+        }
+        for (long offset : offsets(key)) {
+            if ((current.get((int) (offset >>> 6)) & (1L << offset)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void put(byte[] key) {
+        long[] offsets = offsets(key);
+        lock.readLock().lock();
+        try {
+            setBits(bits, offsets);
+            setBits(rebuildingBits, offsets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public synchronized boolean rebuild(Supplier<? extends Collection<byte[]>> keySource) {
+        AtomicLongArray newBits = new AtomicLongArray((int) ((numBits + Long.SIZE - 1) >>> 6));
+        lock.writeLock().lock();
+        try {
+            rebuildingBits = newBits;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            for (byte[] key : keySource.get()) {
+                setBits(newBits, offsets(key));
+            }
+            lock.writeLock().lock();
+            try {
+                bits = newBits;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildingBits = null;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    private static void setBits(AtomicLongArray array, long[] offsets) {
+        if (array == null) {
+            return;
+        }
+        for (long offset : offsets) {
+            int index = (int) (offset >>> 6);
+            long mask = 1L << offset;
+            long value;
+            do {
+                value = array.get(index);
+                if ((value & mask) != 0) {
+                    break;
+                }
+            } while (!array.compareAndSet(index, value, value | mask));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.xiaolyuh.cache.redis;
+
+import com.github.xiaolyuh.support.Lock;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 保存在redis bitmap中的布隆过滤器，所有节点共用
+ * <p>过滤器的key和重建时的临时key使用相同的hash tag，集群模式下在同一个slot，可以在一个lua脚本中操作；
+ * 所有节点都会定时重建，通过分布式锁保证同一时间只有一个节点在重建</p>
+ *
+ * @author yuhao.wang3
+ */
+class RedisBloomFilter extends AbstractBloomFilter {
+
+    private static final String KEY_PREFIX = "layering-cache:bloom:";
+
+    /**
+     * 每次pipeline写入的key数量
+     */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    /**
+     * 重建用的临时key和重建锁的有效时间，重建节点宕机时临时key和锁会自动删除
+     */
+    private static final long REBUILDING_EXPIRE_MINUTES = 60;
+
+    /**
+     * 过滤器不存在（还没有初始化）时认为key可能存在
+     */
+    private static final byte[] MIGHT_CONTAIN_SCRIPT = ("if redis.call('EXISTS', KEYS[1]) == 0 then return 1 end "
+            + "for i = 1, #ARGV do if redis.call('GETBIT', KEYS[1], ARGV[i]) == 0 then return 0 end end "
+            + "return 1").getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 正在重建时同时写入临时key
+     */
+    private static final byte[] PUT_SCRIPT = ("local rebuilding = redis.call('EXISTS', KEYS[2]) == 1 "
+            + "for i = 1, #ARGV do redis.call('SETBIT', KEYS[1], ARGV[i], 1) "
+            + "if rebuilding then redis.call('SETBIT', KEYS[2], ARGV[i], 1) end end "
+            + "return 1").getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 临时key存在时才替换过滤器，RENAME会把临时key的有效时间带过去，需要再去掉有效时间
+     */
+    private static final byte[] SWAP_SCRIPT = ("if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+            + "redis.call('RENAME', KEYS[1], KEYS[2]) redis.call('PERSIST', KEYS[2]) "
+            + "return 1").getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 过滤器的key
+     */
+    private final byte[] key;
+
+    /**
+     * 重建时使用的临时key
+     */
+    private final byte[] rebuildingKey;
+
+    /**
+     * 重建锁的key
+     */
+    private final String lockKey;
+
+    RedisBloomFilter(String name, RedisTemplate<String, Object> redisTemplate, long expectedInsertions, double fpp) {
+        super(expectedInsertions, fpp);
+        this.redisTemplate = redisTemplate;
+        String filterKey = KEY_PREFIX + "{" + name + "}";
+        this.key = filterKey.getBytes(StandardCharsets.UTF_8);
+        this.rebuildingKey = (filterKey + ":rebuilding").getBytes(StandardCharsets.UTF_8);
+        this.lockKey = filterKey + ":lock";
+    }
+
+    @Override
+    public boolean mightContain(byte[] cacheKey) {
+        Long result = redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.eval(MIGHT_CONTAIN_SCRIPT, ReturnType.INTEGER, 1, keysAndArgs(cacheKey, key)));
+        return result == null || result != 0;
+    }
+
+    @Override
+    public void put(byte[] cacheKey) {
+        redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.eval(PUT_SCRIPT, ReturnType.INTEGER, 2, keysAndArgs(cacheKey, key, rebuildingKey)));
+    }
+
+    @Override
+    public synchronized boolean rebuild(Supplier<? extends Collection<byte[]>> keySource) {
+        // 所有节点共用一个临时key，其他节点正在重建时不能删除临时key，直接跳过本次重建
+        Lock lock = new Lock(redisTemplate, lockKey, (int) TimeUnit.MINUTES.toSeconds(REBUILDING_EXPIRE_MINUTES));
+        if (!lock.lock()) {
+            return false;
+        }
+        try {
+            rebuild(keySource, System.currentTimeMillis());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rebuild(Supplier<? extends Collection<byte[]>> keySource, long start) {
+        // 先创建临时key，之后其他节点添加的key会同时写入临时key
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.del(rebuildingKey);
+            connection.setBit(rebuildingKey, 0, false);
+            connection.pExpire(rebuildingKey, TimeUnit.MINUTES.toMillis(REBUILDING_EXPIRE_MINUTES));
+            return null;
+        });
+
+        List<byte[]> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+        for (byte[] cacheKey : keySource.get()) {
+            batch.add(cacheKey);
+            if (batch.size() >= REBUILD_BATCH_SIZE) {
+                setBits(batch);
+                batch.clear();
+            }
+        }
+        setBits(batch);
+
+        // 重建时间超过锁的有效时间时其他节点可能已经开始重建，临时key不完整，不能替换过滤器
+        if (System.currentTimeMillis() - start >= TimeUnit.MINUTES.toMillis(REBUILDING_EXPIRE_MINUTES)) {
+            throw new IllegalStateException("重建布隆过滤器的时间超过了" + REBUILDING_EXPIRE_MINUTES + "分钟，放弃本次重建");
+        }
+        redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.eval(SWAP_SCRIPT, ReturnType.INTEGER, 2, rebuildingKey, key));
+    }
+
+    @Override
+    public boolean isLocal() {
+        return false;
+    }
+
+    private void setBits(List<byte[]> cacheKeys) {
+        if (cacheKeys.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] cacheKey : cacheKeys) {
+                for (long offset : offsets(cacheKey)) {
+                    connection.setBit(rebuildingKey, offset, true);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 拼接lua脚本的KEYS和ARGV参数，ARGV是key在位数组中的所有位置
+     */
+    private byte[][] keysAndArgs(byte[] cacheKey, byte[]... keys) {
+        long[] offsets = offsets(cacheKey);
+        byte[][] keysAndArgs = new byte[keys.length + offsets.length][];
+        System.arraycopy(keys, 0, keysAndArgs, 0, keys.length);
+        for (int i = 0; i < offsets.length; i++) {
+            keysAndArgs[keys.length + i] = String.valueOf(offsets[i]).getBytes(StandardCharsets.UTF_8);
+        }
+        return keysAndArgs;
+    }
+}
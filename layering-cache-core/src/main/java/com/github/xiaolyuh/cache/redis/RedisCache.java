@@ -2,21 +2,48 @@ package com.github.xiaolyuh.cache.redis;
 
 import com.github.xiaolyuh.util.JsonUtils;
 import com.github.xiaolyuh.cache.AbstractValueAdaptingCache;
+import com.github.xiaolyuh.listener.RedisPublisher;
 import com.github.xiaolyuh.setting.SecondaryCacheSetting;
+import com.github.xiaolyuh.support.AsyncLoader;
 import com.github.xiaolyuh.support.AwaitThreadContainer;
 import com.github.xiaolyuh.support.Lock;
 import com.github.xiaolyuh.support.NullValue;
 import com.github.xiaolyuh.support.ThreadTaskUtils;
+import com.github.xiaolyuh.util.FutureUtils;
 import com.github.xiaolyuh.util.RedisHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 基于Redis实现的二级缓存
@@ -29,23 +56,70 @@ public class RedisCache extends AbstractValueAdaptingCache {
     /**
      * 刷新缓存重试次数
      */
-    private static final int RETRY_COUNT = 20;
+    private static final int RETRY_COUNT = 4;
 
     /**
-     * 刷新缓存等待时间，单位毫秒
+     * 刷新缓存等待时间，单位毫秒。加载完成时会通过加载完成通知唤醒等待线程，等待时间只是通知丢失时的兜底
      */
-    private static final long WAIT_TIME = 20;
+    private static final long WAIT_TIME = 100;
 
     /**
-     * 等待线程容器
+     * 加载缓存的分布式锁的key后缀
      */
-    private AwaitThreadContainer container = new AwaitThreadContainer();
+    public static final String SYNC_LOCK_SUFFIX = "_sync_lock";
+
+    /**
+     * 刷新缓存的分布式锁的key后缀
+     */
+    public static final String REFRESH_LOCK_SUFFIX = "_lock";
+
+    /**
+     * 等待加载结果标记的key后缀，其他节点有线程在等待时才发布加载完成通知
+     */
+    public static final String SYNC_WAITING_SUFFIX = "_sync_waiting";
+
+    /**
+     * key不存在时PTTL命令的返回值
+     */
+    private static final long TTL_KEY_NOT_EXISTS = -2;
+
+    /**
+     * 一次网络往返同时获取缓存值和剩余有效时间（毫秒）的lua脚本，返回值是 [value, pttl]
+     * <p>pttl=-2表示key不存在，pttl=-1表示key没有设置有效时间</p>
+     */
+    private static final RedisScript<List> GET_WITH_TTL_SCRIPT = RedisScript.of(
+            "return {redis.call('GET', KEYS[1]), redis.call('PTTL', KEYS[1])}", List.class);
+
+    /**
+     * 正在加载数据的key，同一个JVM内同一个key只有一个线程去竞争分布式锁和加载数据，其他线程等待同一个结果
+     */
+    private static final ConcurrentMap<String, CompletableFuture<Object>> LOADING_FUTURES = new ConcurrentHashMap<>(256);
+
+    /**
+     * 当前线程正在加载数据的key，被缓存的方法在同一个线程内再次加载同一个key时不能等待自己的加载结果
+     */
+    private static final ThreadLocal<Set<String>> LOADING_KEYS = ThreadLocal.withInitial(HashSet::new);
+
+    /**
+     * 等待线程容器，所有缓存共用，收到其他节点的加载完成通知时唤醒等待线程
+     */
+    private static final AwaitThreadContainer container = new AwaitThreadContainer();
+
+    /**
+     * 加载完成通知的频道，为NULL表示不通知其他节点
+     */
+    private ChannelTopic loadedTopic;
 
     /**
      * redis 客户端
      */
     private RedisTemplate<String, Object> redisTemplate;
 
+    /**
+     * redis 异步命令
+     */
+    private final AsyncRedisOperations asyncOperations;
+
     /**
      * 缓存有效时间,毫秒
      */
@@ -62,11 +136,36 @@ public class RedisCache extends AbstractValueAdaptingCache {
      */
     private boolean forceRefresh = false;
 
+    /**
+     * 概率提前刷新（XFetch）的beta系数，小于等于0表示不开启，本节点还没有加载过数据时使用 preloadTime
+     */
+    private double earlyRefreshBeta = 0;
+
+    /**
+     * 加载数据的平均耗时（指数加权平均），概率提前刷新时使用，单位：毫秒
+     */
+    private volatile long loadTime = 0;
+
+    /**
+     * 缓存有效时间的最大随机抖动时间，小于等于0表示不开启，单位：毫秒
+     */
+    private long expireJitter = 0;
+
+    /**
+     * 布隆过滤器，为NULL表示不使用
+     */
+    private BloomFilter bloomFilter;
+
     /**
      * 是否使用缓存名称作为 redis key 前缀
      */
     private boolean usePrefix;
 
+    /**
+     * 预先序列化好的缓存前缀
+     */
+    private final byte[] prefix;
+
     /**
      * 是否允许为NULL
      */
@@ -93,6 +192,15 @@ public class RedisCache extends AbstractValueAdaptingCache {
                 secondaryCacheSetting.getTimeUnit().toMillis(secondaryCacheSetting.getPreloadTime()),
                 secondaryCacheSetting.isForceRefresh(), secondaryCacheSetting.isUsePrefix(),
                 secondaryCacheSetting.isAllowNullValue(), secondaryCacheSetting.getMagnification(), stats);
+        this.earlyRefreshBeta = secondaryCacheSetting.getEarlyRefreshBeta();
+        this.expireJitter = secondaryCacheSetting.getExpireJitterPercent() > 0
+                ? this.expiration * secondaryCacheSetting.getExpireJitterPercent() / 100
+                : secondaryCacheSetting.getTimeUnit().toMillis(secondaryCacheSetting.getExpireJitter());
+        // 允许缓存NULL值时不存在的key已经缓存了NULL值，不需要布隆过滤器
+        if (!secondaryCacheSetting.isAllowNullValue()) {
+            this.bloomFilter = BloomFilter.create(secondaryCacheSetting.getBloomFilterMode(), name, redisTemplate,
+                    secondaryCacheSetting.getBloomFilterExpectedInsertions(), secondaryCacheSetting.getBloomFilterFpp());
+        }
     }
 
     /**
@@ -112,12 +220,14 @@ public class RedisCache extends AbstractValueAdaptingCache {
 
         Assert.notNull(redisTemplate, "RedisTemplate 不能为NULL");
         this.redisTemplate = redisTemplate;
+        this.asyncOperations = AsyncRedisOperations.create(redisTemplate);
         this.expiration = expiration;
         this.preloadTime = preloadTime;
         this.forceRefresh = forceRefresh;
         this.usePrefix = usePrefix;
         this.allowNullValues = allowNullValues;
         this.magnification = magnification;
+        this.prefix = RedisCacheKey.serializePrefix(name);
     }
 
     @Override
@@ -127,13 +237,20 @@ public class RedisCache extends AbstractValueAdaptingCache {
 
     @Override
     public Object get(Object key) {
+        return get(getRedisCacheKey(key));
+    }
+
+    private Object get(RedisCacheKey redisCacheKey) {
         if (isStats()) {
             getCacheStats().addCacheRequestCount(1);
         }
 
-        RedisCacheKey redisCacheKey = getRedisCacheKey(key);
         logger.debug("redis缓存 key= {} 查询redis缓存", redisCacheKey.getKey());
-        return redisTemplate.opsForValue().get(redisCacheKey.getKey());
+        Object result = redisTemplate.opsForValue().get(redisCacheKey.getKey());
+        if (result != null) {
+            learnBloomFilter(redisCacheKey);
+        }
+        return result;
     }
 
     @Override
@@ -144,32 +261,111 @@ public class RedisCache extends AbstractValueAdaptingCache {
 
         RedisCacheKey redisCacheKey = getRedisCacheKey(key);
         logger.debug("redis缓存 key= {} 查询redis缓存如果没有命中，从数据库获取数据", redisCacheKey.getKey());
-        // 先获取缓存，如果有直接返回
-        Object result = redisTemplate.opsForValue().get(redisCacheKey.getKey());
-        if (result != null || redisTemplate.hasKey(redisCacheKey.getKey())) {
+        // 先获取缓存和剩余有效时间，如果有直接返回
+        ValueWrapper wrapper = getValueWithTtl(redisCacheKey);
+        Object result = wrapper.getValue();
+        if (result != null || wrapper.isExists()) {
+            learnBloomFilter(redisCacheKey);
             // 刷新缓存
-            refreshCache(redisCacheKey, valueLoader, result);
+            refreshCache(redisCacheKey, valueLoader, result, wrapper.getTtl());
             return (T) fromStoreValue(result);
         }
+        // 没有命中时再查询布隆过滤器，一定不存在的key不加锁也不执行被缓存的方法
+        if (isFilteredOut(redisCacheKey)) {
+            return null;
+        }
         // 执行缓存方法
-        return executeCacheMethod(redisCacheKey, valueLoader);
+        return executeCacheMethodOnce(redisCacheKey, valueLoader);
+    }
+
+    /**
+     * 批量获取缓存，一次MGET查询所有key，没有命中的key只调用一次bulkLoader加载数据，再通过pipeline批量写回redis
+     * <p>集群模式下MGET由客户端按slot拆分执行；批量获取不加分布式锁，也不做缓存的预刷新</p>
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, T> Map<K, T> getAll(Collection<K> keys, Function<Collection<K>, Map<K, T>> bulkLoader) {
+        if (isStats()) {
+            getCacheStats().addCacheRequestCount(keys.size());
+        }
+
+        Map<K, RedisCacheKey> redisCacheKeys = new LinkedHashMap<>(keys.size() * 4 / 3 + 1);
+        for (K key : keys) {
+            if (!redisCacheKeys.containsKey(key)) {
+                redisCacheKeys.put(key, getRedisCacheKey(key));
+            }
+        }
+        List<String> redisKeys = new ArrayList<>(redisCacheKeys.size());
+        for (RedisCacheKey redisCacheKey : redisCacheKeys.values()) {
+            redisKeys.add(redisCacheKey.getKey());
+        }
+        logger.debug("redis缓存 批量查询redis缓存，key数量={}", redisKeys.size());
+
+        List<Object> values = redisTemplate.opsForValue().multiGet(redisKeys);
+        Map<K, T> hitValues = new HashMap<>(redisCacheKeys.size() * 4 / 3 + 1);
+        List<K> missKeys = new ArrayList<>();
+        int index = 0;
+        for (K key : redisCacheKeys.keySet()) {
+            Object result = values == null ? null : values.get(index);
+            index++;
+            if (result == null) {
+                // 没有命中时再查询布隆过滤器，一定不存在的key不执行被缓存的方法
+                if (!isFilteredOut(redisCacheKeys.get(key))) {
+                    missKeys.add(key);
+                }
+                continue;
+            }
+            learnBloomFilter(redisCacheKeys.get(key));
+            hitValues.put(key, (T) fromStoreValue(result));
+        }
+
+        Map<K, T> loadValues = loadAll(missKeys, bulkLoader);
+        if (!missKeys.isEmpty()) {
+            logger.debug("redis缓存 批量执行被缓存的方法，并将其放入缓存，key数量={}", missKeys.size());
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <KK, VV> Object execute(RedisOperations<KK, VV> operations) throws DataAccessException {
+                    for (K key : missKeys) {
+                        T value = loadValues.get(key);
+                        // 加载结果为NULL且不允许缓存NULL值，redis中本来就没有该key，不需要再删除
+                        if (value == null && !isAllowNullValues()) {
+                            continue;
+                        }
+                        putValue((RedisOperations<String, Object>) operations, redisCacheKeys.get(key), value);
+                    }
+                    return null;
+                }
+            });
+            // 布隆过滤器使用自己的redis连接，不能在pipeline中添加
+            for (K key : missKeys) {
+                if (loadValues.get(key) != null) {
+                    putBloomFilter(redisCacheKeys.get(key));
+                }
+            }
+        }
+        return mergeValues(keys, hitValues, loadValues);
     }
 
     @Override
     public void put(Object key, Object value) {
         RedisCacheKey redisCacheKey = getRedisCacheKey(key);
-        logger.debug("redis缓存 key= {} put缓存，缓存值：{}", redisCacheKey.getKey(), JsonUtils.toJson(value));
+        if (logger.isDebugEnabled()) {
+            logger.debug("redis缓存 key= {} put缓存，缓存值：{}", redisCacheKey.getKey(), JsonUtils.toJson(value));
+        }
         putValue(redisCacheKey, value);
     }
 
     @Override
     public Object putIfAbsent(Object key, Object value) {
-        logger.debug("redis缓存 key= {} putIfAbsent缓存，缓存值：{}", getRedisCacheKey(key).getKey(), JsonUtils.toJson(value));
-        Object reult = get(key);
+        RedisCacheKey redisCacheKey = getRedisCacheKey(key);
+        if (logger.isDebugEnabled()) {
+            logger.debug("redis缓存 key= {} putIfAbsent缓存，缓存值：{}", redisCacheKey.getKey(), JsonUtils.toJson(value));
+        }
+        Object reult = get(redisCacheKey);
         if (reult != null) {
             return reult;
         }
-        put(key, value);
+        putValue(redisCacheKey, value);
         return null;
     }
 
@@ -177,9 +373,72 @@ public class RedisCache extends AbstractValueAdaptingCache {
     public void evict(Object key) {
         RedisCacheKey redisCacheKey = getRedisCacheKey(key);
         logger.info("清除redis缓存 key= {} ", redisCacheKey.getKey());
+        // 删除缓存一般是数据有变化，数据可能是新增的，需要添加到布隆过滤器，否则删除之后查询不到数据
+        putBloomFilter(redisCacheKey);
         redisTemplate.delete(redisCacheKey.getKey());
     }
 
+    @Override
+    public CompletableFuture<Object> getAsync(Object key) {
+        if (isStats()) {
+            getCacheStats().addCacheRequestCount(1);
+        }
+
+        RedisCacheKey redisCacheKey = getRedisCacheKey(key);
+        logger.debug("redis缓存 key= {} 异步查询redis缓存", redisCacheKey.getKey());
+        return getValueAsync(redisCacheKey).thenApply(result -> {
+            if (result != null) {
+                learnBloomFilter(redisCacheKey);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 异步获取缓存，没有命中时同一个JVM内同一个key只调用一次asyncLoader，加载完成后异步写回redis
+     * <p>异步获取不加分布式锁，等待redis响应和加载数据期间不占用调用线程；也不做缓存的预刷新</p>
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync(Object key, AsyncLoader<T> asyncLoader) {
+        if (isStats()) {
+            getCacheStats().addCacheRequestCount(1);
+        }
+
+        RedisCacheKey redisCacheKey = getRedisCacheKey(key);
+        logger.debug("redis缓存 key= {} 异步查询redis缓存如果没有命中，异步加载数据", redisCacheKey.getKey());
+        return getValueAsync(redisCacheKey).thenCompose(result -> {
+            if (result != null) {
+                learnBloomFilter(redisCacheKey);
+                return CompletableFuture.completedFuture((T) fromStoreValue(result));
+            }
+            return isFilteredOutAsync(redisCacheKey).thenCompose(filteredOut -> filteredOut
+                    ? CompletableFuture.completedFuture(null) : executeCacheMethodAsync(redisCacheKey, asyncLoader));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(Object key, Object value) {
+        RedisCacheKey redisCacheKey = getRedisCacheKey(key);
+        if (logger.isDebugEnabled()) {
+            logger.debug("redis缓存 key= {} 异步put缓存，缓存值：{}", redisCacheKey.getKey(), JsonUtils.toJson(value));
+        }
+        return putValueAsync(redisCacheKey, value).thenAccept(result -> {
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> evictAsync(Object key) {
+        RedisCacheKey redisCacheKey = getRedisCacheKey(key);
+        logger.info("异步清除redis缓存 key= {} ", redisCacheKey.getKey());
+        try {
+            putBloomFilter(redisCacheKey);
+        } catch (RuntimeException e) {
+            return FutureUtils.failedFuture(e);
+        }
+        return asyncOperations.delete(redisCacheKey.getKeyBytes());
+    }
+
     @Override
     public void clear() {
         // 必须开启了使用缓存名称作为前缀，clear才有效
@@ -201,47 +460,230 @@ public class RedisCache extends AbstractValueAdaptingCache {
      * @return RedisCacheKey
      */
     public RedisCacheKey getRedisCacheKey(Object key) {
-        return new RedisCacheKey(key, redisTemplate.getKeySerializer())
-                .cacheName(getName()).usePrefix(usePrefix);
+        return new RedisCacheKey(key, redisTemplate.getKeySerializer(), prefix).usePrefix(usePrefix);
     }
 
     /**
-     * 同一个线程循环5次查询缓存，每次等待20毫秒，如果还是没有数据直接去执行被缓存的方法
+     * 一次网络往返获取缓存值、key是否存在和剩余有效时间，替代原来的 GET + EXISTS + TTL 三次往返
+     * <p>如果Redis不支持EVAL命令，则降级成多次请求的方式获取</p>
+     *
+     * @param redisCacheKey {@link RedisCacheKey}
+     * @return {@link ValueWrapper}
+     */
+    private ValueWrapper getValueWithTtl(RedisCacheKey redisCacheKey) {
+        String key = redisCacheKey.getKey();
+        try {
+            RedisSerializer valueSerializer = redisTemplate.getValueSerializer();
+            List<?> values = redisTemplate.execute(GET_WITH_TTL_SCRIPT, valueSerializer, (RedisSerializer<List>) valueSerializer,
+                    Collections.singletonList(key));
+            if (values != null && values.size() == 2) {
+                Long ttl = (Long) values.get(1);
+                return new ValueWrapper(values.get(0), ttl == null ? TTL_KEY_NOT_EXISTS : ttl);
+            }
+        } catch (Exception e) {
+            logger.warn("redis缓存 key={} 使用lua脚本获取缓存失败，使用降级方式获取：{}", key, e.getMessage());
+        }
+
+        Object result = redisTemplate.opsForValue().get(key);
+        if (result == null && !redisTemplate.hasKey(key)) {
+            return new ValueWrapper(null, TTL_KEY_NOT_EXISTS);
+        }
+        Long ttl = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        return new ValueWrapper(result, ttl == null ? -1 : ttl);
+    }
+
+    /**
+     * 同一个JVM内同一个key只有第一个线程去执行 {@link #executeCacheMethod}，其他线程等待第一个线程的结果，不访问redis；
+     * 等待超时后自己去执行 {@link #executeCacheMethod}，被缓存的方法在加载时再次加载同一个key时直接执行被缓存的方法
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T executeCacheMethodOnce(RedisCacheKey redisCacheKey, Callable<T> valueLoader) {
+        String key = redisCacheKey.getKey();
+        Set<String> loadingKeys = LOADING_KEYS.get();
+        if (loadingKeys.contains(key)) {
+            logger.debug("redis缓存 key= {} 当前线程正在加载数据，直接执行被缓存的方法", key);
+            return loaderAndPutValue(redisCacheKey, valueLoader, true);
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> loadingFuture = LOADING_FUTURES.putIfAbsent(key, future);
+        if (loadingFuture != null) {
+            logger.debug("redis缓存 key= {} 本地已经有线程在加载数据，等待加载结果", key);
+            return (T) awaitLoading(redisCacheKey, loadingFuture, valueLoader);
+        }
+
+        loadingKeys.add(key);
+        try {
+            T result = executeCacheMethod(redisCacheKey, valueLoader);
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingKeys.remove(key);
+            LOADING_FUTURES.remove(key, future);
+        }
+    }
+
+    /**
+     * 异步加载数据，同一个JVM内同一个key和同步加载共用一个加载结果
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> executeCacheMethodAsync(RedisCacheKey redisCacheKey, AsyncLoader<T> asyncLoader) {
+        String key = redisCacheKey.getKey();
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> loadingFuture = LOADING_FUTURES.putIfAbsent(key, future);
+        if (loadingFuture != null) {
+            logger.debug("redis缓存 key= {} 本地已经有线程在加载数据，等待加载结果", key);
+            // 返回一个新的future，调用方取消时不影响其他等待方
+            return loadingFuture.thenApply(result -> (T) result);
+        }
+
+        long start = System.currentTimeMillis();
+        loadAsync(key, asyncLoader)
+                .thenCompose(value -> {
+                    recordLoadTime(System.currentTimeMillis() - start);
+                    return putValueAsync(redisCacheKey, value);
+                })
+                .whenComplete((result, e) -> {
+                    LOADING_FUTURES.remove(key, future);
+                    if (e != null) {
+                        future.completeExceptionally(FutureUtils.unwrap(e));
+                        return;
+                    }
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("redis缓存 key={} 异步执行被缓存的方法，并将其放入缓存。数据:{}", key, JsonUtils.toJson(result));
+                    }
+                    future.complete(fromStoreValue(result));
+                    // 只唤醒本节点的等待线程，发布通知是阻塞的redis命令，不能在lettuce的IO线程上执行
+                    container.signalAll(key);
+                });
+        return future.thenApply(result -> (T) result);
+    }
+
+    /**
+     * 异步获取并反序列化缓存值
+     */
+    private CompletableFuture<Object> getValueAsync(RedisCacheKey redisCacheKey) {
+        return asyncOperations.get(redisCacheKey.getKeyBytes())
+                .thenApply(bytes -> bytes == null ? null : redisTemplate.getValueSerializer().deserialize(bytes));
+    }
+
+    /**
+     * 等待本地其他线程的加载结果，加载异常时抛出同样的异常；
+     * 最多等待 RETRY_COUNT * WAIT_TIME 毫秒，加载线程长时间没有返回时自己去执行 {@link #executeCacheMethod}
+     */
+    private <T> Object awaitLoading(RedisCacheKey redisCacheKey, CompletableFuture<Object> loadingFuture, Callable<T> valueLoader) {
+        String key = redisCacheKey.getKey();
+        try {
+            return loadingFuture.get(RETRY_COUNT * WAIT_TIME, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.debug("redis缓存 key= {} 等待本地其他线程加载数据超时，自己去加载数据", key);
+            return executeCacheMethod(redisCacheKey, valueLoader);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new LoaderCacheValueException(key, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoaderCacheValueException(key, e);
+        }
+    }
+
+    /**
+     * 同一个线程循环4次查询缓存，每次最多等待100毫秒，拿到锁的节点加载完数据后会通知所有等待线程，
+     * 如果还是没有数据直接去执行被缓存的方法
      */
     private <T> T executeCacheMethod(RedisCacheKey redisCacheKey, Callable<T> valueLoader) {
-        Lock redisLock = new Lock(redisTemplate, redisCacheKey.getKey() + "_sync_lock");
-        // 同一个线程循环20次查询缓存，每次等待20毫秒，如果还是没有数据直接去执行被缓存的方法
+        String key = redisCacheKey.getKey();
+        Lock redisLock = new Lock(redisTemplate, key + SYNC_LOCK_SUFFIX);
         for (int i = 0; i < RETRY_COUNT; i++) {
+            boolean locked = false;
             try {
+                // 先登记等待线程再查缓存，查询缓存之后、开始等待之前收到的加载完成通知不会丢失
+                container.register(key);
                 // 先取缓存，如果有直接返回，没有再去做拿锁操作
-                Object result = redisTemplate.opsForValue().get(redisCacheKey.getKey());
+                Object result = redisTemplate.opsForValue().get(key);
                 if (result != null) {
-                    logger.debug("redis缓存 key= {} 获取到锁后查询查询缓存命中，不需要执行被缓存的方法", redisCacheKey.getKey());
+                    logger.debug("redis缓存 key= {} 获取到锁后查询查询缓存命中，不需要执行被缓存的方法", key);
+                    container.unregister(key);
                     return (T) fromStoreValue(result);
                 }
 
                 // 获取分布式锁去后台查询数据
                 if (redisLock.lock()) {
+                    locked = true;
+                    container.unregister(key);
                     T t = loaderAndPutValue(redisCacheKey, valueLoader, true);
-                    logger.debug("redis缓存 key= {} 从数据库获取数据完毕，唤醒所有等待线程", redisCacheKey.getKey());
+                    logger.debug("redis缓存 key= {} 从数据库获取数据完毕，唤醒所有等待线程", key);
                     // 唤醒线程
-                    container.signalAll(redisCacheKey.getKey());
+                    signalLoaded(key);
                     return t;
                 }
                 // 线程等待
-                logger.debug("redis缓存 key= {} 从数据库获取数据未获取到锁，进入等待状态，等待{}毫秒", redisCacheKey.getKey(), WAIT_TIME);
-                container.await(redisCacheKey.getKey(), WAIT_TIME);
+                logger.debug("redis缓存 key= {} 从数据库获取数据未获取到锁，进入等待状态，最多等待{}毫秒", key, WAIT_TIME);
+                markWaiting(key);
+                container.await(key, WAIT_TIME);
             } catch (Exception e) {
-                container.signalAll(redisCacheKey.getKey());
-                throw new LoaderCacheValueException(redisCacheKey.getKey(), e);
+                // 拿到锁的线程加载失败时唤醒等待线程重新竞争锁，没有拿到锁的线程没有加载数据，不能唤醒其他线程
+                if (locked) {
+                    signalLoaded(key);
+                } else {
+                    container.unregister(key);
+                }
+                throw new LoaderCacheValueException(key, e);
             } finally {
                 redisLock.unlock();
             }
         }
-        logger.debug("redis缓存 key={} 等待{}次，共{}毫秒，任未获取到缓存，直接去执行被缓存的方法", redisCacheKey.getKey(), RETRY_COUNT, RETRY_COUNT * WAIT_TIME, WAIT_TIME);
+        logger.debug("redis缓存 key={} 等待{}次，共{}毫秒，任未获取到缓存，直接去执行被缓存的方法", redisCacheKey.getKey(), RETRY_COUNT, RETRY_COUNT * WAIT_TIME);
         return loaderAndPutValue(redisCacheKey, valueLoader, true);
     }
 
+    /**
+     * 登记有线程在等待加载结果，标记在最长等待时间后过期
+     */
+    private void markWaiting(String key) {
+        if (loadedTopic == null) {
+            return;
+        }
+        try {
+            byte[] waitingKey = (key + SYNC_WAITING_SUFFIX).getBytes(StandardCharsets.UTF_8);
+            redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    connection.pSetEx(waitingKey, RETRY_COUNT * WAIT_TIME, new byte[]{'1'}));
+        } catch (Exception e) {
+            // 标记失败时只能等待超时后重试
+            logger.warn("redis缓存 key={} 登记等待加载结果异常：{}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 唤醒本节点等待加载结果的线程，有等待标记时再通知其他节点，没有竞争的加载不发布通知
+     */
+    private void signalLoaded(String key) {
+        container.signalAll(key);
+        if (loadedTopic == null) {
+            return;
+        }
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.delete(key + SYNC_WAITING_SUFFIX))) {
+                RedisPublisher.publisher(redisTemplate, loadedTopic, key.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (Exception e) {
+            logger.warn("redis缓存 key={} 发布加载完成通知异常：{}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 收到加载完成通知，唤醒本节点所有等待这个key的线程
+     *
+     * @param key redis key
+     */
+    public static void onLoaded(String key) {
+        container.signalAll(key);
+    }
+
     /**
      * 加载并将数据放到redis缓存
      */
@@ -253,8 +695,12 @@ public class RedisCache extends AbstractValueAdaptingCache {
 
         try {
             // 加载数据
-            Object result = putValue(key, valueLoader.call());
-            logger.debug("redis缓存 key={} 执行被缓存的方法，并将其放入缓存, 耗时：{}。数据:{}", key.getKey(), System.currentTimeMillis() - start, JsonUtils.toJson(result));
+            T value = valueLoader.call();
+            recordLoadTime(System.currentTimeMillis() - start);
+            Object result = putValue(key, value);
+            if (logger.isDebugEnabled()) {
+                logger.debug("redis缓存 key={} 执行被缓存的方法，并将其放入缓存, 耗时：{}。数据:{}", key.getKey(), System.currentTimeMillis() - start, JsonUtils.toJson(result));
+            }
 
             if (isLoad && isStats()) {
                 getCacheStats().addCachedMethodRequestTime(System.currentTimeMillis() - start);
@@ -266,52 +712,242 @@ public class RedisCache extends AbstractValueAdaptingCache {
     }
 
     private Object putValue(RedisCacheKey key, Object value) {
+        Object result = putValue(redisTemplate, key, value);
+        if (result != null && !(result instanceof NullValue)) {
+            putBloomFilter(key);
+        }
+        return result;
+    }
+
+    /**
+     * 使用指定的redis操作对象将数据放到缓存，pipeline模式下传入pipeline中的操作对象
+     */
+    private Object putValue(RedisOperations<String, Object> operations, RedisCacheKey key, Object value) {
         Object result = toStoreValue(value);
         // redis 缓存不允许直接存NULL，如果结果返回NULL需要删除缓存
         if (result == null) {
-            redisTemplate.delete(key.getKey());
+            operations.delete(key.getKey());
             return result;
         }
         // 不允许缓存NULL值，删除缓存
         if (!isAllowNullValues() && result instanceof NullValue) {
-            redisTemplate.delete(key.getKey());
+            operations.delete(key.getKey());
             return result;
         }
 
-        // 允许缓存NULL值
-        long expirationTime = this.expiration;
-        // 允许缓存NULL值且缓存为值为null时需要重新计算缓存时间
-        if (isAllowNullValues() && result instanceof NullValue) {
-            expirationTime = expirationTime / getMagnification();
-        }
         // 将数据放到缓存
-        redisTemplate.opsForValue().set(key.getKey(), result, expirationTime, TimeUnit.MILLISECONDS);
+        operations.opsForValue().set(key.getKey(), result, getExpirationTime(result), TimeUnit.MILLISECONDS);
         return result;
     }
 
+    /**
+     * 异步将数据放到缓存，规则和 {@link #putValue(RedisOperations, RedisCacheKey, Object)} 一致
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Object> putValueAsync(RedisCacheKey key, Object value) {
+        Object result = toStoreValue(value);
+        // redis 缓存不允许直接存NULL，不允许缓存NULL值时也需要删除缓存
+        if (result == null || (!isAllowNullValues() && result instanceof NullValue)) {
+            return asyncOperations.delete(key.getKeyBytes()).thenApply(v -> result);
+        }
+
+        byte[] bytes;
+        try {
+            bytes = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(result);
+            // 先添加到布隆过滤器，redis布隆过滤器是阻塞命令，不能放到lettuce的IO线程上执行
+            putBloomFilter(key);
+        } catch (RuntimeException e) {
+            return FutureUtils.failedFuture(e);
+        }
+        return asyncOperations.set(key.getKeyBytes(), bytes, getExpirationTime(result)).thenApply(v -> result);
+    }
+
+    /**
+     * 获取缓存的有效时间，开启随机抖动时加上随机的抖动时间，允许缓存NULL值且缓存值为null时需要除以倍率
+     *
+     * @param storeValue 缓存值
+     * @return 有效时间，单位毫秒
+     */
+    private long getExpirationTime(Object storeValue) {
+        long expirationTime = getJitteredExpiration();
+        if (isAllowNullValues() && storeValue instanceof NullValue) {
+            expirationTime = expirationTime / getMagnification();
+        }
+        return expirationTime;
+    }
+
+    /**
+     * 布隆过滤器判断key一定不存在
+     *
+     * @param redisCacheKey {@link RedisCacheKey}
+     * @return true表示key一定不存在，redis没有命中时不需要再执行被缓存的方法
+     */
+    private boolean isFilteredOut(RedisCacheKey redisCacheKey) {
+        BloomFilter filter = this.bloomFilter;
+        if (filter == null) {
+            return false;
+        }
+        try {
+            if (!filter.mightContain(redisCacheKey.getKeyBytes())) {
+                logger.debug("redis缓存 key={} 布隆过滤器判断key不存在，直接返回NULL", redisCacheKey.getKey());
+                return true;
+            }
+        } catch (Exception e) {
+            // 过滤器异常时不过滤，按正常流程查询
+            logger.warn("redis缓存 key={} 查询布隆过滤器失败：{}", redisCacheKey.getKey(), e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * 异步判断key一定不存在，redis布隆过滤器是阻塞命令，不能放到lettuce的IO线程上执行
+     */
+    private CompletableFuture<Boolean> isFilteredOutAsync(RedisCacheKey redisCacheKey) {
+        BloomFilter filter = this.bloomFilter;
+        if (filter == null || filter.isLocal()) {
+            return CompletableFuture.completedFuture(isFilteredOut(redisCacheKey));
+        }
+        return CompletableFuture.supplyAsync(() -> isFilteredOut(redisCacheKey));
+    }
+
+    private void putBloomFilter(RedisCacheKey redisCacheKey) {
+        BloomFilter filter = this.bloomFilter;
+        if (filter != null) {
+            filter.put(redisCacheKey.getKeyBytes());
+        }
+    }
+
+    /**
+     * redis命中的key一定存在，本地布隆过滤器看不到其他节点添加的key，需要补充到本地过滤器；
+     * redis布隆过滤器所有节点共用，不需要再多一次网络往返
+     */
+    private void learnBloomFilter(RedisCacheKey redisCacheKey) {
+        BloomFilter filter = this.bloomFilter;
+        if (filter != null && filter.isLocal()) {
+            filter.put(redisCacheKey.getKeyBytes());
+        }
+    }
+
+    /**
+     * 其他节点写入或删除了key（收到删除一级缓存的消息），补充到本地布隆过滤器；
+     * redis布隆过滤器由写入的节点直接添加，不需要补充
+     *
+     * @param key 缓存key
+     */
+    public void learnBloomFilter(Object key) {
+        BloomFilter filter = this.bloomFilter;
+        if (filter != null && filter.isLocal()) {
+            filter.put(getRedisCacheKey(key).getKeyBytes());
+        }
+    }
+
+    /**
+     * 其他节点写入或删除了key（收到redis客户端缓存的失效消息），补充到本地布隆过滤器
+     *
+     * @param redisKey 完整的redis key
+     */
+    public void learnBloomFilterRedisKey(String redisKey) {
+        BloomFilter filter = this.bloomFilter;
+        if (filter != null && filter.isLocal()) {
+            filter.put(redisKey.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 使用所有存在的缓存key重建布隆过滤器，没有开启布隆过滤器时不做任何操作
+     *
+     * @param keySource 所有存在的缓存key（没有序列化的原始key）的来源，一般从数据库查询所有的ID
+     */
+    public void rebuildBloomFilter(Supplier<? extends Collection<?>> keySource) {
+        BloomFilter filter = this.bloomFilter;
+        if (filter == null) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        boolean rebuilt = filter.rebuild(() -> {
+            Collection<?> keys = keySource.get();
+            List<byte[]> keyBytes = new ArrayList<>(keys == null ? 0 : keys.size());
+            if (keys != null) {
+                for (Object key : keys) {
+                    keyBytes.add(getRedisCacheKey(key).getKeyBytes());
+                }
+            }
+            return keyBytes;
+        });
+        if (rebuilt) {
+            logger.info("redis缓存 {} 重建布隆过滤器完成，耗时：{}", getName(), System.currentTimeMillis() - start);
+        } else {
+            logger.info("redis缓存 {} 其他节点正在重建布隆过滤器，跳过本次重建", getName());
+        }
+    }
+
+    public BloomFilter getBloomFilter() {
+        return bloomFilter;
+    }
+
+    /**
+     * 获取加上随机抖动时间的缓存有效时间，避免同时写入的缓存同时失效
+     *
+     * @return 有效时间，单位毫秒
+     */
+    private long getJitteredExpiration() {
+        if (expireJitter <= 0) {
+            return this.expiration;
+        }
+        return this.expiration + ThreadLocalRandom.current().nextLong(expireJitter + 1);
+    }
+
     /**
      * 刷新缓存数据
+     *
+     * @param redisCacheKey {@link RedisCacheKey}
+     * @param valueLoader   数据加载器
+     * @param result        缓存值
+     * @param ttl           缓存剩余有效时间，单位毫秒
      */
-    private <T> void refreshCache(RedisCacheKey redisCacheKey, Callable<T> valueLoader, Object result) {
-        Long ttl = redisTemplate.getExpire(redisCacheKey.getKey());
-        Long preload = preloadTime;
+    private <T> void refreshCache(RedisCacheKey redisCacheKey, Callable<T> valueLoader, Object result, long ttl) {
+        // 本节点还没有加载过数据时不知道加载耗时，使用固定的预刷新时间，否则只读缓存的节点永远不会提前刷新
+        long preload = earlyRefreshBeta > 0 && loadTime > 0 ? getEarlyRefreshTime() : preloadTime;
         // 允许缓存NULL值，则自动刷新时间也要除以倍数
         boolean flag = isAllowNullValues() && (result instanceof NullValue || result == null);
         if (flag) {
             preload = preload / getMagnification();
         }
-        if (null != ttl && ttl > 0 && TimeUnit.SECONDS.toMillis(ttl) <= preload) {
+        if (ttl > 0 && ttl <= preload) {
             // 判断是否需要强制刷新在开启刷新线程
             if (!getForceRefresh()) {
                 logger.debug("redis缓存 key={} 软刷新缓存模式", redisCacheKey.getKey());
                 softRefresh(redisCacheKey);
             } else {
                 logger.debug("redis缓存 key={} 强刷新缓存模式", redisCacheKey.getKey());
-                forceRefresh(redisCacheKey, valueLoader);
+                forceRefresh(redisCacheKey, valueLoader, preload);
             }
         }
     }
 
+    /**
+     * 概率提前刷新（XFetch）：每次查询随机生成一个提前刷新时间 loadTime * beta * -ln(random)，
+     * 缓存剩余有效时间小于这个时间就刷新。越接近过期刷新的概率越大，各节点的刷新时间随机分散开
+     *
+     * @return 提前刷新时间，单位毫秒
+     */
+    private long getEarlyRefreshTime() {
+        // 加载耗时不足1毫秒时按1毫秒计算
+        long delta = Math.max(loadTime, 1);
+        double random = ThreadLocalRandom.current().nextDouble();
+        return (long) (delta * earlyRefreshBeta * -Math.log(random));
+    }
+
+    /**
+     * 记录加载数据的耗时，使用指数加权平均，最近的耗时权重是1/8
+     *
+     * @param time 耗时，单位毫秒
+     */
+    private void recordLoadTime(long time) {
+        long average = loadTime;
+        loadTime = average == 0 ? time : average + (time - average) / 8;
+    }
+
     /**
      * 软刷新，直接修改缓存时间
      *
@@ -319,10 +955,10 @@ public class RedisCache extends AbstractValueAdaptingCache {
      */
     private void softRefresh(RedisCacheKey redisCacheKey) {
         // 加一个分布式锁，只放一个请求去刷新缓存
-        Lock redisLock = new Lock(redisTemplate, redisCacheKey.getKey() + "_lock");
+        Lock redisLock = new Lock(redisTemplate, redisCacheKey.getKey() + REFRESH_LOCK_SUFFIX);
         try {
             if (redisLock.tryLock()) {
-                redisTemplate.expire(redisCacheKey.getKey(), this.expiration, TimeUnit.MILLISECONDS);
+                redisTemplate.expire(redisCacheKey.getKey(), getJitteredExpiration(), TimeUnit.MILLISECONDS);
             }
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
@@ -336,17 +972,18 @@ public class RedisCache extends AbstractValueAdaptingCache {
      *
      * @param redisCacheKey {@link RedisCacheKey}
      * @param valueLoader   数据加载器
+     * @param preload       触发刷新的剩余有效时间，单位毫秒
      */
-    private <T> void forceRefresh(RedisCacheKey redisCacheKey, Callable<T> valueLoader) {
+    private <T> void forceRefresh(RedisCacheKey redisCacheKey, Callable<T> valueLoader, long preload) {
         // 尽量少的去开启线程，因为线程池是有限的
-        ThreadTaskUtils.run(() -> {
+        ThreadTaskUtils.run(getName(), () -> {
             // 加一个分布式锁，只放一个请求去刷新缓存
-            Lock redisLock = new Lock(redisTemplate, redisCacheKey.getKey() + "_lock");
+            Lock redisLock = new Lock(redisTemplate, redisCacheKey.getKey() + REFRESH_LOCK_SUFFIX);
             try {
                 if (redisLock.lock()) {
                     // 获取锁之后再判断一下过期时间，看是否需要加载数据
-                    Long ttl = redisTemplate.getExpire(redisCacheKey.getKey());
-                    if (null != ttl && ttl > 0 && TimeUnit.SECONDS.toMillis(ttl) <= preloadTime) {
+                    Long ttl = redisTemplate.getExpire(redisCacheKey.getKey(), TimeUnit.MILLISECONDS);
+                    if (null != ttl && ttl > 0 && ttl <= preload) {
                         // 加载数据并放到缓存
                         loaderAndPutValue(redisCacheKey, valueLoader, false);
                     }
@@ -368,6 +1005,24 @@ public class RedisCache extends AbstractValueAdaptingCache {
         return forceRefresh;
     }
 
+    /**
+     * 设置加载完成通知的频道，拿到锁的节点加载完数据后通过该频道唤醒其他节点等待的线程
+     *
+     * @param loadedTopic 频道，为NULL表示不通知其他节点
+     */
+    public void setLoadedTopic(ChannelTopic loadedTopic) {
+        this.loadedTopic = loadedTopic;
+    }
+
+    /**
+     * 是否使用缓存名称作为key的前缀
+     *
+     * @return boolean
+     */
+    public boolean isUsePrefix() {
+        return usePrefix;
+    }
+
     /**
      * 非空值和null值之间的时间倍率，默认是1。
      *
@@ -381,4 +1036,41 @@ public class RedisCache extends AbstractValueAdaptingCache {
     public boolean isAllowNullValues() {
         return allowNullValues;
     }
+
+    /**
+     * 缓存值和剩余有效时间的包装类
+     */
+    private static final class ValueWrapper {
+        /**
+         * 缓存值
+         */
+        private final Object value;
+
+        /**
+         * 剩余有效时间，单位毫秒
+         */
+        private final long ttl;
+
+        ValueWrapper(Object value, long ttl) {
+            this.value = value;
+            this.ttl = ttl;
+        }
+
+        Object getValue() {
+            return value;
+        }
+
+        long getTtl() {
+            return ttl;
+        }
+
+        /**
+         * key是否存在
+         *
+         * @return boolean
+         */
+        boolean isExists() {
+            return ttl != TTL_KEY_NOT_EXISTS;
+        }
+    }
 }
@@ -5,10 +5,12 @@ import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 /**
  * redis key 生成
+ * <p>序列化后的key和key字符串只生成一次，同一次请求中的多次redis操作复用同一个对象</p>
  *
  * @author yuhao.wang3
  */
@@ -17,7 +19,7 @@ public class RedisCacheKey {
     /**
      * 前缀序列化器
      */
-    private final RedisSerializer prefixSerializer1 = new StringRedisSerializer();
+    private static final RedisSerializer prefixSerializer1 = new StringRedisSerializer();
 
     /**
      * 缓存key
@@ -39,6 +41,21 @@ public class RedisCacheKey {
      */
     private final RedisSerializer serializer;
 
+    /**
+     * 预先计算好的缓存前缀，为NULL时根据缓存名称计算
+     */
+    private byte[] prefix;
+
+    /**
+     * 序列化后的key
+     */
+    private byte[] keyBytes;
+
+    /**
+     * key字符串
+     */
+    private String key;
+
     /**
      * @param keyElement 缓存key
      * @param serializer RedisSerializer
@@ -51,14 +68,26 @@ public class RedisCacheKey {
         this.serializer = serializer;
     }
 
+    /**
+     * @param keyElement 缓存key
+     * @param serializer RedisSerializer
+     * @param prefix     预先计算好的缓存前缀
+     */
+    public RedisCacheKey(Object keyElement, RedisSerializer serializer, byte[] prefix) {
+        this(keyElement, serializer);
+        this.prefix = prefix;
+    }
+
     /**
      * 获取缓存key
      *
      * @return String
      */
     public String getKey() {
-
-        return new String(getKeyBytes());
+        if (key == null) {
+            key = new String(getKeyBytes(), StandardCharsets.UTF_8);
+        }
+        return key;
     }
 
     /**
@@ -67,16 +96,21 @@ public class RedisCacheKey {
      * @return byte[]
      */
     public byte[] getKeyBytes() {
+        if (keyBytes != null) {
+            return keyBytes;
+        }
 
         byte[] rawKey = serializeKeyElement();
         if (!usePrefix) {
-            return rawKey;
+            keyBytes = rawKey;
+            return keyBytes;
         }
         byte[] prefix = getPrefix();
         byte[] prefixedKey = Arrays.copyOf(prefix, prefix.length + rawKey.length);
         System.arraycopy(rawKey, 0, prefixedKey, prefix.length, rawKey.length);
 
-        return prefixedKey;
+        keyBytes = prefixedKey;
+        return keyBytes;
     }
 
     private byte[] serializeKeyElement() {
@@ -94,6 +128,19 @@ public class RedisCacheKey {
      * @return byte[]
      */
     public byte[] getPrefix() {
+        if (prefix != null) {
+            return prefix;
+        }
+        return serializePrefix(cacheName);
+    }
+
+    /**
+     * 序列化缓存前缀，同一个缓存的前缀不变，可以预先计算好
+     *
+     * @param cacheName 缓存名称
+     * @return byte[]
+     */
+    public static byte[] serializePrefix(String cacheName) {
         return prefixSerializer1.serialize((StringUtils.isEmpty(cacheName) ? cacheName.concat(":") : cacheName.concat(":")));
     }
 
@@ -105,6 +152,8 @@ public class RedisCacheKey {
      */
     public RedisCacheKey cacheName(String cacheName) {
         this.cacheName = cacheName;
+        this.prefix = null;
+        reset();
         return this;
     }
 
@@ -116,7 +165,13 @@ public class RedisCacheKey {
      */
     public RedisCacheKey usePrefix(boolean usePrefix) {
         this.usePrefix = usePrefix;
+        reset();
         return this;
     }
 
+    private void reset() {
+        this.keyBytes = null;
+        this.key = null;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.github.xiaolyuh.listener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量发布删除一级缓存的消息
+ * <p>删除消息先按缓存名称缓冲并对key去重，每隔一段时间将同一个缓存名称下的所有key合并成一条消息发布，
+ * 避免大量写操作时每次写都发布一条消息</p>
+ *
+ * @author yuhao.wang3
+ */
+public class BatchRedisPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(BatchRedisPublisher.class);
+
+    /**
+     * 一条消息中最多包含的key数量
+     */
+    private static final int MAX_KEYS_PER_MESSAGE = 1000;
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger(1);
+    private static final String PREFIX = "layering-cache-publisher";
+
+    /**
+     * 定时发布消息的线程池
+     */
+    private static ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r);
+        int seq = SEQUENCE.getAndIncrement();
+        thread.setName(PREFIX + (seq > 1 ? "-" + seq : ""));
+        if (!thread.isDaemon()) {
+            thread.setDaemon(true);
+        }
+        return thread;
+    });
+
+    /**
+     * 待发布的删除消息，key是缓存名称，value是需要删除的缓存key
+     */
+    private final ConcurrentMap<String, Set<Object>> evictKeys = new ConcurrentHashMap<>(16);
+
+    /**
+     * 消息发布者
+     */
+    private final RedisMessagePublisher messagePublisher;
+
+    /**
+     * 发布消息的时间间隔，单位毫秒
+     */
+    private final long interval;
+
+    private ScheduledFuture<?> scheduledFuture;
+
+    /**
+     * @param messagePublisher 消息发布者
+     * @param interval         发布消息的时间间隔，单位毫秒
+     */
+    public BatchRedisPublisher(RedisMessagePublisher messagePublisher, long interval) {
+        this.messagePublisher = messagePublisher;
+        this.interval = interval;
+    }
+
+    /**
+     * 开启定时发布消息
+     */
+    public synchronized void start() {
+        if (scheduledFuture == null) {
+            scheduledFuture = executorService.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 添加一条删除一级缓存的消息，消息不会马上发布
+     *
+     * @param cacheName 缓存名称
+     * @param key       缓存key
+     */
+    public void evict(String cacheName, Object key) {
+        // 只在compute中修改key集合，保证和flush中的remove互斥，不会丢失key
+        evictKeys.compute(cacheName, (name, keys) -> {
+            Set<Object> result = keys == null ? new LinkedHashSet<>() : keys;
+            result.add(key);
+            return result;
+        });
+    }
+
+    /**
+     * 清空一级缓存，清空消息马上发布，并丢弃该缓存名称下还未发布的删除消息
+     *
+     * @param cacheName 缓存名称
+     */
+    public void clear(String cacheName) {
+        evictKeys.remove(cacheName);
+        RedisPubSubMessage message = new RedisPubSubMessage();
+        message.setCacheName(cacheName);
+        message.setMessageType(RedisPubSubMessageType.CLEAR);
+        messagePublisher.publish(message);
+    }
+
+    /**
+     * 发布所有缓冲的删除消息
+     */
+    public void flush() {
+        for (String cacheName : evictKeys.keySet()) {
+            Set<Object> keys = evictKeys.remove(cacheName);
+            if (keys == null || keys.isEmpty()) {
+                continue;
+            }
+
+            try {
+                List<Object> batch = new ArrayList<>(Math.min(keys.size(), MAX_KEYS_PER_MESSAGE));
+                for (Object key : keys) {
+                    batch.add(key);
+                    if (batch.size() >= MAX_KEYS_PER_MESSAGE) {
+                        publish(cacheName, batch);
+                        batch = new ArrayList<>(MAX_KEYS_PER_MESSAGE);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    publish(cacheName, batch);
+                }
+            } catch (Exception e) {
+                logger.error("批量发布删除一级缓存{}的消息异常：{}", cacheName, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 发布剩余的消息并停止定时任务
+     */
+    public synchronized void destroy() {
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+            scheduledFuture = null;
+        }
+        flush();
+    }
+
+    private void publish(String cacheName, List<Object> keys) {
+        RedisPubSubMessage message = new RedisPubSubMessage();
+        message.setCacheName(cacheName);
+        message.setKeys(keys);
+        message.setMessageType(RedisPubSubMessageType.EVICT);
+        messagePublisher.publish(message);
+        logger.debug("批量发布删除一级缓存{}的消息，key数量={}", cacheName, keys.size());
+    }
+}
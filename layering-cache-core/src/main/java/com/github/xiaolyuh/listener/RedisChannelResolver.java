@@ -0,0 +1,86 @@
+package com.github.xiaolyuh.listener;
+
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 根据缓存名称获取删除一级缓存消息的频道
+ * <p>默认每个缓存名称一个频道；配置了频道分片数后，同一个命名空间下的所有缓存名称共用固定数量的频道，
+ * 缓存名称通过消息内容传递</p>
+ *
+ * @author yuhao.wang3
+ */
+public class RedisChannelResolver {
+
+    /**
+     * 共享频道前缀
+     */
+    private static final String CHANNEL_PREFIX = "layering-cache:channel:";
+
+    /**
+     * 共享频道，为空表示每个缓存名称一个频道
+     */
+    private final List<ChannelTopic> channelTopics;
+
+    /**
+     * 每个缓存名称一个频道
+     */
+    public RedisChannelResolver() {
+        this.channelTopics = Collections.emptyList();
+    }
+
+    /**
+     * 同一个命名空间下的缓存名称共用频道
+     *
+     * @param namespace 命名空间
+     * @param shards    频道分片数
+     */
+    public RedisChannelResolver(String namespace, int shards) {
+        Assert.hasText(namespace, "命名空间不能为空");
+        Assert.isTrue(shards > 0, "频道分片数必须大于0");
+        List<ChannelTopic> topics = new ArrayList<>(shards);
+        if (shards == 1) {
+            topics.add(new ChannelTopic(CHANNEL_PREFIX + namespace));
+        } else {
+            for (int i = 0; i < shards; i++) {
+                topics.add(new ChannelTopic(CHANNEL_PREFIX + namespace + ":" + i));
+            }
+        }
+        this.channelTopics = Collections.unmodifiableList(topics);
+    }
+
+    /**
+     * 是否是共享频道模式
+     *
+     * @return boolean
+     */
+    public boolean isShared() {
+        return !channelTopics.isEmpty();
+    }
+
+    /**
+     * 获取缓存名称对应的频道
+     *
+     * @param cacheName 缓存名称
+     * @return {@link ChannelTopic}
+     */
+    public ChannelTopic getChannelTopic(String cacheName) {
+        if (!isShared()) {
+            return new ChannelTopic(cacheName);
+        }
+        return channelTopics.get(Math.floorMod(cacheName.hashCode(), channelTopics.size()));
+    }
+
+    /**
+     * 获取所有的共享频道
+     *
+     * @return 共享频道，非共享频道模式返回空集合
+     */
+    public List<ChannelTopic> getChannelTopics() {
+        return channelTopics;
+    }
+}
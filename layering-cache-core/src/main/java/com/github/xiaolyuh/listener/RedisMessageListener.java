@@ -8,8 +8,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
+import org.springframework.util.CollectionUtils;
 
 import java.util.Collection;
+import java.util.Map;
 
 /**
  * redis消息的订阅者
@@ -24,29 +26,51 @@ public class RedisMessageListener extends MessageListenerAdapter {
      */
     private AbstractCacheManager cacheManager;
 
+    /**
+     * 二进制消息的编解码器
+     */
+    private RedisPubSubMessageCodec codec;
+
     @Override
     public void onMessage(Message message, byte[] pattern) {
         super.onMessage(message, pattern);
-        // 解析订阅发布的信息，获取缓存的名称和缓存的key
-        RedisPubSubMessage redisPubSubMessage = (RedisPubSubMessage) cacheManager.getRedisTemplate()
-                .getValueSerializer().deserialize(message.getBody());
-        log.debug("redis消息订阅者接收到频道【{}】发布的消息。消息内容：{}", new String(message.getChannel()), JsonUtils.toJson(redisPubSubMessage));
+        // 解析订阅发布的信息，获取缓存的名称和缓存的key，兼容二进制编码和序列化器序列化的消息
+        byte[] body = message.getBody();
+        RedisPubSubMessage redisPubSubMessage = RedisPubSubMessageCodec.isBinary(body) ? codec.decode(body)
+                : (RedisPubSubMessage) cacheManager.getRedisTemplate().getValueSerializer().deserialize(body);
+        if (log.isDebugEnabled()) {
+            log.debug("redis消息订阅者接收到频道【{}】发布的消息。消息内容：{}", new String(message.getChannel()), JsonUtils.toJson(redisPubSubMessage));
+        }
+        onMessage(redisPubSubMessage);
+    }
 
+    /**
+     * 处理删除一级缓存的消息
+     *
+     * @param redisPubSubMessage {@link RedisPubSubMessage}
+     */
+    public void onMessage(RedisPubSubMessage redisPubSubMessage) {
         // 根据缓存名称获取多级缓存，可能有多个
         Collection<Cache> caches = cacheManager.getCache(redisPubSubMessage.getCacheName());
         for (Cache cache : caches) {
-            // 判断缓存是否是多级缓存
-            if (cache != null && cache instanceof LayeringCache) {
+            // 判断缓存是否是多级缓存，只使用二级缓存时可能有固定热点key的本地缓存需要删除
+            if (cache instanceof LayeringCache) {
                 switch (redisPubSubMessage.getMessageType()) {
                     case EVICT:
+                        // 批量删除消息
+                        if (!CollectionUtils.isEmpty(redisPubSubMessage.getKeys())) {
+                            ((LayeringCache) cache).evictLocal(redisPubSubMessage.getKeys());
+                            log.info("批量删除一级缓存{}数据,key数量={}", redisPubSubMessage.getCacheName(), redisPubSubMessage.getKeys().size());
+                            break;
+                        }
                         // 获取一级缓存，并删除一级缓存数据
-                        ((LayeringCache) cache).getFirstCache().evict(redisPubSubMessage.getKey());
+                        ((LayeringCache) cache).evictLocal(redisPubSubMessage.getKey());
                         log.info("删除一级缓存{}数据,key={}", redisPubSubMessage.getCacheName(), redisPubSubMessage.getKey());
                         break;
 
                     case CLEAR:
                         // 获取一级缓存，并删除一级缓存数据
-                        ((LayeringCache) cache).getFirstCache().clear();
+                        ((LayeringCache) cache).clearLocal();
                         log.info("清除一级缓存{}数据", redisPubSubMessage.getCacheName());
                         break;
 
@@ -59,7 +83,25 @@ public class RedisMessageListener extends MessageListenerAdapter {
         }
     }
 
+    /**
+     * 清空所有的一级缓存，在无法确认是否丢失了删除消息时使用
+     */
+    public void clearAllFirstCache() {
+        for (Map<String, Cache> cacheMap : cacheManager.getCacheContainer().values()) {
+            for (Cache cache : cacheMap.values()) {
+                if (cache instanceof LayeringCache) {
+                    ((LayeringCache) cache).clearLocal();
+                }
+            }
+        }
+        log.warn("清空所有的一级缓存数据");
+    }
+
     public void setCacheManager(AbstractCacheManager cacheManager) {
         this.cacheManager = cacheManager;
     }
+
+    public void setCodec(RedisPubSubMessageCodec codec) {
+        this.codec = codec;
+    }
 }
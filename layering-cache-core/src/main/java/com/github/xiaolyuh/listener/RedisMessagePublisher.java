@@ -0,0 +1,71 @@
+package com.github.xiaolyuh.listener;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+
+/**
+ * 删除一级缓存消息的发布者，根据缓存名称选择频道并编码消息
+ * <p>共享频道模式下使用二进制编码，否则使用redis的value序列化器序列化消息</p>
+ *
+ * @author yuhao.wang3
+ */
+public class RedisMessagePublisher {
+
+    /**
+     * redis 客户端
+     */
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 频道解析器
+     */
+    private final RedisChannelResolver channelResolver;
+
+    /**
+     * 二进制编解码器，为NULL表示不使用二进制编码
+     */
+    private final RedisPubSubMessageCodec codec;
+
+    /**
+     * 每个缓存名称一个频道，不使用二进制编码
+     *
+     * @param redisTemplate redis 客户端
+     */
+    public RedisMessagePublisher(RedisTemplate<String, Object> redisTemplate) {
+        this(redisTemplate, new RedisChannelResolver(), null);
+    }
+
+    /**
+     * @param redisTemplate   redis 客户端
+     * @param channelResolver 频道解析器
+     * @param codec           二进制编解码器，为NULL表示不使用二进制编码
+     */
+    public RedisMessagePublisher(RedisTemplate<String, Object> redisTemplate, RedisChannelResolver channelResolver,
+                                 RedisPubSubMessageCodec codec) {
+        this.redisTemplate = redisTemplate;
+        this.channelResolver = channelResolver;
+        this.codec = codec;
+    }
+
+    /**
+     * 发布消息
+     *
+     * @param message {@link RedisPubSubMessage}
+     */
+    public void publish(RedisPubSubMessage message) {
+        ChannelTopic channelTopic = channelResolver.getChannelTopic(message.getCacheName());
+        if (codec != null) {
+            RedisPublisher.publisher(redisTemplate, channelTopic, codec.encode(message));
+            return;
+        }
+        RedisPublisher.publisher(redisTemplate, channelTopic, message);
+    }
+
+    protected RedisTemplate<String, Object> getRedisTemplate() {
+        return redisTemplate;
+    }
+
+    protected RedisPubSubMessageCodec getCodec() {
+        return codec;
+    }
+}
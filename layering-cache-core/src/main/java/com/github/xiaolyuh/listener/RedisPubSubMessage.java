@@ -1,6 +1,9 @@
 package com.github.xiaolyuh.listener;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * redis pub/sub 消息
@@ -18,6 +21,12 @@ public class RedisPubSubMessage implements Serializable {
      */
     private Object key;
 
+    /**
+     * 缓存key集合，批量删除缓存时使用。为NULL时不序列化，兼容没有该字段的旧版本节点
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Object> keys;
+
     /**
      * 消息类型
      */
@@ -39,6 +48,14 @@ public class RedisPubSubMessage implements Serializable {
         this.key = key;
     }
 
+    public List<Object> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<Object> keys) {
+        this.keys = keys;
+    }
+
     public RedisPubSubMessageType getMessageType() {
         return messageType;
     }
@@ -0,0 +1,168 @@
+package com.github.xiaolyuh.listener;
+
+import com.github.xiaolyuh.support.SerializationException;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link RedisPubSubMessage} 的二进制编解码器
+ * <p>消息格式：魔数"LC" + 版本号 + 消息类型 + 缓存名称 + key数量 + key列表，
+ * String、Long和Integer类型的key直接编码，其他类型的key使用redis的value序列化器序列化</p>
+ *
+ * @author yuhao.wang3
+ */
+public class RedisPubSubMessageCodec {
+
+    private static final byte MAGIC_0 = 'L';
+    private static final byte MAGIC_1 = 'C';
+    private static final byte VERSION = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_LONG = 2;
+    private static final byte TAG_INTEGER = 3;
+    private static final byte TAG_SERIALIZED = 9;
+
+    /**
+     * 其他类型key的序列化器
+     */
+    private final RedisSerializer<Object> keySerializer;
+
+    /**
+     * @param keySerializer 其他类型key的序列化器
+     */
+    public RedisPubSubMessageCodec(RedisSerializer<Object> keySerializer) {
+        this.keySerializer = keySerializer;
+    }
+
+    /**
+     * 判断是否是二进制编码的消息
+     *
+     * @param body 消息体
+     * @return boolean
+     */
+    public static boolean isBinary(byte[] body) {
+        return body != null && body.length > 3 && body[0] == MAGIC_0 && body[1] == MAGIC_1;
+    }
+
+    /**
+     * 编码消息
+     *
+     * @param message {@link RedisPubSubMessage}
+     * @return 二进制消息
+     */
+    public byte[] encode(RedisPubSubMessage message) {
+        Collection<Object> keys = message.getKeys();
+        if (keys == null) {
+            keys = message.getMessageType() == RedisPubSubMessageType.CLEAR
+                    ? Collections.emptyList() : Collections.singletonList(message.getKey());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC_0);
+            out.writeByte(MAGIC_1);
+            out.writeByte(VERSION);
+            out.writeByte(message.getMessageType().ordinal());
+            writeBytes(out, message.getCacheName().getBytes(StandardCharsets.UTF_8));
+            out.writeInt(keys.size());
+            for (Object key : keys) {
+                writeKey(out, key);
+            }
+        } catch (IOException e) {
+            throw new SerializationException("编码redis消息异常", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 解码消息
+     *
+     * @param body 二进制消息
+     * @return {@link RedisPubSubMessage}
+     */
+    public RedisPubSubMessage decode(byte[] body) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            in.readByte();
+            in.readByte();
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new SerializationException("不支持的redis消息版本：" + version);
+            }
+
+            RedisPubSubMessage message = new RedisPubSubMessage();
+            message.setMessageType(RedisPubSubMessageType.values()[in.readByte()]);
+            message.setCacheName(new String(readBytes(in), StandardCharsets.UTF_8));
+            int size = in.readInt();
+            if (size == 1) {
+                message.setKey(readKey(in));
+            } else if (size > 1) {
+                List<Object> keys = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    keys.add(readKey(in));
+                }
+                message.setKeys(keys);
+            }
+            return message;
+        } catch (IOException e) {
+            throw new SerializationException("解码redis消息异常", e);
+        }
+    }
+
+    private void writeKey(DataOutputStream out, Object key) throws IOException {
+        if (key == null) {
+            out.writeByte(TAG_NULL);
+        } else if (key instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeBytes(out, ((String) key).getBytes(StandardCharsets.UTF_8));
+        } else if (key instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) key);
+        } else if (key instanceof Integer) {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt((Integer) key);
+        } else {
+            out.writeByte(TAG_SERIALIZED);
+            writeBytes(out, keySerializer.serialize(key));
+        }
+    }
+
+    private Object readKey(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return new String(readBytes(in), StandardCharsets.UTF_8);
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_INTEGER:
+                return in.readInt();
+            case TAG_SERIALIZED:
+                return keySerializer.deserialize(readBytes(in));
+            default:
+                throw new SerializationException("不支持的redis消息key类型：" + tag);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -2,8 +2,10 @@ package com.github.xiaolyuh.listener;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 /**
  * redis消息的发布者
@@ -27,4 +29,17 @@ public class RedisPublisher {
         redisTemplate.convertAndSend(channelTopic.toString(), message);
         logger.debug("redis消息发布者向频道【{}】发布了【{}】消息", channelTopic.toString(), message.toString());
     }
+
+    /**
+     * 发布已经编码好的消息到频道（Channel），消息体不再经过序列化
+     *
+     * @param redisTemplate redis客户端
+     * @param channelTopic  发布预订阅的频道
+     * @param message       编码后的消息内容
+     */
+    public static void publisher(RedisTemplate<String, Object> redisTemplate, ChannelTopic channelTopic, byte[] message) {
+        byte[] rawChannel = RedisSerializer.string().serialize(channelTopic.getTopic());
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(rawChannel, message), true);
+        logger.debug("redis消息发布者向频道【{}】发布了{}字节的二进制消息", channelTopic.toString(), message.length);
+    }
 }
@@ -0,0 +1,221 @@
+package com.github.xiaolyuh.listener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于redis Stream的删除一级缓存消息订阅者
+ * <p>定时使用非阻塞的XREAD从本节点最后读取的消息ID开始拉取消息，连接断开期间的消息在连接恢复后会被重放。
+ * 如果本节点最后读取的消息已经被MAXLEN裁剪掉，说明可能丢失了消息，这时会清空所有的一级缓存</p>
+ *
+ * @author yuhao.wang3
+ */
+public class RedisStreamMessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(RedisStreamMessageListener.class);
+
+    /**
+     * 空Stream的起始消息ID
+     */
+    private static final String INITIAL_ID = "0-0";
+
+    /**
+     * 获取Stream中最新消息ID的lua脚本
+     */
+    private static final byte[] LAST_ID_SCRIPT = ("local last = redis.call('XREVRANGE', KEYS[1], '+', '-', 'COUNT', 1) "
+            + "if #last == 0 then return '" + INITIAL_ID + "' end return last[1][1]").getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 拉取消息的lua脚本，返回值是 [Stream中最早的消息, XREAD的结果]
+     */
+    private static final byte[] READ_SCRIPT = ("local first = redis.call('XRANGE', KEYS[1], '-', '+', 'COUNT', 1) "
+            + "local entries = redis.call('XREAD', 'COUNT', ARGV[2], 'STREAMS', KEYS[1], ARGV[1]) "
+            + "return {first, entries}").getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 每次拉取的最大消息数
+     */
+    private static final byte[] READ_COUNT = "1000".getBytes(StandardCharsets.UTF_8);
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger(1);
+    private static final String PREFIX = "layering-cache-stream";
+
+    /**
+     * 定时拉取消息的线程池
+     */
+    private static ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r);
+        int seq = SEQUENCE.getAndIncrement();
+        thread.setName(PREFIX + (seq > 1 ? "-" + seq : ""));
+        if (!thread.isDaemon()) {
+            thread.setDaemon(true);
+        }
+        return thread;
+    });
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 消息处理器
+     */
+    private final RedisMessageListener messageListener;
+
+    private final RedisPubSubMessageCodec codec;
+
+    /**
+     * Stream 的key
+     */
+    private final byte[] streamKey;
+
+    /**
+     * 拉取消息的时间间隔，单位毫秒
+     */
+    private final long pollInterval;
+
+    /**
+     * 本节点最后读取的消息ID
+     */
+    private volatile String lastId;
+
+    private ScheduledFuture<?> scheduledFuture;
+
+    /**
+     * @param redisTemplate   redis 客户端
+     * @param messageListener 消息处理器
+     * @param codec           二进制编解码器
+     * @param streamKey       Stream 的key
+     * @param pollInterval    拉取消息的时间间隔，单位毫秒
+     */
+    public RedisStreamMessageListener(RedisTemplate<String, Object> redisTemplate, RedisMessageListener messageListener,
+                                      RedisPubSubMessageCodec codec, String streamKey, long pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.messageListener = messageListener;
+        this.codec = codec;
+        this.streamKey = streamKey.getBytes(StandardCharsets.UTF_8);
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * 开启定时拉取消息，启动时一级缓存是空的，从Stream中最新的消息之后开始读取
+     */
+    public synchronized void start() {
+        if (scheduledFuture == null) {
+            try {
+                initLastId();
+            } catch (Exception e) {
+                logger.warn("获取Stream【{}】最新的消息ID异常，第一次拉取消息时重试：{}", new String(streamKey, StandardCharsets.UTF_8), e.getMessage());
+            }
+            scheduledFuture = executorService.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 停止定时拉取消息
+     */
+    public synchronized void destroy() {
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+            scheduledFuture = null;
+        }
+    }
+
+    /**
+     * 拉取并处理本节点最后读取的消息之后的所有消息，拉取失败时保留最后读取的消息ID，下次拉取时重放
+     */
+    @SuppressWarnings("unchecked")
+    public void poll() {
+        try {
+            if (lastId == null) {
+                initLastId();
+                return;
+            }
+
+            byte[] readId = lastId.getBytes(StandardCharsets.UTF_8);
+            List<Object> result = redisTemplate.execute((RedisCallback<List<Object>>) connection ->
+                    connection.eval(READ_SCRIPT, ReturnType.MULTI, 1, streamKey, readId, READ_COUNT), true);
+            if (result == null || result.isEmpty()) {
+                return;
+            }
+
+            // 最后读取的消息已经被裁剪掉，可能丢失了消息，清空所有的一级缓存
+            String firstId = getFirstId((List<Object>) result.get(0));
+            if (firstId != null && !INITIAL_ID.equals(lastId) && compareId(firstId, lastId) > 0) {
+                logger.warn("Stream【{}】中本节点最后读取的消息{}已经被裁剪，最早的消息是{}，可能丢失了删除一级缓存的消息",
+                        new String(streamKey, StandardCharsets.UTF_8), lastId, firstId);
+                messageListener.clearAllFirstCache();
+            }
+
+            if (result.size() > 1 && result.get(1) instanceof List) {
+                handleEntries((List<Object>) result.get(1));
+            }
+        } catch (Exception e) {
+            logger.warn("从Stream【{}】拉取删除一级缓存的消息异常，等待下次重试：{}", new String(streamKey, StandardCharsets.UTF_8), e.getMessage());
+        }
+    }
+
+    private void initLastId() {
+        byte[] id = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.eval(LAST_ID_SCRIPT, ReturnType.VALUE, 1, streamKey), true);
+        lastId = id == null ? INITIAL_ID : new String(id, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 处理XREAD的结果：[[stream, [[id, [field, value, ...]], ...]]]
+     */
+    @SuppressWarnings("unchecked")
+    private void handleEntries(List<Object> streams) {
+        for (Object stream : streams) {
+            List<Object> entries = (List<Object>) ((List<Object>) stream).get(1);
+            for (Object entry : entries) {
+                List<Object> idAndFields = (List<Object>) entry;
+                String id = new String((byte[]) idAndFields.get(0), StandardCharsets.UTF_8);
+                List<Object> fields = (List<Object>) idAndFields.get(1);
+                try {
+                    for (int i = 0; i + 1 < fields.size(); i += 2) {
+                        if (RedisStreamMessagePublisher.MESSAGE_FIELD.equals(new String((byte[]) fields.get(i), StandardCharsets.UTF_8))) {
+                            messageListener.onMessage(codec.decode((byte[]) fields.get(i + 1)));
+                        }
+                    }
+                } catch (Exception e) {
+                    logger.error("处理Stream消息{}异常：{}", id, e.getMessage(), e);
+                }
+                lastId = id;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String getFirstId(List<Object> first) {
+        if (first == null || first.isEmpty()) {
+            return null;
+        }
+        return new String((byte[]) ((List<Object>) first.get(0)).get(0), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 比较两个Stream消息ID（毫秒时间戳-序号）的大小
+     */
+    public static int compareId(String id1, String id2) {
+        int index1 = id1.indexOf('-');
+        int index2 = id2.indexOf('-');
+        int result = Long.compare(Long.parseLong(id1.substring(0, index1)), Long.parseLong(id2.substring(0, index2)));
+        if (result != 0) {
+            return result;
+        }
+        return Long.compare(Long.parseLong(id1.substring(index1 + 1)), Long.parseLong(id2.substring(index2 + 1)));
+    }
+
+    public String getLastId() {
+        return lastId;
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.xiaolyuh.listener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基于redis Stream的删除一级缓存消息发布者
+ * <p>消息使用二进制编码后通过XADD追加到命名空间对应的Stream中，并使用MAXLEN ~ 限制Stream的长度。
+ * 为了兼容不支持Stream命令的客户端，XADD通过lua脚本执行</p>
+ *
+ * @author yuhao.wang3
+ */
+public class RedisStreamMessagePublisher extends RedisMessagePublisher {
+    private static final Logger logger = LoggerFactory.getLogger(RedisStreamMessagePublisher.class);
+
+    /**
+     * Stream 中存放消息的字段名
+     */
+    static final String MESSAGE_FIELD = "m";
+
+    private static final byte[] XADD_SCRIPT = ("return redis.call('XADD', KEYS[1], 'MAXLEN', '~', ARGV[1], '*', '"
+            + MESSAGE_FIELD + "', ARGV[2])").getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Stream 的key
+     */
+    private final byte[] streamKey;
+
+    /**
+     * Stream 的最大长度
+     */
+    private final byte[] maxLen;
+
+    /**
+     * @param redisTemplate redis 客户端
+     * @param codec         二进制编解码器
+     * @param streamKey     Stream 的key
+     * @param maxLen        Stream 的最大长度
+     */
+    public RedisStreamMessagePublisher(RedisTemplate<String, Object> redisTemplate, RedisPubSubMessageCodec codec,
+                                       String streamKey, long maxLen) {
+        super(redisTemplate, new RedisChannelResolver(), codec);
+        this.streamKey = streamKey.getBytes(StandardCharsets.UTF_8);
+        this.maxLen = String.valueOf(maxLen).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void publish(RedisPubSubMessage message) {
+        byte[] body = getCodec().encode(message);
+        getRedisTemplate().execute((RedisCallback<Object>) connection ->
+                connection.eval(XADD_SCRIPT, ReturnType.VALUE, 1, streamKey, maxLen, body), true);
+        logger.debug("redis消息发布者向Stream【{}】追加了{}字节的消息", new String(streamKey, StandardCharsets.UTF_8), body.length);
+    }
+}
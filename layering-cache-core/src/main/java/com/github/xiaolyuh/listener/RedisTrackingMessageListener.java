@@ -0,0 +1,523 @@
+package com.github.xiaolyuh.listener;
+
+import com.github.xiaolyuh.cache.Cache;
+import com.github.xiaolyuh.cache.LayeringCache;
+import com.github.xiaolyuh.cache.redis.RedisCache;
+import com.github.xiaolyuh.manager.AbstractCacheManager;
+import com.github.xiaolyuh.support.Lock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于redis客户端缓存（CLIENT TRACKING BCAST）的删除一级缓存消息订阅者
+ * <p>使用一条独立的连接，以每个缓存名称作为前缀开启广播模式的key追踪，并把失效消息重定向到连接自身，
+ * 然后订阅 __redis__:invalidate 频道。redis服务端在key被修改（包括其他语言的客户端修改）时推送失效消息，
+ * 不需要应用层发布删除消息。</p>
+ * <p>RESP2协议下失效消息的内容是一个数组，lettuce 5.x和jedis 2.x的订阅都不能正确解析，所以这里直接使用socket读写RESP协议。
+ * 连接断开期间的失效消息会丢失，所以重新连接后会清空所有的一级缓存；新增缓存名称时会先建立新连接再关闭旧连接，不会丢失消息。</p>
+ * <p>追踪连接使用连接配置中的密码、ACL用户名和数据库，不支持SSL连接。</p>
+ *
+ * @author yuhao.wang3
+ */
+public class RedisTrackingMessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(RedisTrackingMessageListener.class);
+
+    /**
+     * 失效消息的频道
+     */
+    private static final String INVALIDATE_CHANNEL = "__redis__:invalidate";
+
+    private static final String THREAD_NAME = "layering-cache-tracking";
+
+    /**
+     * 缓存内部使用的key后缀，这些key也在缓存名称前缀下，加锁、解锁和等待标记不需要删除一级缓存。
+     * 按完整后缀匹配，业务key以 _lock 结尾时仍然会删除一级缓存
+     */
+    private static final String[] INTERNAL_KEY_SUFFIXES = {
+            RedisCache.SYNC_LOCK_SUFFIX + Lock.LOCK_SUFFIX,
+            RedisCache.REFRESH_LOCK_SUFFIX + Lock.LOCK_SUFFIX,
+            RedisCache.SYNC_WAITING_SUFFIX
+    };
+
+    /**
+     * 读超时时间，单位毫秒
+     */
+    private static final int READ_TIMEOUT = 1000;
+
+    /**
+     * 连接空闲多久发送一次PING，单位毫秒
+     */
+    private static final long PING_INTERVAL = 10000;
+
+    /**
+     * 连接空闲多久认为连接已经断开，单位毫秒
+     */
+    private static final long DEAD_INTERVAL = 30000;
+
+    /**
+     * 重新连接的时间间隔，单位毫秒
+     */
+    private static final long RECONNECT_INTERVAL = 1000;
+
+    /**
+     * 缓存管理器
+     */
+    private final AbstractCacheManager cacheManager;
+
+    /**
+     * 消息处理器
+     */
+    private final RedisMessageListener messageListener;
+
+    /**
+     * redis 连接配置
+     */
+    private final RedisStandaloneConfiguration configuration;
+
+    /**
+     * 需要追踪的key前缀
+     */
+    private final Set<String> prefixes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 新增的还没有开始追踪的缓存名称
+     */
+    private final Queue<String> pendingCacheNames = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 追踪的key前缀是否有变化
+     */
+    private volatile boolean prefixesChanged = false;
+
+    private volatile boolean running = false;
+
+    private volatile TrackingConnection connection;
+
+    private Thread thread;
+
+    /**
+     * @param cacheManager    缓存管理器
+     * @param messageListener 消息处理器
+     * @param configuration   redis 连接配置
+     */
+    public RedisTrackingMessageListener(AbstractCacheManager cacheManager, RedisMessageListener messageListener,
+                                        RedisStandaloneConfiguration configuration) {
+        this.cacheManager = cacheManager;
+        this.messageListener = messageListener;
+        this.configuration = configuration;
+    }
+
+    /**
+     * 建立连接并开始接收失效消息，redis不支持CLIENT TRACKING时抛出异常
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            connection = connect();
+        } catch (IOException e) {
+            throw new IllegalStateException("开启redis客户端缓存追踪失败：" + e.getMessage(), e);
+        }
+        running = true;
+        thread = new Thread(this::run, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 关闭连接
+     */
+    public synchronized void destroy() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        close(connection);
+        connection = null;
+    }
+
+    /**
+     * 追踪缓存名称对应的key前缀，会使用新的连接重新订阅
+     *
+     * @param cacheName 缓存名称
+     */
+    public void addCacheName(String cacheName) {
+        if (prefixes.add(cacheName + ":")) {
+            pendingCacheNames.add(cacheName);
+            prefixesChanged = true;
+        }
+    }
+
+    private void run() {
+        boolean lost = false;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = connect();
+                }
+                if (lost) {
+                    // 断开期间的失效消息已经丢失
+                    lost = false;
+                    messageListener.clearAllFirstCache();
+                }
+                if (prefixesChanged) {
+                    resubscribe();
+                }
+                read(connection);
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("redis客户端缓存追踪连接异常，{}毫秒后重新连接：{}", RECONNECT_INTERVAL, e.getMessage());
+                close(connection);
+                connection = null;
+                lost = true;
+                sleep(RECONNECT_INTERVAL);
+            }
+        }
+    }
+
+    /**
+     * 使用最新的key前缀建立新连接，订阅成功后再处理完旧连接上的消息并关闭旧连接。
+     * 新增的缓存名称在开始追踪之前可能已经写入了一级缓存，这些一级缓存需要清空
+     */
+    private void resubscribe() throws IOException {
+        prefixesChanged = false;
+        List<String> cacheNames = new ArrayList<>();
+        for (String cacheName = pendingCacheNames.poll(); cacheName != null; cacheName = pendingCacheNames.poll()) {
+            cacheNames.add(cacheName);
+        }
+        TrackingConnection newConnection = connect();
+        TrackingConnection oldConnection = connection;
+        connection = newConnection;
+        for (String cacheName : cacheNames) {
+            for (Cache cache : cacheManager.getCache(cacheName)) {
+                if (cache instanceof LayeringCache) {
+                    ((LayeringCache) cache).clearLocal();
+                }
+            }
+        }
+        try {
+            oldConnection.socket.setSoTimeout(100);
+            while (true) {
+                handle(oldConnection.read());
+            }
+        } catch (IOException e) {
+            // 旧连接上已经没有消息
+        } finally {
+            close(oldConnection);
+        }
+    }
+
+    /**
+     * 读取一条消息，连接空闲时发送PING检测连接是否可用
+     */
+    private void read(TrackingConnection connection) throws IOException {
+        try {
+            Object reply = connection.read();
+            connection.lastReadTime = System.currentTimeMillis();
+            connection.pinged = false;
+            handle(reply);
+        } catch (SocketTimeoutException e) {
+            long idle = System.currentTimeMillis() - connection.lastReadTime;
+            if (idle > DEAD_INTERVAL) {
+                throw new IOException("连接已经" + idle + "毫秒没有响应");
+            }
+            if (idle > PING_INTERVAL && !connection.pinged) {
+                connection.pinged = true;
+                connection.write("PING");
+            }
+        }
+    }
+
+    /**
+     * 处理订阅消息：[message, __redis__:invalidate, [key, ...]]，key列表为NULL表示执行了FLUSHALL/FLUSHDB
+     */
+    @SuppressWarnings("unchecked")
+    private void handle(Object reply) {
+        if (!(reply instanceof List)) {
+            return;
+        }
+        List<Object> message = (List<Object>) reply;
+        if (message.size() < 3 || !"message".equals(toString(message.get(0)))) {
+            return;
+        }
+        Object keys = message.get(2);
+        if (keys == null) {
+            messageListener.clearAllFirstCache();
+            return;
+        }
+        if (keys instanceof List) {
+            for (Object key : (List<Object>) keys) {
+                invalidate(toString(key));
+            }
+        } else {
+            invalidate(toString(keys));
+        }
+    }
+
+    /**
+     * 根据redis key找到对应的缓存名称，删除一级缓存
+     *
+     * @param redisKey redis key
+     */
+    public void invalidate(String redisKey) {
+        if (isInternalKey(redisKey)) {
+            return;
+        }
+        for (String cacheName : cacheManager.getCacheNames()) {
+            if (!redisKey.startsWith(cacheName + ":")) {
+                continue;
+            }
+            String key = redisKey.substring(cacheName.length() + 1);
+            for (Cache cache : cacheManager.getCache(cacheName)) {
+                if (cache instanceof LayeringCache) {
+                    ((LayeringCache) cache).evictLocal(redisKey, key);
+                }
+            }
+            logger.debug("redis客户端缓存失效，删除一级缓存{}数据,key={}", cacheName, key);
+        }
+    }
+
+    /**
+     * 是否是缓存内部使用的锁或等待标记的key
+     */
+    private boolean isInternalKey(String redisKey) {
+        for (String suffix : INTERNAL_KEY_SUFFIXES) {
+            if (redisKey.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 建立连接，以当前所有的key前缀开启广播模式的追踪，并把失效消息重定向到连接自身后订阅失效频道
+     */
+    private TrackingConnection connect() throws IOException {
+        TrackingConnection connection = new TrackingConnection(configuration);
+        try {
+            String username = getUsername(configuration);
+            if (configuration.getPassword().isPresent()) {
+                String password = new String(configuration.getPassword().get());
+                if (username != null) {
+                    connection.command("AUTH", username, password);
+                } else {
+                    connection.command("AUTH", password);
+                }
+            }
+            if (configuration.getDatabase() != 0) {
+                connection.command("SELECT", String.valueOf(configuration.getDatabase()));
+            }
+            connection.command("CLIENT", "SETNAME", THREAD_NAME);
+            Object id = connection.command("CLIENT", "ID");
+
+            List<String> prefixList = getPrefixes();
+            if (!prefixList.isEmpty()) {
+                List<String> args = new ArrayList<>();
+                args.add("CLIENT");
+                args.add("TRACKING");
+                args.add("on");
+                args.add("REDIRECT");
+                args.add(String.valueOf(id));
+                args.add("BCAST");
+                for (String prefix : prefixList) {
+                    args.add("PREFIX");
+                    args.add(prefix);
+                }
+                connection.command(args.toArray(new String[0]));
+            }
+
+            connection.command("SUBSCRIBE", INVALIDATE_CHANNEL);
+            connection.socket.setSoTimeout(READ_TIMEOUT);
+            connection.lastReadTime = System.currentTimeMillis();
+            logger.info("redis客户端缓存追踪连接成功，client id={}，key前缀={}", id, prefixList);
+            return connection;
+        } catch (IOException | RuntimeException e) {
+            close(connection);
+            throw e;
+        }
+    }
+
+    /**
+     * 获取需要追踪的key前缀，redis不允许同一个连接的前缀互相包含，被包含的前缀由较短的前缀覆盖
+     */
+    private List<String> getPrefixes() {
+        List<String> result = new ArrayList<>();
+        for (String prefix : new TreeSet<>(prefixes)) {
+            if (result.isEmpty() || !prefix.startsWith(result.get(result.size() - 1))) {
+                result.add(prefix);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 高版本spring-data-redis的连接配置才有ACL用户名，通过反射获取
+     */
+    private static String getUsername(RedisStandaloneConfiguration configuration) {
+        Method method = ReflectionUtils.findMethod(configuration.getClass(), "getUsername");
+        if (method == null) {
+            return null;
+        }
+        Object username = ReflectionUtils.invokeMethod(method, configuration);
+        return username == null || "".equals(username) ? null : username.toString();
+    }
+
+    private static String toString(Object value) {
+        return value instanceof byte[] ? new String((byte[]) value, StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+
+    private static void close(TrackingConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.socket.close();
+        } catch (IOException e) {
+            logger.debug("关闭redis客户端缓存追踪连接异常：{}", e.getMessage());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 读写RESP2协议的连接
+     */
+    private static class TrackingConnection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private volatile long lastReadTime;
+        private volatile boolean pinged;
+
+        TrackingConnection(RedisStandaloneConfiguration configuration) throws IOException {
+            socket = new Socket();
+            socket.setKeepAlive(true);
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(configuration.getHostName(), configuration.getPort()), 2000);
+            socket.setSoTimeout(2000);
+            in = new BufferedInputStream(socket.getInputStream());
+            out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        /**
+         * 发送命令并读取响应，错误响应抛出异常
+         */
+        Object command(String... args) throws IOException {
+            write(args);
+            return read();
+        }
+
+        void write(String... args) throws IOException {
+            out.write(('*' + String.valueOf(args.length) + "\r\n").getBytes(StandardCharsets.UTF_8));
+            for (String arg : args) {
+                byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+                out.write(('$' + String.valueOf(bytes.length) + "\r\n").getBytes(StandardCharsets.UTF_8));
+                out.write(bytes);
+                out.write('\r');
+                out.write('\n');
+            }
+            out.flush();
+        }
+
+        /**
+         * 读取一个响应，没有响应时抛出 {@link SocketTimeoutException}，读取响应的过程中超时则认为连接不可用
+         */
+        Object read() throws IOException {
+            int type = in.read();
+            try {
+                return readValue(type);
+            } catch (SocketTimeoutException e) {
+                throw new IOException("读取响应超时", e);
+            }
+        }
+
+        private Object readValue(int type) throws IOException {
+            if (type == -1) {
+                throw new EOFException("连接已经关闭");
+            }
+            String line = readLine();
+            switch (type) {
+                case '+':
+                    return line;
+                case '-':
+                    throw new IOException(line);
+                case ':':
+                    return Long.parseLong(line);
+                case '$':
+                    int length = Integer.parseInt(line);
+                    if (length < 0) {
+                        return null;
+                    }
+                    byte[] bytes = new byte[length];
+                    int offset = 0;
+                    while (offset < length) {
+                        int read = in.read(bytes, offset, length - offset);
+                        if (read == -1) {
+                            throw new EOFException("连接已经关闭");
+                        }
+                        offset += read;
+                    }
+                    readLine();
+                    return bytes;
+                case '*':
+                    int size = Integer.parseInt(line);
+                    if (size < 0) {
+                        return null;
+                    }
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue(in.read()));
+                    }
+                    return list;
+                default:
+                    throw new IOException("不支持的redis响应类型：" + (char) type);
+            }
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(16);
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b == -1) {
+                    throw new EOFException("连接已经关闭");
+                }
+                line.write(b);
+            }
+            in.read();
+            return new String(line.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
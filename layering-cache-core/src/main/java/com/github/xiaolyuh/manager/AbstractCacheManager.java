@@ -1,10 +1,24 @@
 package com.github.xiaolyuh.manager;
 
 import com.github.xiaolyuh.cache.Cache;
+import com.github.xiaolyuh.cache.redis.RedisCache;
+import com.github.xiaolyuh.listener.BatchRedisPublisher;
+import com.github.xiaolyuh.listener.RedisChannelResolver;
+import com.github.xiaolyuh.listener.RedisMessagePublisher;
 import com.github.xiaolyuh.listener.RedisMessageListener;
+import com.github.xiaolyuh.listener.RedisPubSubMessageCodec;
+import com.github.xiaolyuh.listener.RedisStreamMessageListener;
+import com.github.xiaolyuh.listener.RedisStreamMessagePublisher;
+import com.github.xiaolyuh.listener.RedisTrackingMessageListener;
+import com.github.xiaolyuh.serializer.CompressionRedisSerializer;
+import com.github.xiaolyuh.serializer.CompressionType;
 import com.github.xiaolyuh.setting.LayeringCacheSetting;
 import com.github.xiaolyuh.stats.CacheStatsInfo;
 import com.github.xiaolyuh.stats.StatsService;
+import com.github.xiaolyuh.support.CacheMode;
+import com.github.xiaolyuh.support.ExecutorMode;
+import com.github.xiaolyuh.support.InvalidationMode;
+import com.github.xiaolyuh.support.ThreadTaskUtils;
 import com.github.xiaolyuh.util.BeanFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,14 +26,26 @@ import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ReflectionUtils;
 
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * 公共的抽象 {@link CacheManager} 的实现.
@@ -51,6 +77,11 @@ public abstract class AbstractCacheManager implements CacheManager, Initializing
      */
     private volatile Set<String> cacheNames = new LinkedHashSet<>();
 
+    /**
+     * 已经添加了消息监听的缓存名称，只使用一级缓存的缓存不访问redis，不需要监听
+     */
+    private final Set<String> listenedCacheNames = ConcurrentHashMap.newKeySet();
+
     /**
      * CacheManager 容器
      */
@@ -61,6 +92,102 @@ public abstract class AbstractCacheManager implements CacheManager, Initializing
      */
     private boolean stats = true;
 
+    /**
+     * 命名空间，共享频道模式下用来区分不同服务的频道，一般使用服务名
+     */
+    private String namespace = "default";
+
+    /**
+     * 共享频道的分片数，小于等于0表示每个缓存名称一个频道（默认）；
+     * 大于0表示同一个命名空间下的所有缓存名称共用固定数量的频道，并且消息使用二进制编码
+     */
+    private int channelShards = 0;
+
+    /**
+     * 频道解析器
+     */
+    private RedisChannelResolver channelResolver = new RedisChannelResolver();
+
+    /**
+     * 删除一级缓存消息的发布者
+     */
+    private RedisMessagePublisher messagePublisher;
+
+    /**
+     * 批量发布删除一级缓存消息的时间间隔，单位毫秒，小于等于0表示不开启批量发布
+     */
+    private long evictBatchInterval = 0;
+
+    /**
+     * 批量发布删除一级缓存消息的发布者
+     */
+    private BatchRedisPublisher batchRedisPublisher;
+
+    /**
+     * 删除一级缓存消息的传输方式，默认使用redis Pub/Sub
+     */
+    private InvalidationMode invalidationMode = InvalidationMode.PUB_SUB;
+
+    /**
+     * Stream 模式下Stream的最大长度（近似值）
+     */
+    private long streamMaxLen = 100000;
+
+    /**
+     * Stream 模式下拉取消息的时间间隔，单位毫秒
+     */
+    private long streamPollInterval = 100;
+
+    /**
+     * Stream 模式下的消息订阅者
+     */
+    private RedisStreamMessageListener streamMessageListener;
+
+    /**
+     * 客户端缓存模式下的失效消息订阅者
+     */
+    private RedisTrackingMessageListener trackingMessageListener;
+
+    /**
+     * 二级缓存加载完成通知的频道，所有删除一级缓存消息的传输方式都使用Pub/Sub通知
+     */
+    private ChannelTopic loadedTopic;
+
+    /**
+     * 按缓存名称指定的二级缓存值序列化器，没有指定的缓存名称使用 redisTemplate 的序列化器
+     */
+    private final Map<String, RedisSerializer<Object>> valueSerializers = new ConcurrentHashMap<>(16);
+
+    /**
+     * 二级缓存值的压缩算法，为NULL表示不压缩
+     */
+    private CompressionType compressionType;
+
+    /**
+     * 二级缓存值序列化后大于等于该值时才压缩，单位字节
+     */
+    private int compressionThreshold = 4096;
+
+    /**
+     * 指定了值序列化器或开启了压缩时缓存名称使用的 redis 客户端，key是缓存名称
+     */
+    private final ConcurrentMap<String, RedisTemplate<String, Object>> valueRedisTemplates = new ConcurrentHashMap<>(16);
+
+    /**
+     * 初始化布隆过滤器的key来源，key是缓存名称，value返回该缓存所有存在的key
+     */
+    private final Map<String, Supplier<? extends Collection<?>>> bloomFilterKeySources = new ConcurrentHashMap<>(16);
+
+    /**
+     * 定时重建布隆过滤器的时间间隔，单位毫秒，小于等于0表示只在创建缓存时初始化一次
+     */
+    private long bloomFilterRebuildInterval = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * 重建布隆过滤器的线程池，第一次使用时创建
+     */
+    private ScheduledExecutorService bloomFilterExecutor;
+
     /**
      * redis 客户端
      */
@@ -108,7 +235,9 @@ public abstract class AbstractCacheManager implements CacheManager, Initializing
                 cacheContainer.put(name, cacheMap);
                 // 更新缓存名称
                 updateCacheNames(name);
-                // 创建redis监听
+            }
+            // 有二级缓存时才创建redis监听，同一个缓存名称只创建一次
+            if (layeringCacheSetting.getCacheMode() != CacheMode.ONLY_FIRST && listenedCacheNames.add(name)) {
                 addMessageListener(name);
             }
 
@@ -162,6 +291,35 @@ public abstract class AbstractCacheManager implements CacheManager, Initializing
      */
     protected abstract Cache getMissingCache(String name, LayeringCacheSetting layeringCacheSetting);
 
+    /**
+     * 获取缓存名称对应的二级缓存 redis 客户端，指定了值序列化器或开启了压缩时使用和 redisTemplate 共用连接工厂、key序列化器的新客户端
+     *
+     * @param name 缓存名称
+     * @return {@link RedisTemplate}
+     */
+    @SuppressWarnings("unchecked")
+    protected RedisTemplate<String, Object> getRedisTemplate(String name) {
+        RedisSerializer<Object> serializer = valueSerializers.get(name);
+        if (serializer == null && compressionType == null) {
+            return redisTemplate;
+        }
+
+        return valueRedisTemplates.computeIfAbsent(name, key -> {
+            RedisSerializer<Object> valueSerializer = serializer != null ? serializer : (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+            if (compressionType != null) {
+                valueSerializer = new CompressionRedisSerializer(valueSerializer, compressionType, compressionThreshold);
+            }
+            RedisTemplate<String, Object> template = new RedisTemplate<>();
+            template.setConnectionFactory(redisTemplate.getConnectionFactory());
+            template.setKeySerializer(redisTemplate.getKeySerializer());
+            template.setHashKeySerializer(redisTemplate.getHashKeySerializer());
+            template.setValueSerializer(valueSerializer);
+            template.setHashValueSerializer(valueSerializer);
+            template.afterPropertiesSet();
+            return template;
+        });
+    }
+
     /**
      * 获取缓存容器
      *
@@ -177,16 +335,54 @@ public abstract class AbstractCacheManager implements CacheManager, Initializing
      * @param name 缓存名称
      */
     protected void addMessageListener(String name) {
-        container.addMessageListener(messageListener, new ChannelTopic(name));
+        // 共享频道模式在初始化时已经订阅了所有频道，Stream模式不使用Pub/Sub；
+        // 客户端缓存模式下清空缓存和不使用前缀的缓存的删除消息仍然使用Pub/Sub，也需要订阅
+        if (!channelResolver.isShared() && invalidationMode != InvalidationMode.STREAM) {
+            container.addMessageListener(messageListener, channelResolver.getChannelTopic(name));
+        }
+        if (trackingMessageListener != null) {
+            trackingMessageListener.addCacheName(name);
+        }
     }
 
 
     @Override
     public void afterPropertiesSet() throws Exception {
+        // 共享频道模式下消息使用二进制编码
+        RedisPubSubMessageCodec codec = new RedisPubSubMessageCodec((RedisSerializer<Object>) getRedisTemplate().getValueSerializer());
+        if (channelShards > 0) {
+            channelResolver = new RedisChannelResolver(namespace, channelShards);
+        }
+        if (invalidationMode == InvalidationMode.STREAM) {
+            messagePublisher = new RedisStreamMessagePublisher(getRedisTemplate(), codec, getStreamKey(), streamMaxLen);
+        } else {
+            messagePublisher = new RedisMessagePublisher(getRedisTemplate(), channelResolver, channelResolver.isShared() ? codec : null);
+        }
+
         messageListener.setCacheManager(this);
+        messageListener.setCodec(codec);
         container.setConnectionFactory(getRedisTemplate().getConnectionFactory());
         container.afterPropertiesSet();
         messageListener.afterPropertiesSet();
+        if (invalidationMode == InvalidationMode.CLIENT_TRACKING) {
+            trackingMessageListener = new RedisTrackingMessageListener(this, messageListener, getStandaloneConfiguration());
+            trackingMessageListener.start();
+        }
+        if (invalidationMode == InvalidationMode.STREAM) {
+            streamMessageListener = new RedisStreamMessageListener(getRedisTemplate(), messageListener, codec, getStreamKey(), streamPollInterval);
+            streamMessageListener.start();
+        } else if (channelResolver.isShared()) {
+            container.addMessageListener(messageListener, channelResolver.getChannelTopics());
+        }
+
+        // 其他节点加载完数据后唤醒本节点等待的线程
+        loadedTopic = new ChannelTopic("layering-cache:loaded:" + namespace);
+        container.addMessageListener((message, pattern) -> RedisCache.onLoaded(new String(message.getBody(), StandardCharsets.UTF_8)), loadedTopic);
+
+        if (evictBatchInterval > 0) {
+            batchRedisPublisher = new BatchRedisPublisher(messagePublisher, evictBatchInterval);
+            batchRedisPublisher.start();
+        }
 
         BeanFactory.getBean(StatsService.class).setCacheManager(this);
         if (getStats()) {
@@ -195,6 +391,42 @@ public abstract class AbstractCacheManager implements CacheManager, Initializing
         }
     }
 
+    /**
+     * 获取命名空间对应的Stream的key
+     *
+     * @return Stream 的key
+     */
+    private String getStreamKey() {
+        return "layering-cache:stream:" + namespace;
+    }
+
+    /**
+     * 获取单机模式的redis连接配置，客户端缓存模式需要使用独立的连接订阅失效消息
+     *
+     * @return {@link RedisStandaloneConfiguration}
+     */
+    private RedisStandaloneConfiguration getStandaloneConfiguration() {
+        Boolean cluster = getRedisTemplate().execute((RedisCallback<Boolean>) connection -> connection instanceof RedisClusterConnection);
+        if (Boolean.TRUE.equals(cluster)) {
+            throw new IllegalStateException("客户端缓存模式只支持单机模式的redis");
+        }
+        RedisConnectionFactory connectionFactory = getRedisTemplate().getConnectionFactory();
+        Method sentinelAware = ReflectionUtils.findMethod(connectionFactory.getClass(), "isRedisSentinelAware");
+        if (sentinelAware != null && Boolean.TRUE.equals(ReflectionUtils.invokeMethod(sentinelAware, connectionFactory))) {
+            throw new IllegalStateException("客户端缓存模式只支持单机模式的redis");
+        }
+        // 追踪连接直接使用socket读写RESP协议，不支持SSL
+        Method useSsl = ReflectionUtils.findMethod(connectionFactory.getClass(), "isUseSsl");
+        if (useSsl != null && Boolean.TRUE.equals(ReflectionUtils.invokeMethod(useSsl, connectionFactory))) {
+            throw new IllegalStateException("客户端缓存模式不支持SSL连接的redis");
+        }
+        Method method = ReflectionUtils.findMethod(connectionFactory.getClass(), "getStandaloneConfiguration");
+        if (method == null) {
+            throw new IllegalStateException("客户端缓存模式不支持的redis连接工厂：" + connectionFactory.getClass().getName());
+        }
+        return (RedisStandaloneConfiguration) ReflectionUtils.invokeMethod(method, connectionFactory);
+    }
+
     @Override
     public List<CacheStatsInfo> listCacheStats(String cacheName) {
         return BeanFactory.getBean(StatsService.class).listCacheStats(cacheName);
@@ -212,6 +444,20 @@ public abstract class AbstractCacheManager implements CacheManager, Initializing
 
     @Override
     public void destroy() throws Exception {
+        if (batchRedisPublisher != null) {
+            batchRedisPublisher.destroy();
+        }
+        if (streamMessageListener != null) {
+            streamMessageListener.destroy();
+        }
+        if (trackingMessageListener != null) {
+            trackingMessageListener.destroy();
+        }
+        synchronized (this) {
+            if (bloomFilterExecutor != null) {
+                bloomFilterExecutor.shutdownNow();
+            }
+        }
         container.destroy();
         BeanFactory.getBean(StatsService.class).shutdownExecutor();
     }
@@ -264,6 +510,186 @@ public abstract class AbstractCacheManager implements CacheManager, Initializing
         return super.hashCode();
     }
 
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public void setNamespace(String namespace) {
+        this.namespace = namespace;
+    }
+
+    public int getChannelShards() {
+        return channelShards;
+    }
+
+    public void setChannelShards(int channelShards) {
+        this.channelShards = channelShards;
+    }
+
+    public RedisMessagePublisher getMessagePublisher() {
+        return messagePublisher;
+    }
+
+    public long getEvictBatchInterval() {
+        return evictBatchInterval;
+    }
+
+    public void setEvictBatchInterval(long evictBatchInterval) {
+        this.evictBatchInterval = evictBatchInterval;
+    }
+
+    public BatchRedisPublisher getBatchRedisPublisher() {
+        return batchRedisPublisher;
+    }
+
+    public InvalidationMode getInvalidationMode() {
+        return invalidationMode;
+    }
+
+    public void setInvalidationMode(InvalidationMode invalidationMode) {
+        this.invalidationMode = invalidationMode;
+    }
+
+    public long getStreamMaxLen() {
+        return streamMaxLen;
+    }
+
+    public void setStreamMaxLen(long streamMaxLen) {
+        this.streamMaxLen = streamMaxLen;
+    }
+
+    public long getStreamPollInterval() {
+        return streamPollInterval;
+    }
+
+    public void setStreamPollInterval(long streamPollInterval) {
+        this.streamPollInterval = streamPollInterval;
+    }
+
+    public RedisStreamMessageListener getStreamMessageListener() {
+        return streamMessageListener;
+    }
+
+    public ChannelTopic getLoadedTopic() {
+        return loadedTopic;
+    }
+
+    public RedisTrackingMessageListener getTrackingMessageListener() {
+        return trackingMessageListener;
+    }
+
+    public Map<String, RedisSerializer<Object>> getValueSerializers() {
+        return Collections.unmodifiableMap(valueSerializers);
+    }
+
+    /**
+     * 按缓存名称指定二级缓存值的序列化器，需要在缓存创建之前设置，已经创建的缓存不受影响
+     *
+     * @param valueSerializers key是缓存名称，value是序列化器
+     */
+    public void setValueSerializers(Map<String, RedisSerializer<Object>> valueSerializers) {
+        this.valueSerializers.clear();
+        this.valueSerializers.putAll(valueSerializers);
+        this.valueRedisTemplates.clear();
+    }
+
+    public CompressionType getCompressionType() {
+        return compressionType;
+    }
+
+    /**
+     * 设置二级缓存值的压缩算法，需要在缓存创建之前设置，已经创建的缓存不受影响
+     *
+     * @param compressionType 压缩算法，为NULL表示不压缩
+     */
+    public void setCompressionType(CompressionType compressionType) {
+        this.compressionType = compressionType;
+        this.valueRedisTemplates.clear();
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+        this.valueRedisTemplates.clear();
+    }
+
+    public ExecutorMode getExecutorMode() {
+        return ThreadTaskUtils.getExecutorMode();
+    }
+
+    /**
+     * 设置执行缓存刷新等后台任务的线程池模式，线程池是所有 CacheManager 共用的，对所有缓存生效
+     *
+     * @param executorMode {@link ExecutorMode}
+     */
+    public void setExecutorMode(ExecutorMode executorMode) {
+        ThreadTaskUtils.setExecutorMode(executorMode);
+    }
+
+    /**
+     * 设置按缓存名称隔离时每个线程池的大小，只对之后创建的线程池生效
+     *
+     * @param poolSize      最大线程数
+     * @param queueCapacity 队列最大长度
+     */
+    public void setCacheNamePoolSize(int poolSize, int queueCapacity) {
+        ThreadTaskUtils.setCacheNamePoolSize(poolSize, queueCapacity);
+    }
+
+    /**
+     * 有布隆过滤器和key来源的二级缓存，创建之后马上初始化布隆过滤器，之后按时间间隔定时重建
+     *
+     * @param redisCache 二级缓存
+     */
+    protected void scheduleBloomFilterRebuild(RedisCache redisCache) {
+        Supplier<? extends Collection<?>> keySource = bloomFilterKeySources.get(redisCache.getName());
+        if (redisCache.getBloomFilter() == null || keySource == null) {
+            return;
+        }
+        Runnable task = () -> {
+            try {
+                redisCache.rebuildBloomFilter(keySource);
+            } catch (Exception e) {
+                logger.error("重建缓存 {} 的布隆过滤器失败：{}", redisCache.getName(), e.getMessage(), e);
+            }
+        };
+        synchronized (this) {
+            if (bloomFilterExecutor == null) {
+                bloomFilterExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "layering-cache-bloom-filter");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            if (bloomFilterRebuildInterval > 0) {
+                bloomFilterExecutor.scheduleWithFixedDelay(task, 0, bloomFilterRebuildInterval, TimeUnit.MILLISECONDS);
+            } else {
+                bloomFilterExecutor.execute(task);
+            }
+        }
+    }
+
+    /**
+     * 按缓存名称设置初始化布隆过滤器的key来源，需要在缓存创建之前设置，只对开启了布隆过滤器的缓存生效
+     *
+     * @param cacheName 缓存名称
+     * @param keySource 返回该缓存所有存在的key，一般从数据库查询所有的ID
+     */
+    public void setBloomFilterKeySource(String cacheName, Supplier<? extends Collection<?>> keySource) {
+        this.bloomFilterKeySources.put(cacheName, keySource);
+    }
+
+    public long getBloomFilterRebuildInterval() {
+        return bloomFilterRebuildInterval;
+    }
+
+    public void setBloomFilterRebuildInterval(long bloomFilterRebuildInterval) {
+        this.bloomFilterRebuildInterval = bloomFilterRebuildInterval;
+    }
+
     public RedisTemplate<String, Object> getRedisTemplate() {
         return redisTemplate;
     }
@@ -5,7 +5,10 @@ import com.github.xiaolyuh.cache.LayeringCache;
 import com.github.xiaolyuh.cache.caffeine.CaffeineCache;
 import com.github.xiaolyuh.cache.redis.RedisCache;
 import com.github.xiaolyuh.setting.LayeringCacheSetting;
+import com.github.xiaolyuh.support.CacheMode;
+import com.github.xiaolyuh.support.InvalidationMode;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.Assert;
 
 /**
  * @author yuhao.wang
@@ -18,11 +21,36 @@ public class LayeringCacheManager extends AbstractCacheManager {
 
     @Override
     protected Cache getMissingCache(String name, LayeringCacheSetting layeringCacheSetting) {
-        // 创建一级缓存
-        CaffeineCache caffeineCache = new CaffeineCache(name, layeringCacheSetting.getFirstCacheSetting(), getStats());
-        // 创建二级缓存
-        RedisCache redisCache = new RedisCache(name, redisTemplate, layeringCacheSetting.getSecondaryCacheSetting(), getStats());
-        return new LayeringCache(redisTemplate, caffeineCache, redisCache, super.getStats(), layeringCacheSetting);
+        CacheMode cacheMode = layeringCacheSetting.getCacheMode();
+        // 一级缓存自动刷新是从二级缓存获取新值，只使用一级缓存时没有新值来源，刷新时会直接删除缓存
+        Assert.isTrue(cacheMode != CacheMode.ONLY_FIRST || layeringCacheSetting.getFirstCacheSetting().getRefreshAfterWrite() <= 0,
+                "缓存 " + name + " 只使用一级缓存时不支持一级缓存自动刷新（refreshAfterWrite）");
+        // 创建一级缓存，只使用二级缓存时不创建
+        CaffeineCache caffeineCache = null;
+        if (cacheMode != CacheMode.ONLY_SECOND) {
+            caffeineCache = new CaffeineCache(name, layeringCacheSetting.getFirstCacheSetting(),
+                    layeringCacheSetting.getSecondaryCacheSetting().getExpireJitterPercent(), getStats());
+        }
+        // 创建二级缓存，只使用一级缓存时不创建
+        RedisCache redisCache = null;
+        if (cacheMode != CacheMode.ONLY_FIRST) {
+            redisCache = new RedisCache(name, getRedisTemplate(name), layeringCacheSetting.getSecondaryCacheSetting(), getStats());
+            redisCache.setLoadedTopic(getLoadedTopic());
+            scheduleBloomFilterRebuild(redisCache);
+        }
+        // 一级缓存自动刷新时从二级缓存获取新值
+        if (caffeineCache != null && redisCache != null && layeringCacheSetting.getFirstCacheSetting().getRefreshAfterWrite() > 0) {
+            caffeineCache.setRefreshLoader(redisCache::get);
+        }
+        LayeringCache layeringCache = new LayeringCache(redisTemplate, caffeineCache, redisCache, super.getStats(), layeringCacheSetting);
+        if (getMessagePublisher() != null) {
+            layeringCache.setMessagePublisher(getMessagePublisher());
+        }
+        layeringCache.setBatchRedisPublisher(getBatchRedisPublisher());
+        // 不使用缓存名称作为前缀的key无法按前缀追踪，仍然发布删除消息
+        layeringCache.setEvictByClientTracking(getInvalidationMode() == InvalidationMode.CLIENT_TRACKING
+                && redisCache != null && redisCache.isUsePrefix());
+        return layeringCache;
     }
 
     @Override
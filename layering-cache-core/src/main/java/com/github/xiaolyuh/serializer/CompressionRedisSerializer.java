@@ -0,0 +1,104 @@
+package com.github.xiaolyuh.serializer;
+
+import com.github.xiaolyuh.support.SerializationException;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.Assert;
+
+/**
+ * 压缩缓存值的序列化器装饰器，序列化后超过阈值的数据才压缩。
+ * <p>压缩后的数据以 [0xC1 'Z' 压缩算法 原始长度(4字节)] 开头，读取时没有这个头的数据直接交给被装饰的序列化器，
+ * 所以开启压缩之前写入的缓存仍然可以正常读取</p>
+ *
+ * @author yuhao.wang3
+ */
+public class CompressionRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte MAGIC_0 = (byte) 0xC1;
+    private static final byte MAGIC_1 = 'Z';
+    private static final int HEADER_LENGTH = 7;
+
+    /**
+     * 被装饰的序列化器
+     */
+    private final RedisSerializer<Object> delegate;
+
+    /**
+     * 压缩算法
+     */
+    private final CompressionType compressionType;
+
+    /**
+     * 序列化后的数据大于等于该值时才压缩，单位字节
+     */
+    private final int threshold;
+
+    /**
+     * @param delegate        被装饰的序列化器
+     * @param compressionType 压缩算法
+     * @param threshold       序列化后的数据大于等于该值时才压缩，单位字节
+     */
+    public CompressionRedisSerializer(RedisSerializer<Object> delegate, CompressionType compressionType, int threshold) {
+        Assert.notNull(delegate, "被装饰的序列化器不能为NULL");
+        Assert.notNull(compressionType, "压缩算法不能为NULL");
+        this.delegate = delegate;
+        this.compressionType = compressionType;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes == null || bytes.length < threshold) {
+            return bytes;
+        }
+
+        byte[] compressed = compressionType.compress(bytes);
+        // 压缩效果不明显时保存原数据，省去读取时的解压
+        if (compressed.length + HEADER_LENGTH >= bytes.length) {
+            return bytes;
+        }
+
+        byte[] result = new byte[HEADER_LENGTH + compressed.length];
+        result[0] = MAGIC_0;
+        result[1] = MAGIC_1;
+        result[2] = compressionType.getId();
+        result[3] = (byte) (bytes.length >>> 24);
+        result[4] = (byte) (bytes.length >>> 16);
+        result[5] = (byte) (bytes.length >>> 8);
+        result[6] = (byte) bytes.length;
+        System.arraycopy(compressed, 0, result, HEADER_LENGTH, compressed.length);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (!isCompressed(bytes)) {
+            return delegate.deserialize(bytes);
+        }
+
+        CompressionType type = CompressionType.of(bytes[2]);
+        int originalLength = ((bytes[3] & 0xFF) << 24) | ((bytes[4] & 0xFF) << 16) | ((bytes[5] & 0xFF) << 8) | (bytes[6] & 0xFF);
+        try {
+            // 按照数据中记录的压缩算法解压，切换压缩算法后旧数据仍然可以读取
+            return delegate.deserialize(type.decompress(bytes, HEADER_LENGTH, originalLength));
+        } catch (SerializationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SerializationException("解压缓存数据异常", e);
+        }
+    }
+
+    /**
+     * 判断是否是压缩过的数据
+     *
+     * @param bytes 数据
+     * @return boolean
+     */
+    public static boolean isCompressed(byte[] bytes) {
+        return bytes != null && bytes.length > HEADER_LENGTH && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+    }
+
+    public RedisSerializer<Object> getDelegate() {
+        return delegate;
+    }
+}
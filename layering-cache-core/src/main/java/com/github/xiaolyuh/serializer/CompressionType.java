@@ -0,0 +1,138 @@
+package com.github.xiaolyuh.serializer;
+
+import com.github.xiaolyuh.support.SerializationException;
+import net.jpountz.lz4.LZ4Factory;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 缓存值的压缩算法
+ *
+ * @author yuhao.wang3
+ */
+public enum CompressionType {
+    /**
+     * LZ4，压缩和解压速度快，需要引入 lz4-java
+     */
+    LZ4((byte) 0) {
+        @Override
+        byte[] compress(byte[] data) {
+            return Lz4Holder.FACTORY.fastCompressor().compress(data);
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int originalLength) {
+            byte[] result = new byte[originalLength];
+            Lz4Holder.FACTORY.fastDecompressor().decompress(data, offset, result, 0, originalLength);
+            return result;
+        }
+    },
+
+    /**
+     * JDK 自带的 Deflate，压缩率更高但速度较慢，不需要引入其他依赖
+     */
+    DEFLATE((byte) 1) {
+        @Override
+        byte[] compress(byte[] data) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+                byte[] buffer = new byte[data.length];
+                int length = 0;
+                while (!deflater.finished()) {
+                    // 压缩后比原数据大时不压缩
+                    if (length == buffer.length) {
+                        return data;
+                    }
+                    length += deflater.deflate(buffer, length, buffer.length - length);
+                }
+                return Arrays.copyOf(buffer, length);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int originalLength) {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data, offset, data.length - offset);
+                byte[] result = new byte[originalLength];
+                int length = 0;
+                while (length < originalLength && !inflater.finished()) {
+                    int count = inflater.inflate(result, length, originalLength - length);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += count;
+                }
+                if (length != originalLength) {
+                    throw new SerializationException("Deflate 解压后的长度不正确");
+                }
+                return result;
+            } catch (DataFormatException e) {
+                throw new SerializationException("Deflate 解压异常", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    };
+
+    /**
+     * 写入压缩数据头中的算法编号，已经写入redis的数据依赖这个值，新增算法时使用新的编号，不能修改已有的编号
+     */
+    private final byte id;
+
+    CompressionType(byte id) {
+        this.id = id;
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    /**
+     * 根据压缩数据头中的算法编号获取压缩算法
+     *
+     * @param id 算法编号
+     * @return {@link CompressionType}
+     * @throws SerializationException 不支持的算法编号
+     */
+    public static CompressionType of(byte id) {
+        for (CompressionType type : values()) {
+            if (type.id == id) {
+                return type;
+            }
+        }
+        throw new SerializationException("不支持的压缩算法：" + id);
+    }
+
+    /**
+     * 压缩数据
+     *
+     * @param data 原始数据
+     * @return 压缩后的数据，压缩后不比原数据小时可以直接返回原数据
+     */
+    abstract byte[] compress(byte[] data);
+
+    /**
+     * 解压数据
+     *
+     * @param data           压缩数据
+     * @param offset         压缩数据在数组中的起始位置
+     * @param originalLength 原始数据长度
+     * @return 原始数据
+     */
+    abstract byte[] decompress(byte[] data, int offset, int originalLength);
+
+    /**
+     * 延迟加载 lz4-java，没有引入依赖时不影响使用其他压缩算法
+     */
+    private static class Lz4Holder {
+        private static final LZ4Factory FACTORY = LZ4Factory.fastestInstance();
+    }
+}
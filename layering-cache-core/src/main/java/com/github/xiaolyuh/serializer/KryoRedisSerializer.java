@@ -0,0 +1,64 @@
+package com.github.xiaolyuh.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.github.xiaolyuh.support.NullValue;
+import com.github.xiaolyuh.support.SerializationException;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 使用 Kryo 序列化缓存值，二进制编码并写入类名，不需要提前注册类
+ *
+ * @author yuhao.wang3
+ */
+public class KryoRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * Kryo 不是线程安全的，每个线程使用一个实例
+     */
+    private static final ThreadLocal<Kryo> KRYO = ThreadLocal.withInitial(() -> {
+        Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(false);
+        // 没有无参构造函数的类使用 objenesis 创建实例
+        kryo.setInstantiatorStrategy(new Kryo.DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+        return kryo;
+    });
+
+    /**
+     * 每个线程复用一个输出缓冲区，初始 512 字节，最大不限制
+     */
+    private static final ThreadLocal<Output> OUTPUT = ThreadLocal.withInitial(() -> new Output(512, -1));
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) {
+            return SerializationUtils.EMPTY_ARRAY;
+        }
+
+        Output output = OUTPUT.get();
+        try {
+            output.clear();
+            KRYO.get().writeClassAndObject(output, value);
+            return output.toBytes();
+        } catch (Exception e) {
+            throw new SerializationException(String.format("kryo 序列化 %s 异常", value.getClass().getName()), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (SerializationUtils.isEmpty(bytes)) {
+            return null;
+        }
+
+        try {
+            Object value = KRYO.get().readClassAndObject(new Input(bytes));
+            // NullValue 是单例，反序列化时替换成 NullValue.INSTANCE
+            return value instanceof NullValue ? NullValue.INSTANCE : value;
+        } catch (Exception e) {
+            throw new SerializationException("kryo 反序列化异常", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.xiaolyuh.serializer;
+
+import com.github.xiaolyuh.support.NullValue;
+import com.github.xiaolyuh.support.SerializationException;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtostuffIOUtil;
+import io.protostuff.Schema;
+import io.protostuff.runtime.RuntimeSchema;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 使用 protostuff 序列化缓存值，二进制编码，不需要实现 {@link java.io.Serializable}
+ *
+ * @author yuhao.wang3
+ */
+public class ProtostuffRedisSerializer implements RedisSerializer<Object> {
+
+    private static final Schema<ValueWrapper> SCHEMA = RuntimeSchema.getSchema(ValueWrapper.class);
+
+    /**
+     * 每个线程复用一个序列化缓冲区
+     */
+    private static final ThreadLocal<LinkedBuffer> BUFFER = ThreadLocal.withInitial(() -> LinkedBuffer.allocate(512));
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) {
+            return SerializationUtils.EMPTY_ARRAY;
+        }
+
+        LinkedBuffer buffer = BUFFER.get();
+        try {
+            return ProtostuffIOUtil.toByteArray(new ValueWrapper(value), SCHEMA, buffer);
+        } catch (Exception e) {
+            throw new SerializationException(String.format("protostuff 序列化 %s 异常", value.getClass().getName()), e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (SerializationUtils.isEmpty(bytes)) {
+            return null;
+        }
+
+        try {
+            ValueWrapper wrapper = SCHEMA.newMessage();
+            ProtostuffIOUtil.mergeFrom(bytes, wrapper, SCHEMA);
+            // NullValue 是单例，反序列化时替换成 NullValue.INSTANCE
+            return wrapper.value instanceof NullValue ? NullValue.INSTANCE : wrapper.value;
+        } catch (Exception e) {
+            throw new SerializationException("protostuff 反序列化异常", e);
+        }
+    }
+
+    /**
+     * protostuff 只能序列化对象的字段，使用包装类来支持任意类型的缓存值（集合、数组和基本类型的包装类等）
+     */
+    private static class ValueWrapper {
+        private Object value;
+
+        ValueWrapper() {
+        }
+
+        ValueWrapper(Object value) {
+            this.value = value;
+        }
+    }
+}
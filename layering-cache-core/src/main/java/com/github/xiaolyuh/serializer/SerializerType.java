@@ -0,0 +1,48 @@
+package com.github.xiaolyuh.serializer;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 内置的缓存值序列化方式
+ *
+ * @author yuhao.wang3
+ */
+public enum SerializerType {
+    /**
+     * protostuff，需要引入 protostuff-core 和 protostuff-runtime
+     */
+    PROTOSTUFF {
+        @Override
+        public RedisSerializer<Object> create() {
+            return new ProtostuffRedisSerializer();
+        }
+    },
+
+    /**
+     * kryo，需要引入 kryo
+     */
+    KRYO {
+        @Override
+        public RedisSerializer<Object> create() {
+            return new KryoRedisSerializer();
+        }
+    },
+
+    /**
+     * JDK 序列化，缓存值必须实现 {@link java.io.Serializable}
+     */
+    JDK {
+        @Override
+        public RedisSerializer<Object> create() {
+            return new JdkSerializationRedisSerializer();
+        }
+    };
+
+    /**
+     * 创建序列化器
+     *
+     * @return {@link RedisSerializer}
+     */
+    public abstract RedisSerializer<Object> create();
+}
@@ -1,5 +1,7 @@
 package com.github.xiaolyuh.setting;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.github.xiaolyuh.support.ExpireMode;
 
 import java.io.Serializable;
@@ -8,8 +10,12 @@ import java.util.concurrent.TimeUnit;
 /**
  * 一级缓存配置项
  *
+ * 和默认值相同的属性不写入统计数据，没有开启新增功能时统计数据的结构和旧版本保持一致
+ *
  * @author yuhao.wang
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_DEFAULT)
 public class FirstCacheSetting implements Serializable {
 
     /**
@@ -37,6 +43,22 @@ public class FirstCacheSetting implements Serializable {
      */
     private ExpireMode expireMode = ExpireMode.WRITE;
 
+    /**
+     * 写入后多久异步从二级缓存刷新，小于等于0表示不刷新，时间单位和 timeUnit 一致，需要小于缓存有效时间，只使用一级缓存时不支持
+     */
+    private int refreshAfterWrite = 0;
+
+    /**
+     * 每秒访问次数达到该值判定为热点key，小于等于0表示不探测热点key
+     */
+    private int hotKeyThreshold = 0;
+
+    /**
+     * 热点key固定在本地缓存中的有效时间，时间单位和 timeUnit 一致，小于等于0表示只探测不固定。
+     * 只使用二级缓存时热点key也会固定在本地缓存中
+     */
+    private int hotKeyExpireTime = 0;
+
     public FirstCacheSetting() {
     }
 
@@ -94,4 +116,28 @@ public class FirstCacheSetting implements Serializable {
     public void setExpireMode(ExpireMode expireMode) {
         this.expireMode = expireMode;
     }
+
+    public int getRefreshAfterWrite() {
+        return refreshAfterWrite;
+    }
+
+    public void setRefreshAfterWrite(int refreshAfterWrite) {
+        this.refreshAfterWrite = refreshAfterWrite;
+    }
+
+    public int getHotKeyThreshold() {
+        return hotKeyThreshold;
+    }
+
+    public void setHotKeyThreshold(int hotKeyThreshold) {
+        this.hotKeyThreshold = hotKeyThreshold;
+    }
+
+    public int getHotKeyExpireTime() {
+        return hotKeyExpireTime;
+    }
+
+    public void setHotKeyExpireTime(int hotKeyExpireTime) {
+        this.hotKeyExpireTime = hotKeyExpireTime;
+    }
 }
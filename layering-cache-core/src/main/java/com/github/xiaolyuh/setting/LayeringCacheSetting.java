@@ -1,6 +1,9 @@
 package com.github.xiaolyuh.setting;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.github.xiaolyuh.support.BloomFilterMode;
+import com.github.xiaolyuh.support.CacheMode;
 
 import java.io.Serializable;
 
@@ -9,6 +12,7 @@ import java.io.Serializable;
  *
  * @author yuhao.wang
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class LayeringCacheSetting implements Serializable {
     private static final String SPLIT = "-";
     /**
@@ -26,6 +30,13 @@ public class LayeringCacheSetting implements Serializable {
      */
     boolean useFirstCache = true;
 
+    /**
+     * 缓存模式，默认同时开启一级缓存和二级缓存。
+     * 不写入统计数据，反序列化时由 useFirstCache 和 internalKey 的后缀推导，统计数据的结构和旧版本保持一致
+     */
+    @JsonIgnore
+    private CacheMode cacheMode = CacheMode.ALL;
+
     /**
      * 一级缓存配置
      */
@@ -47,6 +58,15 @@ public class LayeringCacheSetting implements Serializable {
         internalKey();
     }
 
+    public LayeringCacheSetting(FirstCacheSetting firstCacheSetting, SecondaryCacheSetting secondaryCacheSetting,
+                                String depict, CacheMode cacheMode) {
+        this.firstCacheSetting = firstCacheSetting;
+        this.secondaryCacheSetting = secondaryCacheSetting;
+        this.depict = depict;
+        setCacheMode(cacheMode);
+        internalKey();
+    }
+
     @JsonIgnore
     private void internalKey() {
         // 一级缓存有效时间-二级缓存有效时间-二级缓存自动刷新时间
@@ -59,6 +79,41 @@ public class LayeringCacheSetting implements Serializable {
             sb.append(secondaryCacheSetting.getTimeUnit().toMillis(secondaryCacheSetting.getExpiration()));
             sb.append(SPLIT);
             sb.append(secondaryCacheSetting.getTimeUnit().toMillis(secondaryCacheSetting.getPreloadTime()));
+            // 开启概率提前刷新时才追加beta系数，不改变原有缓存的key
+            if (secondaryCacheSetting.getEarlyRefreshBeta() > 0) {
+                sb.append(SPLIT);
+                sb.append(secondaryCacheSetting.getEarlyRefreshBeta());
+            }
+            // 开启有效时间随机抖动时才追加抖动配置，不改变原有缓存的key
+            if (secondaryCacheSetting.getExpireJitterPercent() > 0) {
+                sb.append(SPLIT);
+                sb.append(secondaryCacheSetting.getExpireJitterPercent()).append("%");
+            } else if (secondaryCacheSetting.getExpireJitter() > 0) {
+                sb.append(SPLIT);
+                sb.append(secondaryCacheSetting.getTimeUnit().toMillis(secondaryCacheSetting.getExpireJitter()));
+            }
+            // 开启布隆过滤器时才追加过滤器模式，不改变原有缓存的key
+            if (secondaryCacheSetting.getBloomFilterMode() != null && secondaryCacheSetting.getBloomFilterMode() != BloomFilterMode.NONE) {
+                sb.append(SPLIT);
+                sb.append(secondaryCacheSetting.getBloomFilterMode().name());
+            }
+        }
+        // 开启一级缓存自动刷新时才追加刷新时间，不改变原有缓存的key
+        if (firstCacheSetting != null && firstCacheSetting.getRefreshAfterWrite() > 0) {
+            sb.append(SPLIT);
+            sb.append(firstCacheSetting.getTimeUnit().toMillis(firstCacheSetting.getRefreshAfterWrite()));
+        }
+        // 开启热点key探测时才追加热点key配置，不改变原有缓存的key
+        if (firstCacheSetting != null && firstCacheSetting.getHotKeyThreshold() > 0) {
+            sb.append(SPLIT);
+            sb.append(firstCacheSetting.getHotKeyThreshold());
+            sb.append(SPLIT);
+            sb.append(firstCacheSetting.getTimeUnit().toMillis(firstCacheSetting.getHotKeyExpireTime()));
+        }
+        // 只使用一级缓存或二级缓存时追加缓存模式，和同名的多级缓存区分开
+        if (cacheMode != CacheMode.ALL) {
+            sb.append(SPLIT);
+            sb.append(cacheMode.name());
         }
         internalKey = sb.toString();
     }
@@ -85,6 +140,20 @@ public class LayeringCacheSetting implements Serializable {
 
     public void setUseFirstCache(boolean useFirstCache) {
         this.useFirstCache = useFirstCache;
+        if (!useFirstCache) {
+            this.cacheMode = CacheMode.ONLY_SECOND;
+        } else if (cacheMode == CacheMode.ONLY_SECOND) {
+            this.cacheMode = CacheMode.ALL;
+        }
+    }
+
+    public CacheMode getCacheMode() {
+        return cacheMode;
+    }
+
+    public void setCacheMode(CacheMode cacheMode) {
+        this.cacheMode = cacheMode == null ? CacheMode.ALL : cacheMode;
+        this.useFirstCache = this.cacheMode != CacheMode.ONLY_SECOND;
     }
 
     public void setFirstCacheSetting(FirstCacheSetting firstCacheSetting) {
@@ -97,6 +166,11 @@ public class LayeringCacheSetting implements Serializable {
 
     public void setInternalKey(String internalKey) {
         this.internalKey = internalKey;
+        // 只使用一级缓存时内部缓存名以缓存模式结尾
+        if (internalKey != null && internalKey.endsWith(SPLIT + CacheMode.ONLY_FIRST.name())) {
+            this.cacheMode = CacheMode.ONLY_FIRST;
+            this.useFirstCache = true;
+        }
     }
 
     public String getDepict() {
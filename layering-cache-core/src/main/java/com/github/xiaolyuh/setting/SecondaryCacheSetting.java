@@ -1,13 +1,21 @@
 package com.github.xiaolyuh.setting;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.github.xiaolyuh.support.BloomFilterMode;
+
 import java.io.Serializable;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 二级缓存配置项
  *
+ * 和默认值相同的属性不写入统计数据，没有开启新增功能时统计数据的结构和旧版本保持一致
+ *
  * @author yuhao.wang
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_DEFAULT)
 public class SecondaryCacheSetting implements Serializable {
     /**
      * 缓存有效时间
@@ -48,6 +56,48 @@ public class SecondaryCacheSetting implements Serializable {
      */
     int magnification = 1;
 
+    /**
+     * 概率提前刷新（XFetch）的beta系数，默认是0，表示不开启，使用固定的preloadTime判断是否刷新
+     * <p>
+     * 开启后根据缓存剩余有效时间、加载数据的平均耗时和beta系数随机提前刷新缓存，
+     * 剩余有效时间越短、加载越慢、beta越大，越早刷新，集群中各节点不会在同一时间去抢刷新锁
+     * </p>
+     */
+    double earlyRefreshBeta = 0;
+
+    /**
+     * 缓存有效时间的随机抖动百分比，默认是0，表示不开启。大于0时优先于 expireJitter
+     * <p>
+     * 如配置缓存的有效时间是200秒，抖动百分比设置成10，那么缓存的有效时间是200~220秒之间的随机值，
+     * 批量预热的缓存不会在同一时间集中失效；一级缓存的有效时间也按这个百分比随机抖动
+     * </p>
+     */
+    int expireJitterPercent = 0;
+
+    /**
+     * 缓存有效时间的随机抖动时间，时间单位是 timeUnit，默认是0，表示不开启，只对二级缓存生效
+     */
+    long expireJitter = 0;
+
+    /**
+     * 布隆过滤器模式，默认不使用。只对不允许缓存NULL值的缓存生效
+     * <p>
+     * 过滤器判断一定不存在的key直接返回NULL，不再查询redis、加锁和执行被缓存的方法，
+     * 需要通过缓存管理器设置key来源初始化过滤器，初始化之前不过滤
+     * </p>
+     */
+    BloomFilterMode bloomFilterMode = BloomFilterMode.NONE;
+
+    /**
+     * 布隆过滤器预计的key数量
+     */
+    long bloomFilterExpectedInsertions = 1000000;
+
+    /**
+     * 布隆过滤器的误判率
+     */
+    double bloomFilterFpp = 0.01;
+
     public SecondaryCacheSetting() {
     }
 
@@ -125,4 +175,52 @@ public class SecondaryCacheSetting implements Serializable {
     public void setMagnification(int magnification) {
         this.magnification = magnification;
     }
+
+    public double getEarlyRefreshBeta() {
+        return earlyRefreshBeta;
+    }
+
+    public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+
+    public int getExpireJitterPercent() {
+        return expireJitterPercent;
+    }
+
+    public void setExpireJitterPercent(int expireJitterPercent) {
+        this.expireJitterPercent = expireJitterPercent;
+    }
+
+    public long getExpireJitter() {
+        return expireJitter;
+    }
+
+    public void setExpireJitter(long expireJitter) {
+        this.expireJitter = expireJitter;
+    }
+
+    public BloomFilterMode getBloomFilterMode() {
+        return bloomFilterMode;
+    }
+
+    public void setBloomFilterMode(BloomFilterMode bloomFilterMode) {
+        this.bloomFilterMode = bloomFilterMode;
+    }
+
+    public long getBloomFilterExpectedInsertions() {
+        return bloomFilterExpectedInsertions;
+    }
+
+    public void setBloomFilterExpectedInsertions(long bloomFilterExpectedInsertions) {
+        this.bloomFilterExpectedInsertions = bloomFilterExpectedInsertions;
+    }
+
+    public double getBloomFilterFpp() {
+        return bloomFilterFpp;
+    }
+
+    public void setBloomFilterFpp(double bloomFilterFpp) {
+        this.bloomFilterFpp = bloomFilterFpp;
+    }
 }
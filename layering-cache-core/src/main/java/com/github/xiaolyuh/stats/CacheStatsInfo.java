@@ -1,14 +1,18 @@
 package com.github.xiaolyuh.stats;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.github.xiaolyuh.setting.LayeringCacheSetting;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * 缓存命中率统计实体类
  *
  * @author yuhao.wang3
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class CacheStatsInfo implements Serializable {
 
     /**
@@ -71,6 +75,12 @@ public class CacheStatsInfo implements Serializable {
      */
     private LayeringCacheSetting layeringCacheSetting;
 
+    /**
+     * 最近一次上报统计数据的节点上访问次数最多的热点key，没有热点key时不写入统计数据
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<HotKey> hotKeys;
+
 
     public String getCacheName() {
         return cacheName;
@@ -152,6 +162,14 @@ public class CacheStatsInfo implements Serializable {
         this.layeringCacheSetting = layeringCacheSetting;
     }
 
+    public List<HotKey> getHotKeys() {
+        return hotKeys;
+    }
+
+    public void setHotKeys(List<HotKey> hotKeys) {
+        this.hotKeys = hotKeys;
+    }
+
     public String getDepict() {
         return depict;
     }
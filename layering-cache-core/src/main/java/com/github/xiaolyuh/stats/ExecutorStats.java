@@ -0,0 +1,73 @@
+package com.github.xiaolyuh.stats;
+
+import java.io.Serializable;
+
+/**
+ * 后台任务线程池统计信息
+ *
+ * @author yuhao.wang3
+ */
+public class ExecutorStats implements Serializable {
+
+    /**
+     * 线程池名称，共用线程池是 shared，按缓存名称隔离时是缓存名称，虚拟线程是 virtual
+     */
+    private String name;
+
+    /**
+     * 正在执行的任务数
+     */
+    private int activeCount;
+
+    /**
+     * 队列中等待执行的任务数
+     */
+    private int queueSize;
+
+    /**
+     * 线程池满了之后被丢弃的任务总数
+     */
+    private long rejectedCount;
+
+    public ExecutorStats() {
+    }
+
+    public ExecutorStats(String name, int activeCount, int queueSize, long rejectedCount) {
+        this.name = name;
+        this.activeCount = activeCount;
+        this.queueSize = queueSize;
+        this.rejectedCount = rejectedCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(int activeCount) {
+        this.activeCount = activeCount;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+}
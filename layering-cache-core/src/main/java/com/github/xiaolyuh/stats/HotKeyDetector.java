@@ -0,0 +1,224 @@
+package com.github.xiaolyuh.stats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 基于 Count-Min Sketch 的热点key探测器
+ * <p>每次访问在sketch中计数，每秒所有计数减半，稳定访问时计数约等于每秒访问次数的2倍；
+ * 估算的每秒访问次数达到阈值的key记录到候选集合中，候选集合最多保留 {@link #CAPACITY} 个访问最多的key</p>
+ * <p>计数减半由所有探测器共用的后台线程执行，不占用请求线程；后台线程延迟时，查询按照已经过去的窗口数折算计数</p>
+ *
+ * @author yuhao.wang3
+ */
+public class HotKeyDetector {
+
+    /**
+     * 候选热点key的最大数量
+     */
+    public static final int CAPACITY = 100;
+
+    /**
+     * sketch 的行数，每行使用一个哈希函数
+     */
+    private static final int DEPTH = 4;
+
+    /**
+     * sketch 每行的计数器个数，必须是2的幂
+     */
+    private static final int WIDTH = 4096;
+
+    /**
+     * 计数减半的时间间隔，单位毫秒
+     */
+    private static final long WINDOW_MILLIS = 1000;
+
+    private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    /**
+     * 计数最多右移的位数，超过后计数一定是0
+     */
+    private static final int MAX_SHIFT = 63;
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger(1);
+    private static final String PREFIX = "layering-cache-hot-key";
+
+    /**
+     * 定时减半计数的线程池
+     */
+    private static final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r);
+        int seq = SEQUENCE.getAndIncrement();
+        thread.setName(PREFIX + (seq > 1 ? "-" + seq : ""));
+        if (!thread.isDaemon()) {
+            thread.setDaemon(true);
+        }
+        return thread;
+    });
+
+    /**
+     * 所有的探测器，使用弱引用，缓存被回收后不再减半计数
+     */
+    private static final Set<HotKeyDetector> DETECTORS = Collections.newSetFromMap(new WeakHashMap<>());
+
+    static {
+        executorService.scheduleWithFixedDelay(HotKeyDetector::decayAll, WINDOW_MILLIS, WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private final AtomicLongArray counters = new AtomicLongArray(DEPTH * WIDTH);
+
+    /**
+     * 候选热点key
+     */
+    private final Set<Object> candidates = ConcurrentHashMap.newKeySet(CAPACITY * 2);
+
+    /**
+     * 当前窗口的开始时间
+     */
+    private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * 每秒访问次数达到该值判定为热点key
+     */
+    private final long threshold;
+
+    /**
+     * @param threshold 每秒访问次数达到该值判定为热点key
+     */
+    public HotKeyDetector(long threshold) {
+        this.threshold = threshold;
+        synchronized (DETECTORS) {
+            DETECTORS.add(this);
+        }
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param key 缓存key
+     */
+    public void record(Object key) {
+        if (key == null) {
+            return;
+        }
+        int hash = key.hashCode();
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, counters.incrementAndGet(index(hash, i)));
+        }
+        if ((min >> pendingShift()) / 2 >= threshold) {
+            candidates.add(key);
+            if (candidates.size() > CAPACITY) {
+                removeColdest();
+            }
+        }
+    }
+
+    /**
+     * 是否是热点key
+     *
+     * @param key 缓存key
+     * @return boolean
+     */
+    public boolean isHot(Object key) {
+        return key != null && (estimate(key.hashCode()) >> pendingShift()) / 2 >= threshold;
+    }
+
+    /**
+     * 获取访问次数最多的热点key
+     *
+     * @param n 数量
+     * @return 按访问次数倒序排列的热点key
+     */
+    public List<HotKey> getTopKeys(int n) {
+        int shift = pendingShift();
+        List<HotKey> hotKeys = new ArrayList<>(candidates.size());
+        for (Object key : candidates) {
+            long count = (estimate(key.hashCode()) >> shift) / 2;
+            if (count >= threshold) {
+                hotKeys.add(new HotKey(String.valueOf(key), count));
+            }
+        }
+        hotKeys.sort((o1, o2) -> Long.compare(o2.getCount(), o1.getCount()));
+        return hotKeys.size() > n ? new ArrayList<>(hotKeys.subList(0, n)) : hotKeys;
+    }
+
+    private long estimate(int hash) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, counters.get(index(hash, i)));
+        }
+        return min;
+    }
+
+    private static int index(int hash, int row) {
+        int h = hash * SEEDS[row];
+        h ^= h >>> 16;
+        return row * WIDTH + (h & (WIDTH - 1));
+    }
+
+    /**
+     * 距离上次减半已经过去、还没有执行减半的窗口数，即查询时计数需要右移的位数
+     */
+    private int pendingShift() {
+        long windows = (System.currentTimeMillis() - windowStart.get()) / WINDOW_MILLIS;
+        return (int) Math.min(windows, MAX_SHIFT);
+    }
+
+    /**
+     * 后台线程定时减半所有探测器的计数
+     */
+    private static void decayAll() {
+        List<HotKeyDetector> detectors;
+        synchronized (DETECTORS) {
+            detectors = new ArrayList<>(DETECTORS);
+        }
+        for (HotKeyDetector detector : detectors) {
+            detector.decay();
+        }
+    }
+
+    /**
+     * 过去了几个窗口计数就减半几次，期间的并发计数允许有误差
+     */
+    private void decay() {
+        long start = windowStart.get();
+        long windows = (System.currentTimeMillis() - start) / WINDOW_MILLIS;
+        if (windows <= 0 || !windowStart.compareAndSet(start, start + windows * WINDOW_MILLIS)) {
+            return;
+        }
+        int shift = (int) Math.min(windows, MAX_SHIFT);
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >> shift);
+        }
+        candidates.removeIf(key -> estimate(key.hashCode()) / 2 < threshold);
+    }
+
+    /**
+     * 删除候选集合中访问次数最少的key
+     */
+    private void removeColdest() {
+        Object coldest = null;
+        long min = Long.MAX_VALUE;
+        for (Object key : candidates) {
+            long count = estimate(key.hashCode());
+            if (count < min) {
+                min = count;
+                coldest = key;
+            }
+        }
+        if (coldest != null) {
+            candidates.remove(coldest);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.github.xiaolyuh.manager.AbstractCacheManager;
 import com.github.xiaolyuh.manager.CacheManager;
 import com.github.xiaolyuh.setting.LayeringCacheSetting;
 import com.github.xiaolyuh.support.Lock;
+import com.github.xiaolyuh.support.ThreadTaskUtils;
 import com.github.xiaolyuh.util.JsonUtils;
 import com.github.xiaolyuh.util.RedisHelper;
 import com.github.xiaolyuh.util.StringUtils;
@@ -30,9 +31,10 @@ public class StatsService {
     private static Logger logger = LoggerFactory.getLogger(StatsService.class);
 
     /**
-     * 缓存统计数据前缀
+     * 缓存统计数据前缀，统计数据中的缓存配置增加了字段，旧版本无法反序列化，使用新的前缀和旧版本的统计数据隔离。
+     * 新前缀不能以旧前缀开头，否则旧版本按前缀扫描时仍然会读到新版本的统计数据
      */
-    public static final String CACHE_STATS_KEY_PREFIX = "layering-cache:cache_stats_info:xiaolyuh:";
+    public static final String CACHE_STATS_KEY_PREFIX = "layering-cache:cache_stats_info_v2:xiaolyuh:";
 
     private static final AtomicInteger SEQUENCE = new AtomicInteger(1);
     private static final String PREFIX = "layering-cache-pool";
@@ -118,11 +120,16 @@ public class StatsService {
                                 cacheStats.setDepict(layeringCacheSetting.getDepict());
                                 // 设置缓存配置信息
                                 cacheStats.setLayeringCacheSetting(layeringCacheSetting);
+                                // 设置本节点的热点key
+                                cacheStats.setHotKeys(layeringCache.getHotKeys(10));
 
                                 // 设置缓存统计数据
                                 CacheStats layeringCacheStats = layeringCache.getCacheStats();
-                                CacheStats firstCacheStats = layeringCache.getFirstCache().getCacheStats();
-                                CacheStats secondCacheStats = layeringCache.getSecondCache().getCacheStats();
+                                // 只使用一级缓存或二级缓存时，没有创建的那一级缓存统计数据都是0
+                                CacheStats firstCacheStats = layeringCache.getFirstCache() == null
+                                        ? new CacheStats() : layeringCache.getFirstCache().getCacheStats();
+                                CacheStats secondCacheStats = layeringCache.getSecondCache() == null
+                                        ? new CacheStats() : layeringCache.getSecondCache().getCacheStats();
 
                                 // 清空加载缓存时间
                                 firstCacheStats.getAndResetCachedMethodRequestTime();
@@ -153,6 +160,8 @@ public class StatsService {
                 }
             }
 
+            logger.info("Layering Cache 线程池统计信息：{}", JsonUtils.toJson(ThreadTaskUtils.getExecutorStats()));
+
             //  初始时间间隔是1分
         }, 1, 1, TimeUnit.MINUTES);
     }
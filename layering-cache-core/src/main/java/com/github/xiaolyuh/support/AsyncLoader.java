@@ -0,0 +1,21 @@
+package com.github.xiaolyuh.support;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 异步加载缓存的回调方法，{@link com.github.xiaolyuh.cache.Cache#getAsync(Object, AsyncLoader)} 使用
+ *
+ * @param <T> 缓存值类型
+ * @author yuhao.wang3
+ */
+@FunctionalInterface
+public interface AsyncLoader<T> {
+
+    /**
+     * 异步加载缓存数据，加载完成时完成返回的 {@link CompletionStage}
+     *
+     * @return 加载结果
+     * @throws Exception 发起加载时的异常
+     */
+    CompletionStage<T> load() throws Exception;
+}
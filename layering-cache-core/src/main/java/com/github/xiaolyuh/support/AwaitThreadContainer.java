@@ -3,7 +3,6 @@ package com.github.xiaolyuh.support;
 import org.springframework.util.CollectionUtils;
 
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -18,6 +17,15 @@ import java.util.concurrent.locks.LockSupport;
 public class AwaitThreadContainer {
     private final Map<String, Set<Thread>> threadMap = new ConcurrentHashMap<>();
 
+    /**
+     * 将当前线程登记为等待线程，登记之后的唤醒不会丢失：如果在阻塞之前被唤醒，{@link #await} 会马上返回
+     * @param key 缓存Key
+     */
+    public final void register(String key) {
+        threadMap.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(Comparator.comparing(Thread::toString)))
+                .add(Thread.currentThread());
+    }
+
     /**
      * 线程等待,最大等待100毫秒
      * @param key 缓存Key
@@ -29,16 +37,25 @@ public class AwaitThreadContainer {
         if (Thread.interrupted()) {
             throw new InterruptedException();
         }
-        Set<Thread> threadSet = threadMap.get(key);
-        // 判断线程容器是否是null，如果是就新创建一个
-        if (threadSet == null) {
-            threadSet = new ConcurrentSkipListSet<>(Comparator.comparing(Thread::toString));
-            threadMap.put(key, threadSet);
-        }
         // 将线程放到容器
-        threadSet.add(Thread.currentThread());
-        // 阻塞一定的时间
-        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(milliseconds));
+        register(key);
+        try {
+            // 阻塞一定的时间
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(milliseconds));
+        } finally {
+            unregister(key);
+        }
+    }
+
+    /**
+     * 将当前线程从等待线程中移除，没有等待线程时删除key
+     * @param key 缓存Key
+     */
+    public final void unregister(String key) {
+        threadMap.computeIfPresent(key, (k, threadSet) -> {
+            threadSet.remove(Thread.currentThread());
+            return threadSet.isEmpty() ? null : threadSet;
+        });
     }
 
     /**
@@ -46,17 +63,11 @@ public class AwaitThreadContainer {
      * @param key key
      */
     public final void signalAll(String key) {
-        Set<Thread> threadSet = threadMap.get(key);
+        Set<Thread> threadSet = threadMap.remove(key);
         // 判断key所对应的等待线程容器是否是null
         if (!CollectionUtils.isEmpty(threadSet)) {
-            synchronized (threadSet){
-                if (!CollectionUtils.isEmpty(threadSet)) {
-                    for (Thread thread : threadSet) {
-                        LockSupport.unpark(thread);
-                    }
-                    // 清空等待线程容器
-                    threadSet.clear();
-                }
+            for (Thread thread : threadSet) {
+                LockSupport.unpark(thread);
             }
         }
     }
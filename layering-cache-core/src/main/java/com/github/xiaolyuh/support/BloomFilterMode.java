@@ -0,0 +1,35 @@
+package com.github.xiaolyuh.support;
+
+/**
+ * 二级缓存前置布隆过滤器的模式
+ *
+ * @author yuhao.wang3
+ */
+public enum BloomFilterMode {
+    /**
+     * 不使用布隆过滤器
+     */
+    NONE("不使用布隆过滤器"),
+
+    /**
+     * 每个节点在本地内存中维护一个布隆过滤器，其他节点写入或删除的key通过删除一级缓存的消息补充到过滤器，
+     * 查询redis命中的key也会补充到过滤器。消息丢失时（如订阅连接断开）缺少的key要等到下次重建才能补充，
+     * 不能容忍这种情况时使用 {@link #REDIS}
+     */
+    LOCAL("本地布隆过滤器"),
+
+    /**
+     * 所有节点共用一个保存在redis中的布隆过滤器，通过SETBIT/GETBIT操作
+     */
+    REDIS("redis布隆过滤器");
+
+    private String label;
+
+    BloomFilterMode(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -7,12 +7,12 @@ package com.github.xiaolyuh.support;
  */
 public enum CacheMode {
     /**
-     * 只开启一级缓存
+     * 只开启一级缓存，不访问redis也不发布删除消息，各节点的一级缓存数据互相独立
      */
     ONLY_FIRST("只是用一级缓存"),
 
     /**
-     * 只开启二级缓存
+     * 只开启二级缓存，不创建一级缓存，写操作不发布删除一级缓存的消息
      */
     ONLY_SECOND("只是使用二级缓存"),
 
@@ -26,4 +26,8 @@ public enum CacheMode {
     CacheMode(String label) {
         this.label = label;
     }
+
+    public String getLabel() {
+        return label;
+    }
 }
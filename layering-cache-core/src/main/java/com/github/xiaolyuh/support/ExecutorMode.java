@@ -0,0 +1,33 @@
+package com.github.xiaolyuh.support;
+
+/**
+ * 执行缓存刷新等后台任务的线程池模式
+ *
+ * @author yuhao.wang3
+ */
+public enum ExecutorMode {
+    /**
+     * 所有缓存共用一个有界线程池，线程池满了之后丢弃任务
+     */
+    SHARED("共用线程池"),
+
+    /**
+     * 每个缓存名称一个有界线程池，一个缓存的刷新任务堆积不会影响其他缓存
+     */
+    CACHE_NAME("按缓存名称隔离的线程池"),
+
+    /**
+     * 每个任务一个虚拟线程，不会丢弃任务，需要JDK 21+，低版本JDK降级成共用线程池
+     */
+    VIRTUAL_THREAD("虚拟线程");
+
+    private String label;
+
+    ExecutorMode(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.xiaolyuh.support;
+
+/**
+ * 删除一级缓存消息的传输方式
+ *
+ * @author yuhao.wang3
+ */
+public enum InvalidationMode {
+    /**
+     * 使用redis的发布/订阅，消息发出后不保留，订阅连接断开期间的消息会丢失
+     */
+    PUB_SUB("Redis Pub/Sub"),
+
+    /**
+     * 使用redis的Stream，每个节点记录最后读取的消息ID，连接恢复后可以重放断开期间的消息
+     */
+    STREAM("Redis Stream"),
+
+    /**
+     * 使用redis 6.0 的客户端缓存（CLIENT TRACKING BCAST），由redis服务端在key被修改时推送失效消息，
+     * 写缓存时不再发布删除消息，并且其他语言的客户端修改的key也能同步删除一级缓存，只支持单机模式
+     */
+    CLIENT_TRACKING("Redis Client Tracking");
+
+    private String label;
+
+    InvalidationMode(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
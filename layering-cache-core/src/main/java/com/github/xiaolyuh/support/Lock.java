@@ -48,6 +48,11 @@ public class Lock {
      */
     private static final String OK = "OK";
 
+    /**
+     * 锁的key后缀，redis中实际的key是 lockKey + LOCK_SUFFIX
+     */
+    public static final String LOCK_SUFFIX = "_lock";
+
     /**
      * 默认请求锁的超时时间(ms 毫秒)
      */
@@ -112,7 +117,7 @@ public class Lock {
      */
     public Lock(RedisTemplate<String, Object> redisTemplate, String lockKey) {
         this.redisTemplate = redisTemplate;
-        this.lockKey = lockKey + "_lock";
+        this.lockKey = lockKey + LOCK_SUFFIX;
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.github.xiaolyuh.support;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -18,6 +20,7 @@ import java.util.Map;
  * @author yuhao.wang3
  */
 public class MdcThreadPoolTaskExecutor extends ThreadPoolTaskExecutor {
+    private static final Logger log = LoggerFactory.getLogger(MdcThreadPoolTaskExecutor.class);
 
     /**
      * 所有线程都会委托给这个execute方法，在这个方法中我们把父线程的MDC内容赋值给子线程
@@ -27,9 +30,19 @@ public class MdcThreadPoolTaskExecutor extends ThreadPoolTaskExecutor {
      */
     @Override
     public void execute(Runnable runnable) {
+        super.execute(wrap(runnable));
+    }
+
+    /**
+     * 包装任务，执行任务时把当前线程的MDC内容传给子线程，其他执行器（如虚拟线程）也可以使用
+     *
+     * @param runnable {@link Runnable}
+     * @return 包装后的任务
+     */
+    public static Runnable wrap(Runnable runnable) {
         // 获取父线程MDC中的内容，必须在run方法之前，否则等异步线程执行的时候有可能MDC里面的值已经被清空了，这个时候就会返回null
         Map<String, String> context = MDC.getCopyOfContextMap();
-        super.execute(() -> run(runnable, context));
+        return () -> run(runnable, context);
     }
 
     /**
@@ -38,13 +51,13 @@ public class MdcThreadPoolTaskExecutor extends ThreadPoolTaskExecutor {
      * @param runnable {@link Runnable}
      * @param context  父线程MDC内容
      */
-    private void run(Runnable runnable, Map<String, String> context) {
+    private static void run(Runnable runnable, Map<String, String> context) {
         // 将父线程的MDC内容传给子线程
         if (context != null) {
             try {
                 MDC.setContextMap(context);
             } catch (Exception e) {
-                logger.error(e.getMessage(), e);
+                log.error(e.getMessage(), e);
             }
         }
         try {
@@ -1,15 +1,90 @@
 package com.github.xiaolyuh.support;
 
+import com.github.xiaolyuh.stats.ExecutorStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 线程池
+ * <p>支持三种模式：所有缓存共用一个线程池（默认）、每个缓存名称一个有界线程池、每个任务一个虚拟线程（JDK 21+），
+ * 通过 {@link #getExecutorStats()} 获取队列长度和被丢弃的任务数</p>
  *
  * @author yuhao.wang3
  */
 public class ThreadTaskUtils {
+    private static final Logger logger = LoggerFactory.getLogger(ThreadTaskUtils.class);
+
+    /**
+     * 共用线程池的统计名称
+     */
+    private static final String SHARED_NAME = "shared";
+
+    /**
+     * 虚拟线程的统计名称
+     */
+    private static final String VIRTUAL_NAME = "virtual";
+
     private static MdcThreadPoolTaskExecutor taskExecutor = null;
 
+    /**
+     * 共用线程池被丢弃的任务数
+     */
+    private static final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * 按缓存名称隔离的线程池，key是缓存名称
+     */
+    private static final Map<String, MdcThreadPoolTaskExecutor> cacheNameExecutors = new ConcurrentHashMap<>();
+
+    /**
+     * 按缓存名称隔离的线程池被丢弃的任务数，key是缓存名称
+     */
+    private static final Map<String, LongAdder> cacheNameRejectedCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 正在执行的虚拟线程任务数
+     */
+    private static final AtomicInteger virtualActiveCount = new AtomicInteger();
+
+    /**
+     * 线程池模式
+     */
+    private static volatile ExecutorMode executorMode = ExecutorMode.SHARED;
+
+    /**
+     * 虚拟线程执行器，为NULL表示当前JDK不支持虚拟线程
+     */
+    private static volatile Executor virtualThreadExecutor;
+
+    /**
+     * 当前线程提交的任务被丢弃时是否抛出 {@link RejectedExecutionException}
+     */
+    private static final ThreadLocal<Boolean> throwOnReject = new ThreadLocal<>();
+
+    /**
+     * 按缓存名称隔离时每个线程池的最大线程数
+     */
+    private static volatile int cacheNamePoolSize = 4;
+
+    /**
+     * 按缓存名称隔离时每个线程池的队列最大长度
+     */
+    private static volatile int cacheNameQueueCapacity = 100;
+
     static {
         taskExecutor = new MdcThreadPoolTaskExecutor();
         // 核心线程数
@@ -26,8 +101,9 @@ public class ThreadTaskUtils {
          * ThreadPoolExecutor.DiscardPolicy：也是丢弃任务，但是不抛出异常。
          * ThreadPoolExecutor.DiscardOldestPolicy：丢弃队列最前面的任务，然后重新尝试执行任务（重复此过程）
          * ThreadPoolExecutor.CallerRunsPolicy：由调用线程处理该任务,如果执行器已关闭,则丢弃.
+         * 这里丢弃任务，但是记录丢弃的任务数
          */
-        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        taskExecutor.setRejectedExecutionHandler(new CountingDiscardPolicy(SHARED_NAME, rejectedCount));
 
         taskExecutor.initialize();
     }
@@ -35,4 +111,156 @@ public class ThreadTaskUtils {
     public static void run(Runnable runnable) {
         taskExecutor.execute(runnable);
     }
+
+    /**
+     * 根据线程池模式执行缓存的后台任务
+     *
+     * @param cacheName 缓存名称
+     * @param runnable  任务
+     */
+    public static void run(String cacheName, Runnable runnable) {
+        ExecutorMode mode = executorMode;
+        if (mode == ExecutorMode.VIRTUAL_THREAD && virtualThreadExecutor != null) {
+            runVirtual(runnable);
+            return;
+        }
+        if (mode == ExecutorMode.CACHE_NAME) {
+            cacheNameExecutors.computeIfAbsent(cacheName, ThreadTaskUtils::createCacheNameExecutor).execute(runnable);
+            return;
+        }
+        run(runnable);
+    }
+
+    /**
+     * 获取按线程池模式执行缓存后台任务的执行器，任务被丢弃时记录丢弃数并抛出 {@link RejectedExecutionException}，
+     * 给需要知道任务没有执行的调用方使用，如 Caffeine 提交刷新任务失败时会恢复缓存的写入时间
+     *
+     * @param cacheName 缓存名称
+     * @return {@link Executor}
+     */
+    public static Executor getExecutor(String cacheName) {
+        return runnable -> {
+            throwOnReject.set(Boolean.TRUE);
+            try {
+                run(cacheName, runnable);
+            } finally {
+                throwOnReject.remove();
+            }
+        };
+    }
+
+    private static void runVirtual(Runnable runnable) {
+        Runnable task = MdcThreadPoolTaskExecutor.wrap(runnable);
+        virtualThreadExecutor.execute(() -> {
+            virtualActiveCount.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                virtualActiveCount.decrementAndGet();
+            }
+        });
+    }
+
+    private static MdcThreadPoolTaskExecutor createCacheNameExecutor(String cacheName) {
+        MdcThreadPoolTaskExecutor executor = new MdcThreadPoolTaskExecutor();
+        executor.setCorePoolSize(cacheNamePoolSize);
+        executor.setMaxPoolSize(cacheNamePoolSize);
+        executor.setQueueCapacity(cacheNameQueueCapacity);
+        executor.setKeepAliveSeconds(120);
+        // 空闲时回收核心线程，缓存名称很多时不会一直占用线程
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("layering-cache-" + cacheName + "-");
+        LongAdder counter = cacheNameRejectedCounts.computeIfAbsent(cacheName, k -> new LongAdder());
+        executor.setRejectedExecutionHandler(new CountingDiscardPolicy(cacheName, counter));
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 通过反射创建虚拟线程执行器，兼容JDK 8的编译
+     */
+    private static Executor createVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) method.invoke(null);
+        } catch (Exception e) {
+            logger.warn("当前JDK {} 不支持虚拟线程，使用共用线程池执行后台任务", System.getProperty("java.version"));
+            return null;
+        }
+    }
+
+    /**
+     * 获取所有线程池的统计信息
+     *
+     * @return 统计信息，共用线程池在第一个
+     */
+    public static List<ExecutorStats> getExecutorStats() {
+        List<ExecutorStats> stats = new ArrayList<>(cacheNameExecutors.size() + 2);
+        stats.add(getExecutorStats(SHARED_NAME, taskExecutor, rejectedCount));
+        for (Map.Entry<String, MdcThreadPoolTaskExecutor> entry : cacheNameExecutors.entrySet()) {
+            stats.add(getExecutorStats(entry.getKey(), entry.getValue(), cacheNameRejectedCounts.get(entry.getKey())));
+        }
+        if (virtualThreadExecutor != null) {
+            stats.add(new ExecutorStats(VIRTUAL_NAME, virtualActiveCount.get(), 0, 0));
+        }
+        return stats;
+    }
+
+    private static ExecutorStats getExecutorStats(String name, MdcThreadPoolTaskExecutor executor, LongAdder rejected) {
+        ThreadPoolExecutor threadPoolExecutor = executor.getThreadPoolExecutor();
+        return new ExecutorStats(name, threadPoolExecutor.getActiveCount(), threadPoolExecutor.getQueue().size(),
+                rejected == null ? 0 : rejected.sum());
+    }
+
+    public static ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    /**
+     * 设置线程池模式，之后提交的任务生效
+     *
+     * @param executorMode {@link ExecutorMode}
+     */
+    public static synchronized void setExecutorMode(ExecutorMode executorMode) {
+        Assert.notNull(executorMode, "线程池模式不能为NULL");
+        if (executorMode == ExecutorMode.VIRTUAL_THREAD && virtualThreadExecutor == null) {
+            virtualThreadExecutor = createVirtualThreadExecutor();
+        }
+        ThreadTaskUtils.executorMode = executorMode;
+    }
+
+    /**
+     * 设置按缓存名称隔离时每个线程池的大小，只对之后创建的线程池生效
+     *
+     * @param poolSize      最大线程数
+     * @param queueCapacity 队列最大长度
+     */
+    public static void setCacheNamePoolSize(int poolSize, int queueCapacity) {
+        Assert.isTrue(poolSize > 0, "线程数必须大于0");
+        cacheNamePoolSize = poolSize;
+        cacheNameQueueCapacity = queueCapacity;
+    }
+
+    /**
+     * 丢弃任务并记录丢弃的任务数
+     */
+    private static class CountingDiscardPolicy implements RejectedExecutionHandler {
+        private final String name;
+        private final LongAdder counter;
+
+        CountingDiscardPolicy(String name, LongAdder counter) {
+            this.name = name;
+            this.counter = counter;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            counter.increment();
+            logger.warn("线程池 {} 已满，丢弃后台任务，队列长度：{}，累计丢弃：{}", name, executor.getQueue().size(), counter.sum());
+            // 拒绝策略在提交任务的线程上执行
+            if (Boolean.TRUE.equals(throwOnReject.get())) {
+                throw new RejectedExecutionException("线程池 " + name + " 已满");
+            }
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.github.xiaolyuh.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * {@link CompletableFuture} 工具
+ *
+ * @author yuhao.wang3
+ */
+public abstract class FutureUtils {
+
+    /**
+     * 返回一个已经异常完成的 {@link CompletableFuture}
+     *
+     * @param ex  异常
+     * @param <T> 结果类型
+     * @return CompletableFuture
+     */
+    public static <T> CompletableFuture<T> failedFuture(Throwable ex) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(ex);
+        return future;
+    }
+
+    /**
+     * 去掉 {@link CompletionException} 和 {@link ExecutionException} 的包装，返回真实的异常
+     *
+     * @param ex 异常
+     * @return 真实的异常
+     */
+    public static Throwable unwrap(Throwable ex) {
+        Throwable cause = ex;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
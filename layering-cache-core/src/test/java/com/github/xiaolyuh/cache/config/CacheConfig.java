@@ -16,6 +16,11 @@ public class CacheConfig {
         LayeringCacheManager layeringCacheManager = new LayeringCacheManager(redisTemplate);
         // 开启统计功能
         layeringCacheManager.setStats(true);
+        // 开启批量发布删除一级缓存消息
+        layeringCacheManager.setEvictBatchInterval(20);
+        // 所有缓存名称共用2个频道
+        layeringCacheManager.setNamespace("layering-cache-test");
+        layeringCacheManager.setChannelShards(2);
         return layeringCacheManager;
     }
 
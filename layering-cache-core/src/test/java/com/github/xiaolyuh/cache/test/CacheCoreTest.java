@@ -2,16 +2,40 @@ package com.github.xiaolyuh.cache.test;
 
 import com.github.xiaolyuh.cache.Cache;
 import com.github.xiaolyuh.cache.LayeringCache;
+import com.github.xiaolyuh.cache.caffeine.CaffeineCache;
 import com.github.xiaolyuh.cache.config.CacheConfig;
 import com.github.xiaolyuh.cache.redis.RedisCache;
 import com.github.xiaolyuh.cache.redis.RedisCacheKey;
+import com.github.xiaolyuh.listener.RedisMessageListener;
+import com.github.xiaolyuh.listener.RedisPubSubMessage;
+import com.github.xiaolyuh.listener.RedisPubSubMessageCodec;
+import com.github.xiaolyuh.listener.RedisPubSubMessageType;
+import com.github.xiaolyuh.listener.RedisPublisher;
+import com.github.xiaolyuh.listener.RedisStreamMessageListener;
+import com.github.xiaolyuh.listener.RedisStreamMessagePublisher;
+import com.github.xiaolyuh.listener.RedisTrackingMessageListener;
+import com.github.xiaolyuh.manager.AbstractCacheManager;
 import com.github.xiaolyuh.manager.CacheManager;
+import com.github.xiaolyuh.manager.LayeringCacheManager;
+import com.github.xiaolyuh.serializer.CompressionRedisSerializer;
+import com.github.xiaolyuh.serializer.CompressionType;
+import com.github.xiaolyuh.serializer.SerializerType;
 import com.github.xiaolyuh.setting.FirstCacheSetting;
 import com.github.xiaolyuh.setting.LayeringCacheSetting;
 import com.github.xiaolyuh.setting.SecondaryCacheSetting;
 import com.github.xiaolyuh.stats.CacheStats;
+import com.github.xiaolyuh.stats.ExecutorStats;
+import com.github.xiaolyuh.stats.HotKeyDetector;
+import com.github.xiaolyuh.support.AwaitThreadContainer;
+import com.github.xiaolyuh.support.BloomFilterMode;
+import com.github.xiaolyuh.support.CacheMode;
+import com.github.xiaolyuh.support.ExecutorMode;
 import com.github.xiaolyuh.support.ExpireMode;
+import com.github.xiaolyuh.support.InvalidationMode;
 import com.github.xiaolyuh.support.Lock;
+import com.github.xiaolyuh.support.NullValue;
+import com.github.xiaolyuh.support.SerializationException;
+import com.github.xiaolyuh.support.ThreadTaskUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -19,12 +43,36 @@ import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 // SpringJUnit4ClassRunner再Junit环境下提供Spring TestContext Framework的功能。
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -39,6 +87,12 @@ public class CacheCoreTest {
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Value("${spring.redis.host:127.0.0.1}")
+    private String redisHost;
+
+    @Value("${spring.redis.port:6379}")
+    private int redisPort;
+
     private LayeringCacheSetting layeringCacheSetting1;
     private LayeringCacheSetting layeringCacheSetting2;
     private LayeringCacheSetting layeringCacheSetting4;
@@ -330,6 +384,940 @@ public class CacheCoreTest {
     }
 
 
+    @Test
+    public void testSoftRefreshWithTtl() {
+        // 软刷新模式，缓存有效时间10秒，剩余8秒以内自动刷新
+        FirstCacheSetting firstCacheSetting = new FirstCacheSetting(10, 1000, 1, TimeUnit.SECONDS, ExpireMode.WRITE);
+        SecondaryCacheSetting secondaryCacheSetting = new SecondaryCacheSetting(10, 8, TimeUnit.SECONDS, false, false, 1);
+        LayeringCacheSetting layeringCacheSetting = new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting, "");
+
+        String cacheName = "cache:name:soft";
+        String cacheKey = "cache:key:soft";
+        LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting);
+        cache.put(cacheKey, "soft");
+        RedisCacheKey redisCacheKey = ((RedisCache) cache.getSecondCache()).getRedisCacheKey(cacheKey);
+        sleep(3);
+        Long ttl = redisTemplate.getExpire(redisCacheKey.getKey());
+        Assert.assertTrue(ttl <= 7);
+
+        // 命中二级缓存，不会执行被缓存方法，并且会延长缓存的有效时间
+        String value = cache.getSecondCache().get(cacheKey, () -> {
+            throw new IllegalStateException("不应该执行被缓存方法");
+        });
+        Assert.assertEquals("soft", value);
+        ttl = redisTemplate.getExpire(redisCacheKey.getKey());
+        Assert.assertTrue(ttl > 8);
+    }
+
+    @Test
+    public void testGetAll() {
+        String cacheName = "cache:name:getAll";
+        LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting5);
+        cache.clear();
+        sleep(1);
+        cache.put("cache:key:getAll:1", "value1");
+        cache.getSecondCache().put("cache:key:getAll:2", "value2");
+
+        List<String> keys = Arrays.asList("cache:key:getAll:1", "cache:key:getAll:2", "cache:key:getAll:3", "cache:key:getAll:4");
+        List<Collection<String>> loadKeys = new ArrayList<>();
+        Map<String, String> result = cache.getAll(keys, missKeys -> {
+            loadKeys.add(new ArrayList<>(missKeys));
+            Map<String, String> values = new HashMap<>();
+            values.put("cache:key:getAll:3", "value3");
+            return values;
+        });
+
+        // 只加载一次，并且只加载缓存中不存在的key
+        Assert.assertEquals(1, loadKeys.size());
+        Assert.assertEquals(Arrays.asList("cache:key:getAll:3", "cache:key:getAll:4"), loadKeys.get(0));
+        // 返回值按照key的顺序，值为NULL的key不返回
+        Assert.assertEquals(Arrays.asList("cache:key:getAll:1", "cache:key:getAll:2", "cache:key:getAll:3"), new ArrayList<>(result.keySet()));
+        Assert.assertEquals("value3", result.get("cache:key:getAll:3"));
+        // 加载的数据会放到一级缓存和二级缓存
+        Assert.assertEquals("value3", cache.getFirstCache().get("cache:key:getAll:3"));
+        Assert.assertEquals("value3", cache.getSecondCache().get("cache:key:getAll:3"));
+
+        // 再次批量获取，全部命中缓存不会执行加载方法
+        result = cache.getAll(keys.subList(0, 3), missKeys -> {
+            throw new IllegalStateException("不应该执行被缓存方法");
+        });
+        Assert.assertEquals(3, result.size());
+    }
+
+    @Test
+    public void testBatchEvictFirstCache() {
+        // 同一个缓存名称下两个不同配置的缓存，通过删除消息同步一级缓存
+        String cacheName = "cache:name:batchEvict";
+        LayeringCache cache1 = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting1);
+        LayeringCache cache2 = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting2);
+        cache2.getFirstCache().put("cache:key:batchEvict:1", "value1");
+        cache2.getFirstCache().put("cache:key:batchEvict:2", "value2");
+        cache2.getFirstCache().put("cache:key:batchEvict:3", "value3");
+
+        cache1.evict("cache:key:batchEvict:1");
+        cache1.put("cache:key:batchEvict:2", "value22");
+        cache1.evict("cache:key:batchEvict:2");
+        sleep(1);
+
+        Assert.assertNull(cache2.getFirstCache().get("cache:key:batchEvict:1"));
+        Assert.assertNull(cache2.getFirstCache().get("cache:key:batchEvict:2"));
+        Assert.assertEquals("value3", cache2.getFirstCache().get("cache:key:batchEvict:3"));
+    }
+
+    @Test
+    public void testPubSubMessageCodec() {
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        RedisPubSubMessageCodec codec = new RedisPubSubMessageCodec(serializer);
+        RedisPubSubMessage message = new RedisPubSubMessage();
+        message.setCacheName("cache:name:codec");
+        message.setMessageType(RedisPubSubMessageType.EVICT);
+        message.setKeys(Arrays.asList("key1", 2L, 3, null, new BigDecimal("4.5")));
+
+        byte[] body = codec.encode(message);
+        Assert.assertTrue(RedisPubSubMessageCodec.isBinary(body));
+        Assert.assertFalse(RedisPubSubMessageCodec.isBinary(serializer.serialize(message)));
+        RedisPubSubMessage result = codec.decode(body);
+        Assert.assertEquals("cache:name:codec", result.getCacheName());
+        Assert.assertEquals(RedisPubSubMessageType.EVICT, result.getMessageType());
+        Assert.assertEquals(message.getKeys(), result.getKeys());
+
+        message = new RedisPubSubMessage();
+        message.setCacheName("cache:name:codec");
+        message.setMessageType(RedisPubSubMessageType.CLEAR);
+        result = codec.decode(codec.encode(message));
+        Assert.assertEquals(RedisPubSubMessageType.CLEAR, result.getMessageType());
+        Assert.assertNull(result.getKey());
+        Assert.assertNull(result.getKeys());
+
+        // 单个key的删除消息不包含keys字段，旧版本节点可以反序列化
+        message = new RedisPubSubMessage();
+        message.setCacheName("cache:name:codec");
+        message.setMessageType(RedisPubSubMessageType.EVICT);
+        message.setKey("key1");
+        Assert.assertFalse(new String(serializer.serialize(message)).contains("keys"));
+    }
+
+    @Test
+    public void testStreamReplay() {
+        String streamKey = "layering-cache:stream:test-replay";
+        redisTemplate.delete(streamKey);
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        RedisPubSubMessageCodec codec = new RedisPubSubMessageCodec(serializer);
+        RedisMessageListener messageListener = new RedisMessageListener();
+        messageListener.setCacheManager((AbstractCacheManager) cacheManager);
+        RedisStreamMessagePublisher publisher = new RedisStreamMessagePublisher(redisTemplate, codec, streamKey, 1000);
+        RedisStreamMessageListener listener = new RedisStreamMessageListener(redisTemplate, messageListener, codec, streamKey, 60000);
+        listener.poll();
+        Assert.assertEquals("0-0", listener.getLastId());
+
+        String cacheName = "cache:name:streamReplay";
+        LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting5);
+        cache.getFirstCache().put("cache:key:streamReplay:1", "value1");
+        cache.getFirstCache().put("cache:key:streamReplay:2", "value2");
+        cache.getFirstCache().put("cache:key:streamReplay:3", "value3");
+
+        // 订阅者没有拉取消息期间（相当于连接断开）发布的消息，在下次拉取时重放
+        RedisPubSubMessage message = new RedisPubSubMessage();
+        message.setCacheName(cacheName);
+        message.setMessageType(RedisPubSubMessageType.EVICT);
+        message.setKey("cache:key:streamReplay:1");
+        publisher.publish(message);
+        message.setKey(null);
+        message.setKeys(Arrays.asList("cache:key:streamReplay:2", "cache:key:streamReplay:4"));
+        publisher.publish(message);
+        Assert.assertEquals("value1", cache.getFirstCache().get("cache:key:streamReplay:1"));
+
+        listener.poll();
+        Assert.assertNull(cache.getFirstCache().get("cache:key:streamReplay:1"));
+        Assert.assertNull(cache.getFirstCache().get("cache:key:streamReplay:2"));
+        Assert.assertEquals("value3", cache.getFirstCache().get("cache:key:streamReplay:3"));
+        Assert.assertNotEquals("0-0", listener.getLastId());
+
+        Assert.assertTrue(RedisStreamMessageListener.compareId("10-1", "9-5") > 0);
+        Assert.assertTrue(RedisStreamMessageListener.compareId("10-1", "10-2") < 0);
+        Assert.assertEquals(0, RedisStreamMessageListener.compareId("10-2", "10-2"));
+        redisTemplate.delete(streamKey);
+    }
+
+    @Test
+    public void testClientTracking() {
+        String cacheName = "cache:name:tracking";
+        RedisMessageListener messageListener = new RedisMessageListener();
+        messageListener.setCacheManager((AbstractCacheManager) cacheManager);
+        RedisTrackingMessageListener listener = new RedisTrackingMessageListener((AbstractCacheManager) cacheManager,
+                messageListener, new RedisStandaloneConfiguration(redisHost, redisPort));
+        listener.start();
+        try {
+            LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting5);
+            cache.setEvictByClientTracking(true);
+            listener.addCacheName(cacheName);
+            // 等待使用新的key前缀重新订阅
+            sleep(2);
+            cache.getFirstCache().put("key1", "value1");
+            // 不是String类型的key通过多级缓存写入一级缓存，记录redis key和一级缓存key的映射
+            redisTemplate.opsForValue().set(cacheName + ":2", "value2");
+            Assert.assertEquals("value2", cache.get(2L));
+            cache.getFirstCache().put("key3", "value3");
+            // 缓存内部的加锁、解锁和等待标记不删除一级缓存
+            for (String suffix : Arrays.asList(RedisCache.SYNC_LOCK_SUFFIX, RedisCache.REFRESH_LOCK_SUFFIX)) {
+                Lock lock = new Lock(redisTemplate, cacheName + ":key3" + suffix);
+                Assert.assertTrue(lock.tryLock());
+                lock.unlock();
+            }
+            redisTemplate.opsForValue().set(cacheName + ":key3" + RedisCache.SYNC_WAITING_SUFFIX, "1");
+            redisTemplate.delete(cacheName + ":key3" + RedisCache.SYNC_WAITING_SUFFIX);
+            // 业务key以 _lock 结尾时仍然删除一级缓存
+            cache.getFirstCache().put("order:123_lock", "value4");
+
+            // 直接修改redis中的key，模拟其他节点或者其他语言的客户端写缓存
+            redisTemplate.opsForValue().set(cacheName + ":key1", "value11");
+            redisTemplate.opsForValue().set(cacheName + ":2", "value22");
+            redisTemplate.opsForValue().set(cacheName + ":order:123_lock", "value44");
+            sleep(1);
+
+            Assert.assertNull(cache.getFirstCache().get("key1"));
+            Assert.assertNull(cache.getFirstCache().get(2L));
+            Assert.assertNull(cache.getFirstCache().get("order:123_lock"));
+            Assert.assertEquals("value3", cache.getFirstCache().get("key3"));
+        } finally {
+            listener.destroy();
+            redisTemplate.delete(Arrays.asList(cacheName + ":key1", cacheName + ":2", cacheName + ":order:123_lock"));
+        }
+    }
+
+    @Test
+    public void testClientTrackingPubSub() throws Exception {
+        // 两个节点，客户端缓存模式下清空缓存和不使用前缀的缓存仍然通过Pub/Sub删除其他节点的一级缓存
+        LayeringCacheManager manager1 = newCacheManager("layering-cache-test-tracking", InvalidationMode.CLIENT_TRACKING);
+        LayeringCacheManager manager2 = newCacheManager("layering-cache-test-tracking", InvalidationMode.CLIENT_TRACKING);
+        String cacheName = "cache:name:trackingPubSub";
+        String cacheKey = "cache:key:trackingPubSub";
+        SecondaryCacheSetting noPrefixSetting = new SecondaryCacheSetting(10, 7, TimeUnit.SECONDS, true, false, 1);
+        noPrefixSetting.setUsePrefix(false);
+        LayeringCacheSetting noPrefix = new LayeringCacheSetting(new FirstCacheSetting(10, 1000, 5, TimeUnit.SECONDS, ExpireMode.WRITE),
+                noPrefixSetting, "");
+        try {
+            LayeringCache cache1 = (LayeringCache) manager1.getCache(cacheName, layeringCacheSetting5);
+            LayeringCache cache2 = (LayeringCache) manager2.getCache(cacheName, layeringCacheSetting5);
+            LayeringCache noPrefixCache1 = (LayeringCache) manager1.getCache(cacheName + ":noPrefix", noPrefix);
+            LayeringCache noPrefixCache2 = (LayeringCache) manager2.getCache(cacheName + ":noPrefix", noPrefix);
+            // 等待使用新的key前缀重新订阅，重新订阅时会清空新增缓存名称的一级缓存
+            sleep(2);
+            cache1.put(cacheKey, "value1");
+            Assert.assertEquals("value1", cache2.get(cacheKey, String.class));
+            Assert.assertEquals("value1", cache2.getFirstCache().get(cacheKey, String.class));
+            cache1.clear();
+            sleep(1);
+            Assert.assertNull(cache2.getFirstCache().get(cacheKey));
+
+            noPrefixCache1.put(cacheKey, "value2");
+            Assert.assertEquals("value2", noPrefixCache2.get(cacheKey, String.class));
+            noPrefixCache1.evict(cacheKey);
+            sleep(1);
+            Assert.assertNull(noPrefixCache2.getFirstCache().get(cacheKey));
+        } finally {
+            manager1.destroy();
+            manager2.destroy();
+            redisTemplate.delete(cacheKey);
+        }
+    }
+
+    @Test
+    public void testRedisCacheKey() {
+        LayeringCache cache = (LayeringCache) cacheManager.getCache("cache:name:redisKey", layeringCacheSetting5);
+        RedisCacheKey redisCacheKey = ((RedisCache) cache.getSecondCache()).getRedisCacheKey(123L);
+        Assert.assertEquals("cache:name:redisKey:123", redisCacheKey.getKey());
+        // 同一个key对象只序列化一次
+        Assert.assertSame(redisCacheKey.getKey(), redisCacheKey.getKey());
+        Assert.assertSame(redisCacheKey.getKeyBytes(), redisCacheKey.getKeyBytes());
+        Assert.assertEquals(redisCacheKey.getKey(), new RedisCacheKey(123L, redisTemplate.getKeySerializer())
+                .cacheName("cache:name:redisKey").getKey());
+        Assert.assertEquals("123", redisCacheKey.usePrefix(false).getKey());
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        String cacheName = "cache:name:singleFlight";
+        String cacheKey = "cache:key:singleFlight";
+        LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting5);
+        cache.evict(cacheKey);
+        Cache redisCache = cache.getSecondCache();
+
+        // 同一个JVM内同一个key并发加载，只执行一次被缓存的方法
+        AtomicInteger loadCount = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(executorService.submit(() -> redisCache.get(cacheKey, () -> {
+                    loadCount.incrementAndGet();
+                    Thread.sleep(200);
+                    return "value";
+                })));
+            }
+            for (Future<String> future : futures) {
+                Assert.assertEquals("value", future.get());
+            }
+            Assert.assertEquals(1, loadCount.get());
+            cache.evict(cacheKey);
+
+            // 加载线程长时间没有返回时，等待线程超时后自己加载数据
+            CountDownLatch hung = new CountDownLatch(1);
+            Future<String> hungFuture = executorService.submit(() -> redisCache.get(cacheKey, () -> {
+                hung.await();
+                return "hung";
+            }));
+            Thread.sleep(100);
+            long start = System.currentTimeMillis();
+            Assert.assertEquals("value", redisCache.get(cacheKey, () -> "value"));
+            Assert.assertTrue(System.currentTimeMillis() - start < 3000);
+            hung.countDown();
+            Assert.assertEquals("hung", hungFuture.get());
+            cache.evict(cacheKey);
+
+            // 被缓存的方法在同一个线程内再次加载同一个key，不会等待自己的加载结果
+            Future<String> reentrant = executorService.submit(() -> redisCache.get(cacheKey, () -> redisCache.get(cacheKey, () -> "inner")));
+            Assert.assertEquals("inner", reentrant.get(3, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdown();
+            cache.evict(cacheKey);
+        }
+    }
+
+    @Test
+    public void testLoadedNotify() throws Exception {
+        // 登记之后收到的唤醒不会丢失
+        AwaitThreadContainer container = new AwaitThreadContainer();
+        container.register("cache:key:await");
+        container.signalAll("cache:key:await");
+        long start = System.currentTimeMillis();
+        container.await("cache:key:await", 5000);
+        Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+
+        String cacheName = "cache:name:loadedNotify";
+        String cacheKey = "cache:key:loadedNotify";
+        LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting5);
+        RedisCache redisCache = (RedisCache) cache.getSecondCache();
+        String redisKey = redisCache.getRedisCacheKey(cacheKey).getKey();
+        redisTemplate.delete(redisKey);
+
+        // 模拟其他节点拿到锁加载数据，加载完成后发布通知
+        Lock lock = new Lock(redisTemplate, redisKey + "_sync_lock");
+        Assert.assertTrue(lock.lock());
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> future = executorService.submit(() -> redisCache.get(cacheKey, () -> "local"));
+            Thread.sleep(50);
+            // 等待线程登记了等待标记，加载完成的节点根据标记决定是否发布通知
+            Assert.assertTrue(redisTemplate.hasKey(redisKey + RedisCache.SYNC_WAITING_SUFFIX));
+            redisTemplate.opsForValue().set(redisKey, "remote", 100, TimeUnit.SECONDS);
+            RedisPublisher.publisher(redisTemplate, ((AbstractCacheManager) cacheManager).getLoadedTopic(), redisKey.getBytes());
+            Assert.assertEquals("remote", future.get());
+            lock.unlock();
+
+            // 拿到锁加载完数据后消费等待标记
+            redisTemplate.delete(redisKey);
+            redisTemplate.opsForValue().set(redisKey + RedisCache.SYNC_WAITING_SUFFIX, "1", 10, TimeUnit.SECONDS);
+            Assert.assertEquals("local", redisCache.get(cacheKey, () -> "local"));
+            Assert.assertFalse(redisTemplate.hasKey(redisKey + RedisCache.SYNC_WAITING_SUFFIX));
+        } finally {
+            lock.unlock();
+            executorService.shutdown();
+            redisTemplate.delete(redisKey);
+        }
+    }
+
+    /**
+     * 测试按缓存名称指定二级缓存的序列化器
+     */
+    @Test
+    public void testValueSerializer() {
+        AbstractCacheManager manager = (AbstractCacheManager) cacheManager;
+        Map<String, RedisSerializer<Object>> valueSerializers = new HashMap<>();
+        for (SerializerType type : SerializerType.values()) {
+            valueSerializers.put("cache:name:serializer:" + type, type.create());
+        }
+        manager.setValueSerializers(valueSerializers);
+
+        try {
+            for (SerializerType type : SerializerType.values()) {
+                RedisSerializer<Object> serializer = valueSerializers.get("cache:name:serializer:" + type);
+                Assert.assertSame(NullValue.INSTANCE, serializer.deserialize(serializer.serialize(NullValue.INSTANCE)));
+                Assert.assertNull(serializer.deserialize(serializer.serialize(null)));
+
+                Map<String, Object> value = new HashMap<>();
+                value.put("amount", new BigDecimal("12.30"));
+                value.put("date", new Date(1600000000000L));
+                value.put("list", new ArrayList<>(Arrays.asList(1L, "2", 3.0)));
+
+                String cacheName = "cache:name:serializer:" + type;
+                LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting5);
+                cache.put("cache:key:serializer", value);
+                cache.getFirstCache().evict("cache:key:serializer");
+                Assert.assertEquals(type.name(), value, cache.get("cache:key:serializer", Map.class));
+
+                // 二级缓存使用指定的序列化器，默认的 JSON 序列化器无法读取
+                byte[] bytes = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                        connection.get((cacheName + ":cache:key:serializer").getBytes()));
+                Assert.assertEquals(type.name(), value, serializer.deserialize(bytes));
+                cache.evict("cache:key:serializer");
+            }
+        } finally {
+            manager.setValueSerializers(Collections.emptyMap());
+        }
+    }
+
+    @Test
+    public void testCompression() {
+        RedisSerializer<Object> jsonSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append("layering-cache-").append(i % 10);
+        }
+        String bigValue = sb.toString();
+
+        for (CompressionType type : CompressionType.values()) {
+            CompressionRedisSerializer serializer = new CompressionRedisSerializer(jsonSerializer, type, 1024);
+            byte[] bytes = serializer.serialize(bigValue);
+            Assert.assertTrue(CompressionRedisSerializer.isCompressed(bytes));
+            Assert.assertTrue(bytes.length < bigValue.length() / 2);
+            Assert.assertEquals(bigValue, serializer.deserialize(bytes));
+
+            // 小于阈值的数据不压缩，没有压缩头的旧数据可以直接读取
+            Assert.assertFalse(CompressionRedisSerializer.isCompressed(serializer.serialize("value")));
+            Assert.assertEquals(bigValue, serializer.deserialize(jsonSerializer.serialize(bigValue)));
+
+            // 压缩头中写入算法的固定编号，不依赖枚举的声明顺序
+            Assert.assertEquals(type.getId(), bytes[2]);
+            Assert.assertSame(type, CompressionType.of(type.getId()));
+        }
+        Assert.assertEquals(0, CompressionType.LZ4.getId());
+        Assert.assertEquals(1, CompressionType.DEFLATE.getId());
+
+        // 不认识的算法编号直接报错
+        byte[] unknown = new CompressionRedisSerializer(jsonSerializer, CompressionType.LZ4, 1024).serialize(bigValue);
+        unknown[2] = 127;
+        try {
+            new CompressionRedisSerializer(jsonSerializer, CompressionType.LZ4, 1024).deserialize(unknown);
+            Assert.fail();
+        } catch (SerializationException e) {
+            Assert.assertTrue(e.getMessage().contains("127"));
+        }
+
+        AbstractCacheManager manager = (AbstractCacheManager) cacheManager;
+        manager.setCompressionType(CompressionType.LZ4);
+        manager.setCompressionThreshold(1024);
+        try {
+            String cacheName = "cache:name:compression";
+            LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting5);
+            cache.put("cache:key:compression", bigValue);
+            cache.getFirstCache().evict("cache:key:compression");
+            Assert.assertEquals(bigValue, cache.get("cache:key:compression", String.class));
+
+            byte[] bytes = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                    connection.get((cacheName + ":cache:key:compression").getBytes()));
+            Assert.assertTrue(CompressionRedisSerializer.isCompressed(bytes));
+            cache.evict("cache:key:compression");
+        } finally {
+            manager.setCompressionType(null);
+            manager.setCompressionThreshold(4096);
+        }
+    }
+
+    @Test
+    public void testFirstCacheRefreshAfterWrite() {
+        FirstCacheSetting firstCacheSetting = new FirstCacheSetting(10, 1000, 10, TimeUnit.SECONDS, ExpireMode.WRITE);
+        firstCacheSetting.setRefreshAfterWrite(1);
+        SecondaryCacheSetting secondaryCacheSetting = new SecondaryCacheSetting(100, 20, TimeUnit.SECONDS, true, false, 1);
+        LayeringCacheSetting layeringCacheSetting = new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting, "");
+
+        String cacheName = "cache:name:refresh";
+        String cacheKey = "cache:key:refresh";
+        LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting);
+        cache.put(cacheKey, "value1");
+        // 等待删除一级缓存的消息处理完
+        sleep(1);
+        Assert.assertEquals("value1", cache.get(cacheKey, String.class));
+        Assert.assertEquals("value1", cache.getFirstCache().get(cacheKey, String.class));
+
+        // 直接修改二级缓存，超过刷新时间之后一级缓存先返回旧值，再异步从二级缓存刷新
+        redisTemplate.opsForValue().set(cacheName + ":" + cacheKey, "value2", 100, TimeUnit.SECONDS);
+        sleep(2);
+        Assert.assertEquals("value1", cache.getFirstCache().get(cacheKey, String.class));
+        sleep(1);
+        Assert.assertEquals("value2", cache.getFirstCache().get(cacheKey, String.class));
+
+        // 二级缓存删除后刷新会删除一级缓存
+        redisTemplate.delete(cacheName + ":" + cacheKey);
+        sleep(2);
+        cache.getFirstCache().get(cacheKey, String.class);
+        sleep(1);
+        Assert.assertNull(cache.getFirstCache().get(cacheKey, String.class));
+
+        // 刷新在缓存的后台线程池执行，不占用 ForkJoinPool.commonPool()
+        AtomicReference<String> refreshThread = new AtomicReference<>();
+        ((CaffeineCache) cache.getFirstCache()).setRefreshLoader(key -> {
+            refreshThread.set(Thread.currentThread().getName());
+            return "value3";
+        });
+        ThreadTaskUtils.setExecutorMode(ExecutorMode.CACHE_NAME);
+        try {
+            cache.getFirstCache().put(cacheKey, "value2");
+            sleep(2);
+            cache.getFirstCache().get(cacheKey, String.class);
+            sleep(1);
+            Assert.assertEquals("value3", cache.getFirstCache().get(cacheKey, String.class));
+            Assert.assertTrue(refreshThread.get().startsWith("layering-cache-" + cacheName + "-"));
+        } finally {
+            ThreadTaskUtils.setExecutorMode(ExecutorMode.SHARED);
+        }
+    }
+
+    @Test
+    public void testCacheMode() {
+        FirstCacheSetting firstCacheSetting = new FirstCacheSetting(10, 1000, 10, TimeUnit.SECONDS, ExpireMode.WRITE);
+        SecondaryCacheSetting secondaryCacheSetting = new SecondaryCacheSetting(100, 20, TimeUnit.SECONDS, true, false, 1);
+
+        // 只使用一级缓存，不写redis
+        String cacheName = "cache:name:mode:first";
+        String cacheKey = "cache:key:mode";
+        LayeringCacheSetting onlyFirstSetting = new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting, "", CacheMode.ONLY_FIRST);
+        LayeringCache onlyFirst = (LayeringCache) cacheManager.getCache(cacheName, onlyFirstSetting);
+        Assert.assertNull(onlyFirst.getSecondCache());
+        onlyFirst.put(cacheKey, "value1");
+        Assert.assertEquals("value1", onlyFirst.get(cacheKey, String.class));
+        Assert.assertEquals("value1", onlyFirst.get(cacheKey, () -> "value2"));
+        Assert.assertNull(redisTemplate.opsForValue().get(cacheName + ":" + cacheKey));
+        onlyFirst.evict(cacheKey);
+        Assert.assertNull(onlyFirst.get(cacheKey));
+        Assert.assertNotEquals(onlyFirstSetting.getInternalKey(), layeringCacheSetting5.getInternalKey());
+
+        // 只使用一级缓存时没有自动刷新的新值来源，不支持自动刷新
+        FirstCacheSetting refreshSetting = new FirstCacheSetting(10, 1000, 10, TimeUnit.SECONDS, ExpireMode.WRITE);
+        refreshSetting.setRefreshAfterWrite(5);
+        try {
+            cacheManager.getCache("cache:name:mode:firstRefresh",
+                    new LayeringCacheSetting(refreshSetting, secondaryCacheSetting, "", CacheMode.ONLY_FIRST));
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("refreshAfterWrite"));
+        }
+
+        // 只使用二级缓存，不创建一级缓存
+        cacheName = "cache:name:mode:second";
+        LayeringCacheSetting onlySecondSetting = new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting, "", CacheMode.ONLY_SECOND);
+        Assert.assertFalse(onlySecondSetting.isUseFirstCache());
+        LayeringCache onlySecond = (LayeringCache) cacheManager.getCache(cacheName, onlySecondSetting);
+        Assert.assertNull(onlySecond.getFirstCache());
+        onlySecond.evict(cacheKey);
+        Assert.assertEquals("value1", onlySecond.get(cacheKey, () -> "value1"));
+        Assert.assertEquals("value1", redisTemplate.opsForValue().get(cacheName + ":" + cacheKey));
+        onlySecond.put(cacheKey, "value2");
+        Assert.assertEquals("value2", onlySecond.get(cacheKey, String.class));
+        Assert.assertNotNull(onlySecond.getCacheStats());
+        onlySecond.evict(cacheKey);
+        Assert.assertNull(onlySecond.get(cacheKey));
+
+        // 统计数据中的缓存配置不包含缓存模式和没有开启的新增配置，旧版本节点可以反序列化，缓存模式由其他字段推导
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        for (LayeringCacheSetting setting : Arrays.asList(onlyFirstSetting, onlySecondSetting, layeringCacheSetting5)) {
+            String json = new String(serializer.serialize(setting));
+            Assert.assertFalse(json.contains("cacheMode"));
+            Assert.assertFalse(json.contains("refreshAfterWrite"));
+            Assert.assertFalse(json.contains("bloomFilter"));
+            LayeringCacheSetting result = (LayeringCacheSetting) serializer.deserialize(json.getBytes());
+            Assert.assertEquals(setting.getCacheMode(), result.getCacheMode());
+            Assert.assertEquals(setting.isUseFirstCache(), result.isUseFirstCache());
+            Assert.assertEquals(setting.getInternalKey(), result.getInternalKey());
+        }
+    }
+
+    @Test
+    public void testEarlyRefresh() {
+        FirstCacheSetting firstCacheSetting = new FirstCacheSetting(10, 1000, 10, TimeUnit.SECONDS, ExpireMode.WRITE);
+        // 固定刷新时间是0，只有概率提前刷新会触发刷新
+        SecondaryCacheSetting secondaryCacheSetting = new SecondaryCacheSetting(100, 0, TimeUnit.SECONDS, true, false, 1);
+        secondaryCacheSetting.setEarlyRefreshBeta(1000000000);
+        LayeringCacheSetting layeringCacheSetting = new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting, "");
+        Assert.assertNotEquals(layeringCacheSetting.getInternalKey(),
+                new LayeringCacheSetting(firstCacheSetting, new SecondaryCacheSetting(100, 0, TimeUnit.SECONDS, true, false, 1), "").getInternalKey());
+
+        String cacheName = "cache:name:early:refresh";
+        String cacheKey = "cache:key:early:refresh";
+        LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting);
+        cache.evict(cacheKey);
+        AtomicInteger count = new AtomicInteger();
+        Callable<String> valueLoader = () -> {
+            count.incrementAndGet();
+            Thread.sleep(10);
+            return "value";
+        };
+        Assert.assertEquals("value", cache.getSecondCache().get(cacheKey, valueLoader));
+        Assert.assertEquals(1, count.get());
+
+        // 剩余有效时间远大于固定刷新时间，beta很大时概率提前刷新几乎一定会触发
+        Assert.assertEquals("value", cache.getSecondCache().get(cacheKey, valueLoader));
+        sleep(1);
+        Assert.assertEquals(2, count.get());
+        cache.evict(cacheKey);
+
+        // 本节点还没有加载过数据时使用固定的预刷新时间
+        SecondaryCacheSetting preloadSetting = new SecondaryCacheSetting(101, 101, TimeUnit.SECONDS, true, false, 1);
+        preloadSetting.setEarlyRefreshBeta(1);
+        LayeringCache readOnlyCache = (LayeringCache) cacheManager.getCache(cacheName,
+                new LayeringCacheSetting(firstCacheSetting, preloadSetting, ""));
+        readOnlyCache.getSecondCache().put(cacheKey, "value");
+        Assert.assertEquals("value", readOnlyCache.getSecondCache().get(cacheKey, valueLoader));
+        sleep(1);
+        Assert.assertEquals(3, count.get());
+        readOnlyCache.evict(cacheKey);
+    }
+
+    @Test
+    public void testExpireJitter() {
+        FirstCacheSetting firstCacheSetting = new FirstCacheSetting(10, 1000, 10, TimeUnit.SECONDS, ExpireMode.WRITE);
+        SecondaryCacheSetting secondaryCacheSetting = new SecondaryCacheSetting(100, 20, TimeUnit.SECONDS, true, false, 1);
+        secondaryCacheSetting.setExpireJitterPercent(50);
+        LayeringCacheSetting layeringCacheSetting = new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting, "");
+
+        String cacheName = "cache:name:jitter";
+        LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting);
+        com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache =
+                (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getFirstCache().getNativeCache();
+        Assert.assertTrue(nativeCache.policy().expireVariably().isPresent());
+
+        // 二级缓存的有效时间在 100~150 秒之间随机
+        Set<Long> ttls = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            String cacheKey = "cache:key:jitter:" + i;
+            cache.put(cacheKey, "value");
+            Long ttl = redisTemplate.getExpire(cacheName + ":" + cacheKey, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(ttl > 90 * 1000 && ttl <= 150 * 1000);
+            ttls.add(ttl / 10);
+            cache.evict(cacheKey);
+        }
+        Assert.assertTrue(ttls.size() > 1);
+    }
+
+    @Test
+    public void testBloomFilter() {
+        for (BloomFilterMode mode : new BloomFilterMode[]{BloomFilterMode.LOCAL, BloomFilterMode.REDIS}) {
+            FirstCacheSetting firstCacheSetting = new FirstCacheSetting(10, 1000, 10, TimeUnit.SECONDS, ExpireMode.WRITE);
+            SecondaryCacheSetting secondaryCacheSetting = new SecondaryCacheSetting(100, 20, TimeUnit.SECONDS, true, false, 1);
+            secondaryCacheSetting.setBloomFilterMode(mode);
+            secondaryCacheSetting.setBloomFilterExpectedInsertions(1000);
+            LayeringCacheSetting layeringCacheSetting = new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting, "");
+
+            String cacheName = "cache:name:bloom:" + mode.name();
+            ((AbstractCacheManager) cacheManager).setBloomFilterKeySource(cacheName, () -> Collections.singletonList("exists"));
+            LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting);
+            cache.evict("exists");
+            // 等待初始化布隆过滤器
+            sleep(1);
+
+            // 布隆过滤器判断不存在的key不执行被缓存的方法
+            AtomicInteger count = new AtomicInteger();
+            Assert.assertNull(cache.get("not-exists", () -> {
+                count.incrementAndGet();
+                return "value";
+            }));
+            Assert.assertEquals(0, count.get());
+            Assert.assertEquals("value", cache.get("exists", () -> {
+                count.incrementAndGet();
+                return "value";
+            }));
+            Assert.assertEquals(1, count.get());
+
+            // put的key马上加入布隆过滤器
+            cache.put("new", "value");
+            sleep(1);
+            Assert.assertEquals("value", cache.get("new", String.class));
+
+            // 其他节点写入redis的key，过滤器中没有也能查询到
+            String otherKey = ((RedisCache) cache.getSecondCache()).getRedisCacheKey("other").getKey();
+            redisTemplate.opsForValue().set(otherKey, "other", 20, TimeUnit.SECONDS);
+            Assert.assertEquals("other", cache.get("other", () -> "loaded"));
+
+            // 删除的key加入布隆过滤器，删除之后可以重新加载
+            cache.evict("deleted");
+            sleep(1);
+            Assert.assertEquals("loaded", cache.get("deleted", () -> "loaded"));
+            cache.evict("exists");
+            cache.evict("new");
+            cache.evict("other");
+            cache.evict("deleted");
+        }
+    }
+
+    @Test
+    public void testBloomFilterMultiNode() throws Exception {
+        // 两个节点使用本地布隆过滤器，一个节点写入或删除的key通过删除消息补充到另一个节点的过滤器
+        LayeringCacheManager manager1 = newCacheManager("layering-cache-test-bloom", InvalidationMode.PUB_SUB);
+        LayeringCacheManager manager2 = newCacheManager("layering-cache-test-bloom", InvalidationMode.PUB_SUB);
+        try {
+            for (CacheMode cacheMode : new CacheMode[]{CacheMode.ALL, CacheMode.ONLY_SECOND}) {
+                FirstCacheSetting firstCacheSetting = new FirstCacheSetting(10, 1000, 10, TimeUnit.SECONDS, ExpireMode.WRITE);
+                SecondaryCacheSetting secondaryCacheSetting = new SecondaryCacheSetting(100, 20, TimeUnit.SECONDS, true, false, 1);
+                secondaryCacheSetting.setBloomFilterMode(BloomFilterMode.LOCAL);
+                secondaryCacheSetting.setBloomFilterExpectedInsertions(1000);
+                LayeringCacheSetting layeringCacheSetting = new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting, "", cacheMode);
+
+                String cacheName = "cache:name:bloom:multiNode:" + cacheMode.name();
+                manager1.setBloomFilterKeySource(cacheName, () -> Collections.singletonList("exists"));
+                manager2.setBloomFilterKeySource(cacheName, () -> Collections.singletonList("exists"));
+                LayeringCache cache1 = (LayeringCache) manager1.getCache(cacheName, layeringCacheSetting);
+                LayeringCache cache2 = (LayeringCache) manager2.getCache(cacheName, layeringCacheSetting);
+                // 等待初始化布隆过滤器
+                sleep(1);
+                Assert.assertNull(cache2.get("inserted", () -> "loaded"));
+
+                // 节点1新增数据后删除缓存，节点2不需要等待重建过滤器就能加载到数据
+                cache1.evict("inserted");
+                sleep(1);
+                Assert.assertEquals("loaded", cache2.get("inserted", () -> "loaded"));
+
+                // 节点1写入缓存后redis中的数据过期，节点2仍然能重新加载
+                cache1.put("put", "value");
+                sleep(1);
+                redisTemplate.delete(((RedisCache) cache1.getSecondCache()).getRedisCacheKey("put").getKey());
+                Assert.assertEquals("loaded", cache2.get("put", () -> "loaded"));
+                cache1.evict("inserted");
+                cache1.evict("put");
+            }
+        } finally {
+            manager1.destroy();
+            manager2.destroy();
+        }
+    }
+
+    @Test
+    public void testHotKey() {
+        FirstCacheSetting firstCacheSetting = new FirstCacheSetting(10, 1000, 10, TimeUnit.SECONDS, ExpireMode.WRITE);
+        firstCacheSetting.setHotKeyThreshold(1);
+        firstCacheSetting.setHotKeyExpireTime(60);
+        SecondaryCacheSetting secondaryCacheSetting = new SecondaryCacheSetting(100, 20, TimeUnit.SECONDS, true, true, 1);
+        LayeringCacheSetting layeringCacheSetting = new LayeringCacheSetting(firstCacheSetting, secondaryCacheSetting, "", CacheMode.ONLY_SECOND);
+
+        String cacheKey = "cache:key:hot";
+        LayeringCache cache = (LayeringCache) cacheManager.getCache("cache:name:hot", layeringCacheSetting);
+        Assert.assertNull(cache.getFirstCache());
+        cache.put(cacheKey, "hot");
+        sleep(1);
+
+        // 只使用二级缓存时，访问频繁的key也会固定到本地缓存
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("hot", cache.get(cacheKey, String.class));
+        }
+        Assert.assertFalse(cache.getHotKeys(10).isEmpty());
+        Assert.assertEquals(cacheKey, cache.getHotKeys(10).get(0).getKey());
+        Assert.assertEquals("hot", cache.getHotKeyCache().get(cacheKey, String.class));
+
+        // 批量获取时固定的热点key直接从本地缓存获取，不再查询二级缓存
+        redisTemplate.delete(((RedisCache) cache.getSecondCache()).getRedisCacheKey(cacheKey).getKey());
+        Map<String, String> result = cache.getAll(Collections.singletonList(cacheKey), missKeys -> {
+            throw new IllegalStateException("不应该执行被缓存方法");
+        });
+        Assert.assertEquals("hot", result.get(cacheKey));
+
+        // 批量获取也会记录访问次数，访问频繁的key固定到本地缓存
+        String batchKey = "cache:key:hot:batch";
+        cache.put(batchKey, "batch");
+        sleep(1);
+        for (int i = 0; i < 10; i++) {
+            result = cache.getAll(Arrays.asList(cacheKey, batchKey), missKeys -> new HashMap<>());
+            Assert.assertEquals(Arrays.asList(cacheKey, batchKey), new ArrayList<>(result.keySet()));
+        }
+        Assert.assertEquals("batch", cache.getHotKeyCache().get(batchKey, String.class));
+        cache.evict(batchKey);
+
+        // 更新缓存时删除固定的热点key
+        cache.put(cacheKey, "hot2");
+        sleep(1);
+        Assert.assertNull(cache.getHotKeyCache().get(cacheKey));
+        Assert.assertEquals("hot2", cache.get(cacheKey, String.class));
+        cache.evict(cacheKey);
+
+        // 没有访问之后计数按照过去的窗口数减半，不再是热点key
+        HotKeyDetector detector = new HotKeyDetector(1);
+        for (int i = 0; i < 10; i++) {
+            detector.record(cacheKey);
+        }
+        Assert.assertTrue(detector.isHot(cacheKey));
+        sleep(4);
+        Assert.assertFalse(detector.isHot(cacheKey));
+        Assert.assertTrue(detector.getTopKeys(10).isEmpty());
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        String cacheName = "cache:name:async";
+        String cacheKey = "cache:key:async";
+        LayeringCache cache = (LayeringCache) cacheManager.getCache(cacheName, layeringCacheSetting5);
+        cache.evictAsync(cacheKey).get();
+        // 等待删除一级缓存的消息处理完
+        sleep(1);
+        Assert.assertNull(cache.getAsync(cacheKey).get());
+
+        // 没有命中时只加载一次，加载结果写入二级缓存
+        AtomicInteger count = new AtomicInteger();
+        CompletableFuture<String> loading = new CompletableFuture<>();
+        CompletableFuture<String> future1 = cache.getAsync(cacheKey, () -> {
+            count.incrementAndGet();
+            return loading;
+        });
+        CompletableFuture<String> future2 = cache.getSecondCache().getAsync(cacheKey, () -> {
+            count.incrementAndGet();
+            return loading;
+        });
+        loading.complete("async");
+        Assert.assertEquals("async", future1.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals("async", future2.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, count.get());
+        Assert.assertEquals("async", cache.getSecondCache().getAsync(cacheKey).get());
+        Assert.assertEquals("async", cache.getFirstCache().get(cacheKey, String.class));
+
+        cache.putAsync(cacheKey, "value2").get();
+        // 等待删除一级缓存的消息处理完
+        sleep(1);
+        Assert.assertNull(cache.getFirstCache().get(cacheKey));
+        Assert.assertEquals("value2", cache.getAsync(cacheKey).get());
+
+        cache.evictAsync(cacheKey).get();
+        Assert.assertNull(cache.getSecondCache().getAsync(cacheKey).get());
+
+        // 加载异常
+        try {
+            cache.getAsync(cacheKey, () -> {
+                throw new IllegalStateException("async");
+            }).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RedisCache.LoaderCacheValueException);
+        }
+    }
+
+    @Test
+    public void testDefaultMethods() throws Exception {
+        // 外部实现只实现原有方法，批量和异步方法使用接口的默认实现
+        Map<Object, Object> store = new ConcurrentHashMap<>();
+        Cache cache = new Cache() {
+            @Override
+            public String getName() {
+                return "cache:name:default";
+            }
+
+            @Override
+            public Object getNativeCache() {
+                return store;
+            }
+
+            @Override
+            public Object get(Object key) {
+                return store.get(key);
+            }
+
+            @Override
+            public <T> T get(Object key, Class<T> type) {
+                return type.cast(store.get(key));
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T get(Object key, Callable<T> valueLoader) {
+                return (T) store.computeIfAbsent(key, k -> {
+                    try {
+                        return valueLoader.call();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            }
+
+            @Override
+            public void put(Object key, Object value) {
+                store.put(key, value);
+            }
+
+            @Override
+            public Object putIfAbsent(Object key, Object value) {
+                return store.putIfAbsent(key, value);
+            }
+
+            @Override
+            public void evict(Object key) {
+                store.remove(key);
+            }
+
+            @Override
+            public void clear() {
+                store.clear();
+            }
+
+            @Override
+            public CacheStats getCacheStats() {
+                return new CacheStats();
+            }
+        };
+
+        cache.put("k1", "v1");
+        cache.put("k3", NullValue.INSTANCE);
+        List<Collection<String>> loadKeys = new ArrayList<>();
+        Map<String, String> values = cache.getAll(Arrays.asList("k2", "k1", "k3"), keys -> {
+            loadKeys.add(keys);
+            return Collections.singletonMap("k2", "v2");
+        });
+        Assert.assertEquals(Arrays.asList("k2", "k1"), new ArrayList<>(values.keySet()));
+        Assert.assertEquals(Collections.singletonList(Collections.singleton("k2")), loadKeys);
+        Assert.assertEquals("v2", store.get("k2"));
+
+        Assert.assertEquals("v1", cache.getAsync("k1").get(5, TimeUnit.SECONDS));
+        Assert.assertEquals("v4", cache.getAsync("k4", () -> CompletableFuture.completedFuture("v4")).get(5, TimeUnit.SECONDS));
+        Assert.assertEquals("v4", store.get("k4"));
+        cache.putAsync("k5", "v5").get(5, TimeUnit.SECONDS);
+        Assert.assertEquals("v5", store.get("k5"));
+        cache.evictAsync("k5").get(5, TimeUnit.SECONDS);
+        Assert.assertFalse(store.containsKey("k5"));
+    }
+
+    @Test
+    public void testExecutorMode() throws Exception {
+        ThreadTaskUtils.setCacheNamePoolSize(1, 1);
+        ThreadTaskUtils.setExecutorMode(ExecutorMode.CACHE_NAME);
+        CountDownLatch block = new CountDownLatch(1);
+        try {
+            // 1个线程执行，1个任务排队，其他任务被丢弃
+            for (int i = 0; i < 4; i++) {
+                ThreadTaskUtils.run("cache:name:executor", () -> {
+                    try {
+                        block.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            ExecutorStats stats = null;
+            for (ExecutorStats executorStats : ThreadTaskUtils.getExecutorStats()) {
+                if ("cache:name:executor".equals(executorStats.getName())) {
+                    stats = executorStats;
+                }
+            }
+            Assert.assertNotNull(stats);
+            Assert.assertEquals(1, stats.getQueueSize());
+            Assert.assertEquals(2, stats.getRejectedCount());
+            Assert.assertEquals("shared", ThreadTaskUtils.getExecutorStats().get(0).getName());
+
+            // 不支持虚拟线程的JDK降级成共用线程池，任务都能执行
+            ThreadTaskUtils.setExecutorMode(ExecutorMode.VIRTUAL_THREAD);
+            CountDownLatch done = new CountDownLatch(1);
+            ThreadTaskUtils.run("cache:name:executor", done::countDown);
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            block.countDown();
+            ThreadTaskUtils.setExecutorMode(ExecutorMode.SHARED);
+            ThreadTaskUtils.setCacheNamePoolSize(4, 100);
+        }
+    }
+
     /**
      * 测试统计
      */
@@ -383,6 +1371,19 @@ public class CacheCoreTest {
     }
 
 
+    /**
+     * 新建一个独立的CacheManager，模拟集群中的其他节点
+     */
+    private LayeringCacheManager newCacheManager(String namespace, InvalidationMode invalidationMode) throws Exception {
+        LayeringCacheManager manager = new LayeringCacheManager(redisTemplate);
+        manager.setStats(false);
+        manager.setNamespace(namespace);
+        manager.setInvalidationMode(invalidationMode);
+        manager.afterPropertiesSet();
+        manager.start();
+        return manager;
+    }
+
     private void sleep(int time) {
         try {
             Thread.sleep(time * 1000);
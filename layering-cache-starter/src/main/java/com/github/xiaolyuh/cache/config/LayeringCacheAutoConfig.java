@@ -14,6 +14,11 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * 多级缓存自动配置类
@@ -33,6 +38,22 @@ public class LayeringCacheAutoConfig {
         LayeringCacheManager layeringCacheManager = new LayeringCacheManager(stringObjectRedisTemplate);
         // 默认开启统计功能
         layeringCacheManager.setStats(properties.isStats());
+        layeringCacheManager.setEvictBatchInterval(properties.getEvictBatchInterval());
+        if (StringUtils.hasText(properties.getNamespace())) {
+            layeringCacheManager.setNamespace(properties.getNamespace());
+        }
+        layeringCacheManager.setChannelShards(properties.getChannelShards());
+        layeringCacheManager.setInvalidationMode(properties.getInvalidationMode());
+        layeringCacheManager.setStreamMaxLen(properties.getStreamMaxLen());
+        layeringCacheManager.setStreamPollInterval(properties.getStreamPollInterval());
+        Map<String, RedisSerializer<Object>> valueSerializers = new HashMap<>(properties.getValueSerializers().size());
+        properties.getValueSerializers().forEach((cacheName, type) -> valueSerializers.put(cacheName, type.create()));
+        layeringCacheManager.setValueSerializers(valueSerializers);
+        layeringCacheManager.setCompressionType(properties.getCompressionType());
+        layeringCacheManager.setCompressionThreshold(properties.getCompressionThreshold());
+        layeringCacheManager.setCacheNamePoolSize(properties.getCacheNamePoolSize(), properties.getCacheNameQueueCapacity());
+        layeringCacheManager.setExecutorMode(properties.getExecutorMode());
+        layeringCacheManager.setBloomFilterRebuildInterval(properties.getBloomFilterRebuildInterval());
         return layeringCacheManager;
     }
 
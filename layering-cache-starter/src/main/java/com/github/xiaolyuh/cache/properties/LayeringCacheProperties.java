@@ -1,7 +1,14 @@
 package com.github.xiaolyuh.cache.properties;
 
+import com.github.xiaolyuh.serializer.CompressionType;
+import com.github.xiaolyuh.serializer.SerializerType;
+import com.github.xiaolyuh.support.ExecutorMode;
+import com.github.xiaolyuh.support.InvalidationMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * @author yuhao.wang3
  */
@@ -18,6 +25,68 @@ public class LayeringCacheProperties {
      */
     private String namespace;
 
+    /**
+     * 删除一级缓存消息共享频道的分片数，小于等于0表示每个缓存名称一个频道；
+     * 大于0表示同一个命名空间下的所有缓存名称共用固定数量的频道，并且消息使用二进制编码
+     */
+    private int channelShards = 0;
+
+    /**
+     * 批量发布删除一级缓存消息的时间间隔，单位毫秒，小于等于0表示不开启批量发布
+     */
+    private long evictBatchInterval = 0;
+
+    /**
+     * 删除一级缓存消息的传输方式，PUB_SUB、STREAM 或 CLIENT_TRACKING（只支持单机模式的redis 6.0+）
+     */
+    private InvalidationMode invalidationMode = InvalidationMode.PUB_SUB;
+
+    /**
+     * STREAM 模式下Stream的最大长度（近似值）
+     */
+    private long streamMaxLen = 100000;
+
+    /**
+     * STREAM 模式下拉取消息的时间间隔，单位毫秒
+     */
+    private long streamPollInterval = 100;
+
+    /**
+     * 按缓存名称指定二级缓存值的序列化方式：PROTOSTUFF、KRYO 或 JDK，没有指定的缓存名称使用 JSON 序列化；
+     * 缓存名称中包含特殊字符时使用 [] 包裹，如：spring.layering-cache.value-serializers.[user:info]=PROTOSTUFF
+     */
+    private Map<String, SerializerType> valueSerializers = new HashMap<>();
+
+    /**
+     * 二级缓存值的压缩算法：LZ4 或 DEFLATE，不配置表示不压缩；开启压缩前写入的缓存仍然可以正常读取
+     */
+    private CompressionType compressionType;
+
+    /**
+     * 二级缓存值序列化后大于等于该值时才压缩，单位字节
+     */
+    private int compressionThreshold = 4096;
+
+    /**
+     * 执行缓存刷新等后台任务的线程池模式：SHARED、CACHE_NAME 或 VIRTUAL_THREAD（JDK 21+）
+     */
+    private ExecutorMode executorMode = ExecutorMode.SHARED;
+
+    /**
+     * CACHE_NAME 模式下每个缓存名称的线程池最大线程数
+     */
+    private int cacheNamePoolSize = 4;
+
+    /**
+     * CACHE_NAME 模式下每个缓存名称的线程池队列最大长度
+     */
+    private int cacheNameQueueCapacity = 100;
+
+    /**
+     * 定时重建布隆过滤器的时间间隔，单位毫秒，小于等于0表示只在创建缓存时初始化一次
+     */
+    private long bloomFilterRebuildInterval = 3600000;
+
     /**
      * 启动 LayeringCacheServlet.
      */
@@ -117,6 +186,102 @@ public class LayeringCacheProperties {
         this.namespace = namespace;
     }
 
+    public int getChannelShards() {
+        return channelShards;
+    }
+
+    public void setChannelShards(int channelShards) {
+        this.channelShards = channelShards;
+    }
+
+    public long getEvictBatchInterval() {
+        return evictBatchInterval;
+    }
+
+    public void setEvictBatchInterval(long evictBatchInterval) {
+        this.evictBatchInterval = evictBatchInterval;
+    }
+
+    public InvalidationMode getInvalidationMode() {
+        return invalidationMode;
+    }
+
+    public void setInvalidationMode(InvalidationMode invalidationMode) {
+        this.invalidationMode = invalidationMode;
+    }
+
+    public long getStreamMaxLen() {
+        return streamMaxLen;
+    }
+
+    public void setStreamMaxLen(long streamMaxLen) {
+        this.streamMaxLen = streamMaxLen;
+    }
+
+    public long getStreamPollInterval() {
+        return streamPollInterval;
+    }
+
+    public void setStreamPollInterval(long streamPollInterval) {
+        this.streamPollInterval = streamPollInterval;
+    }
+
+    public Map<String, SerializerType> getValueSerializers() {
+        return valueSerializers;
+    }
+
+    public void setValueSerializers(Map<String, SerializerType> valueSerializers) {
+        this.valueSerializers = valueSerializers;
+    }
+
+    public CompressionType getCompressionType() {
+        return compressionType;
+    }
+
+    public void setCompressionType(CompressionType compressionType) {
+        this.compressionType = compressionType;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    public void setExecutorMode(ExecutorMode executorMode) {
+        this.executorMode = executorMode;
+    }
+
+    public int getCacheNamePoolSize() {
+        return cacheNamePoolSize;
+    }
+
+    public void setCacheNamePoolSize(int cacheNamePoolSize) {
+        this.cacheNamePoolSize = cacheNamePoolSize;
+    }
+
+    public int getCacheNameQueueCapacity() {
+        return cacheNameQueueCapacity;
+    }
+
+    public void setCacheNameQueueCapacity(int cacheNameQueueCapacity) {
+        this.cacheNameQueueCapacity = cacheNameQueueCapacity;
+    }
+
+    public long getBloomFilterRebuildInterval() {
+        return bloomFilterRebuildInterval;
+    }
+
+    public void setBloomFilterRebuildInterval(long bloomFilterRebuildInterval) {
+        this.bloomFilterRebuildInterval = bloomFilterRebuildInterval;
+    }
+
     public boolean isEnableUpdate() {
         return enableUpdate;
     }